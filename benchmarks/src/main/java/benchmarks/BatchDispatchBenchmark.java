@@ -0,0 +1,70 @@
+package benchmarks;
+
+import elevator.ElevatorSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.RequestDirection;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Burst of {@code batch} hall calls handled by {@link ElevatorSystem#requestCarts(int[], RequestDirection[])}
+ * compared with the same calls made one by one. Carts make one step after each burst.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchDispatchBenchmark {
+
+    @Param({"16", "256", "4096"})
+    public int carts;
+
+    @Param({"60", "1000"})
+    public int floors;
+
+    @Param({"64", "512"})
+    public int batch;
+
+    private Calls calls;
+    private ElevatorSystem elevatorSystem;
+
+    @Setup(Level.Trial)
+    public void createCalls() {
+        calls = new Calls(batch, floors);
+    }
+
+    @Setup(Level.Iteration)
+    public void createSystem() {
+        elevatorSystem = new ElevatorSystem(carts, floors);
+    }
+
+    @Benchmark
+    public int[] requestCarts() {
+        int[] cartIds = elevatorSystem.requestCarts(calls.startingFloors, calls.directions);
+        elevatorSystem.makeStep();
+        return cartIds;
+    }
+
+    @Benchmark
+    public int[] requestCartOneByOne() {
+        int[] cartIds = new int[batch];
+        for (int i = 0; i < batch; i++) {
+            cartIds[i] = elevatorSystem.requestCart(calls.startingFloors[i], calls.directions[i]);
+        }
+        elevatorSystem.makeStep();
+        return cartIds;
+    }
+}
@@ -0,0 +1,34 @@
+package benchmarks;
+
+import app.Passenger;
+import app.PassengerFactory;
+import utils.RequestDirection;
+
+/**
+ * Pregenerated, seeded sequence of passengers' calls, so every benchmark run uses the same input.
+ */
+class Calls {
+
+    static final long SEED = 42L;
+
+    final int[] startingFloors;
+    final int[] destinationFloors;
+    final RequestDirection[] directions;
+
+    Calls(int amount, int floorsAmount) {
+        PassengerFactory passengerFactory = new PassengerFactory(floorsAmount, SEED);
+        startingFloors = new int[amount];
+        destinationFloors = new int[amount];
+        directions = new RequestDirection[amount];
+        for (int i = 0; i < amount; i++) {
+            Passenger passenger = passengerFactory.getRandomPassenger();
+            startingFloors[i] = passenger.getStartingFloor();
+            destinationFloors[i] = passenger.getDestinationFloor();
+            directions[i] = passenger.getDirection();
+        }
+    }
+
+    int size() {
+        return startingFloors.length;
+    }
+}
@@ -0,0 +1,109 @@
+package benchmarks;
+
+import elevator.ConcurrentElevatorSystem;
+import elevator.ElevatorSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hall calls made by many producer threads while one thread makes steps.
+ * Group "queued" uses {@link ConcurrentElevatorSystem}, group "locked" serialises every call and step
+ * behind one lock on {@link ElevatorSystem}. Amount of producers can be changed with JMH's -tg option,
+ * e.g. "-tg 1,8" runs one stepping thread and 8 producers.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentionBenchmark {
+
+    private static final int CALLS_AMOUNT = 1 << 14;
+
+    @Param({"16", "256"})
+    public int carts;
+
+    @Param({"60"})
+    public int floors;
+
+    private Calls calls;
+    private ConcurrentElevatorSystem concurrentSystem;
+    private ElevatorSystem lockedSystem;
+    private final AtomicInteger nextQueued = new AtomicInteger();
+    private final AtomicInteger nextLocked = new AtomicInteger();
+
+    @Setup(Level.Iteration)
+    public void createSystems() {
+        calls = new Calls(CALLS_AMOUNT, floors);
+        concurrentSystem = new ConcurrentElevatorSystem(carts, floors);
+        lockedSystem = new ElevatorSystem(carts, floors);
+    }
+
+    @Benchmark
+    @Group("queued")
+    @GroupThreads(1)
+    public void queuedStep() {
+        concurrentSystem.makeStep();
+    }
+
+    // Waits for assignment, so amount of queued calls is limited by amount of producers. Once iteration ends
+    // calls are no longer queued and waiting stops, as stepping thread may have already left its loop.
+    @Benchmark
+    @Group("queued")
+    @GroupThreads(4)
+    public int queuedCall(Control control) throws InterruptedException, ExecutionException {
+        if (control.stopMeasurement) {
+            return -1;
+        }
+        int i = nextQueued.getAndIncrement() & (CALLS_AMOUNT - 1);
+        CompletableFuture<Integer> cartId = concurrentSystem.requestCart(calls.startingFloors[i],
+                calls.directions[i]);
+        while (!control.stopMeasurement) {
+            try {
+                return cartId.get(1, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ex) {
+                // Checks again whether iteration has ended.
+            }
+        }
+        return -1;
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(1)
+    public void lockedStep() {
+        synchronized (lockedSystem) {
+            lockedSystem.makeStep();
+        }
+    }
+
+    @Benchmark
+    @Group("locked")
+    @GroupThreads(4)
+    public int lockedCall() {
+        int i = nextLocked.getAndIncrement() & (CALLS_AMOUNT - 1);
+        synchronized (lockedSystem) {
+            return lockedSystem.requestCart(calls.startingFloors[i], calls.directions[i]);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package benchmarks;
+
+import elevator.DispatchStrategy;
+import elevator.ElevatorSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of single hall call and destination request handling.
+ * Before each iteration carts are loaded with {@code load} calls per cart and moved for a few steps,
+ * so dispatch sees carts spread between floors and directions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    private static final int CALLS_AMOUNT = 1 << 14;
+
+    @Param({"16", "256", "4096"})
+    public int carts;
+
+    @Param({"60", "1000"})
+    public int floors;
+
+    @Param({"1", "4"})
+    public int load;
+
+    @Param({"fitness", "eta"})
+    public String strategy;
+
+    private Calls calls;
+    private ElevatorSystem elevatorSystem;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createCalls() {
+        calls = new Calls(CALLS_AMOUNT, floors);
+    }
+
+    @Setup(Level.Iteration)
+    public void loadSystem() {
+        elevatorSystem = new ElevatorSystem(carts, floors, DispatchStrategy.forName(strategy));
+        next = 0;
+        for (int i = 0; i < carts * load; i++) {
+            requestNext();
+            if (i % carts == 0) {
+                elevatorSystem.makeStep();
+            }
+        }
+    }
+
+    // Makes one step every carts' amount of calls, so carts keep serving requests instead of only collecting them.
+    @Benchmark
+    public int requestCart() {
+        if (next % carts == 0) {
+            elevatorSystem.makeStep();
+        }
+        return requestNext();
+    }
+
+    @Benchmark
+    public int makeDestinationRequest() {
+        int i = next++ & (CALLS_AMOUNT - 1);
+        int cartId = i % carts;
+        elevatorSystem.makeDestinationRequest(cartId, calls.destinationFloors[i]);
+        return cartId;
+    }
+
+    private int requestNext() {
+        int i = next++ & (CALLS_AMOUNT - 1);
+        return elevatorSystem.requestCart(calls.startingFloors[i], calls.directions[i]);
+    }
+}
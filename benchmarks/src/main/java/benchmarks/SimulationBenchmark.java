@@ -0,0 +1,61 @@
+package benchmarks;
+
+import app.NoOutput;
+import app.PassengerFactory;
+import app.Simulation;
+import app.SimulationConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end benchmark of whole simulation without console output, with seeded passengers.
+ * Simulation is run step by step or event-driven.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulationBenchmark {
+
+    @Param({"16", "256", "4096"})
+    public int carts;
+
+    @Param({"60", "1000"})
+    public int floors;
+
+    @Param({"1000", "10000"})
+    public int passengers;
+
+    @Param({"false", "true"})
+    public boolean eventDriven;
+
+    private SimulationConfig config;
+
+    @Setup
+    public void createConfig() {
+        config = new SimulationConfig();
+        config.setCartsAmount(carts);
+        config.setFloorsAmount(floors);
+        config.setPassengersAmount(passengers);
+        config.setPassengersFrequency(1);
+        config.setEventDriven(eventDriven);
+    }
+
+    @Benchmark
+    public int simulation() {
+        return new Simulation(config, new PassengerFactory(floors, Calls.SEED), new NoOutput()).run();
+    }
+}
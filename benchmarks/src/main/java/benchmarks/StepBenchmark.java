@@ -0,0 +1,83 @@
+package benchmarks;
+
+import elevator.ElevatorSystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link ElevatorSystem#makeStep()} for carts with {@code load} pending requests each.
+ * When every request is served, carts are loaded again with the same seeded calls.
+ * Parallelism 0 means sequential stepping.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StepBenchmark {
+
+    private static final int SEQUENTIAL_STEP_THRESHOLD = 256;
+
+    @Param({"16", "256", "4096"})
+    public int carts;
+
+    @Param({"60", "1000"})
+    public int floors;
+
+    @Param({"1", "4"})
+    public int load;
+
+    @Param({"0", "4"})
+    public int parallelism;
+
+    private Calls calls;
+    private ElevatorSystem elevatorSystem;
+
+    @Setup(Level.Trial)
+    public void createCalls() {
+        calls = new Calls(carts * load, floors);
+    }
+
+    @Setup(Level.Iteration)
+    public void createSystem() {
+        elevatorSystem = new ElevatorSystem(carts, floors);
+        if (parallelism > 0) {
+            elevatorSystem.enableParallelStepping(parallelism, SEQUENTIAL_STEP_THRESHOLD);
+        }
+        loadSystem();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopWorkers() {
+        elevatorSystem.disableParallelStepping();
+    }
+
+    @Benchmark
+    public int makeStep() {
+        if (elevatorSystem.getRequestsAmount() == 0) {
+            loadSystem();
+        }
+        elevatorSystem.makeStep();
+        return elevatorSystem.getRequestsAmount();
+    }
+
+    private void loadSystem() {
+        for (int i = 0; i < calls.size(); i++) {
+            elevatorSystem.makeDestinationRequest(i % carts, calls.startingFloors[i]);
+        }
+    }
+}
@@ -1,14 +1,17 @@
 package app;
 
-import elevator.ElevatorCart;
+import elevator.DispatchStrategy;
+import elevator.ElevatorMetrics;
 import elevator.ElevatorSystem;
+import elevator.TraceReplayer;
 
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 
@@ -25,40 +28,137 @@ public class App {
      * @param args
      */
 
-    private static PassengerFactory passengerFactory;
-    private static ElevatorSystem elevatorSystem;
-    private static List<Passenger> waitingPassengers;
     private static final String configFileName = "config.properties";
-    private static int cartsAmount = 16;
-    private static int floorsAmount = 50;
-    private static int minStepsAmount = 20;
-    private static int passengersAmount = 70;
-    private static int passengersFrequency = 2;
 
     public static void main(String[] args) throws Exception {
 
-        readParams();
+        if ((args.length == 2 || args.length == 3) && "replay".equals(args[0])) {
+            replayTrace(args[1], args.length == 3 ? args[2] : "fitness");
+            return;
+        }
 
-        System.out.println(getParamsString());
+        if ((args.length == 1 || args.length == 2) && "sweep".equals(args[0])) {
+            runSweep(args.length == 2 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors());
+            return;
+        }
+
+        if ((args.length == 1 || args.length == 2) && "host".equals(args[0])) {
+            runHost(args.length == 2 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors());
+            return;
+        }
+
+        if (args.length == 1 && "resume".equals(args[0])) {
+            resumeSimulation(readParams());
+            return;
+        }
+
+        SimulationConfig config = readParams();
+
+        System.out.println(config);
 
         Thread.sleep(2000);
 
-        callElevatorApi();
+        if (!config.getBanks().isEmpty()) {
+            runBuildingSimulation(config);
+            return;
+        }
+
+        try (SimulationOutput output = SimulationOutput.fromConfig(config)) {
+            Simulation simulation = Simulation.withSeed(config, config.getSeed(), output);
+            ElevatorMetrics metrics = simulation.getElevatorSystem().getMetrics();
+            if (metrics != null) {
+                metrics.registerMBean("simulation");
+            }
+            simulation.run();
+            if (metrics != null) {
+                System.out.println(metrics.getSnapshot());
+            }
+        }
 
     }
 
-    private static void readParams() {
+    //Runs simulation of building with banks and prints steps of passengers' trips.
+    private static void runBuildingSimulation(SimulationConfig config) {
+        try (SimulationOutput output = SimulationOutput.fromConfig(config)) {
+            BuildingSimulation simulation = new BuildingSimulation(config,
+                    Simulation.createPassengerSource(config, config.getSeed()), output);
+            System.out.println(simulation.getBuilding());
+            int steps = simulation.run();
+            System.out.println(String.format("Steps made: %d, transfers: %d%nTrip steps: %s", steps,
+                    simulation.getTransfersAmount(), simulation.getTripSteps()));
+        }
+    }
+
+    //Resumes simulation from snapshot file given in config, passengers drawn from config's seed after snapshot
+    //are the ones interrupted simulation would get.
+    private static void resumeSimulation(SimulationConfig config) throws IOException {
+        PassengerSource passengerSource = Simulation.createPassengerSource(config, config.getSeed());
+        try (SimulationOutput output = SimulationOutput.fromConfig(config)) {
+            Simulation simulation = Simulation.resume(config, passengerSource, output);
+            int stepsMade = simulation.getElevatorSystem().getStepsMade();
+            System.out.println(String.format("Resumed from step %d, steps made: %d", stepsMade, simulation.run()));
+        }
+    }
+
+    //Runs parameter sweep described in config file without printing steps and writes its results as CSV.
+    private static void runSweep(int parallelism) throws IOException {
+        Properties properties = readProperties();
+        ParameterSweep sweep = ParameterSweep.fromProperties(properties);
+        String outputFile = properties.getProperty("sweepOutput", "sweep.csv").trim();
+        long startTime = System.nanoTime();
+        List<ParameterSweep.Result> results = sweep.run(parallelism);
+        try (Writer writer = Files.newBufferedWriter(Paths.get(outputFile))) {
+            ParameterSweep.writeCsv(results, writer);
+        }
+        System.out.println(String.format("Swept %d combinations with %d threads in %d s, results written to %s",
+                results.size(), parallelism, (System.nanoTime() - startTime) / 1_000_000_000L, outputFile));
+    }
+
+    //Runs every building described in config file without printing steps and writes their results as CSV.
+    //Buildings run on virtual threads when hostThreads parameter is "virtual" and Java has them.
+    private static void runHost(int parallelism) throws IOException {
+        Properties properties = readProperties();
+        SimulationHost host = SimulationHost.fromProperties(properties);
+        String outputFile = properties.getProperty("hostOutput", "host.csv").trim();
+        boolean virtualThreads = "virtual".equals(properties.getProperty("hostThreads", "pool").trim());
+        if (virtualThreads && !SimulationHost.isVirtualThreadsAvailable()) {
+            System.err.println("Virtual threads need Java 21 or newer - using pool of threads!");
+            virtualThreads = false;
+        }
+        long startTime = System.nanoTime();
+        List<SimulationHost.Result> results = virtualThreads ? host.runOnVirtualThreads() : host.run(parallelism);
+        try (Writer writer = Files.newBufferedWriter(Paths.get(outputFile))) {
+            SimulationHost.writeCsv(results, writer);
+        }
+        System.out.println(String.format("Simulated %d buildings (%d failed) on %s in %d s, results written to %s",
+                results.size(), SimulationHost.getFailuresAmount(results),
+                virtualThreads ? "virtual threads" : parallelism + " threads",
+                (System.nanoTime() - startTime) / 1_000_000_000L, outputFile));
+        System.out.println(String.format("Wait steps: %s%nRide steps: %s", host.getWaitSteps(),
+                host.getRideSteps()));
+    }
+
+    //Replays trace file and prints whether dispatch strategy assigned same carts as recorded ones.
+    private static void replayTrace(String traceFile, String dispatchStrategy) throws IOException {
+        TraceReplayer replayer = new TraceReplayer(Paths.get(traceFile), DispatchStrategy.forName(dispatchStrategy));
+        ElevatorSystem elevatorSystem = replayer.replay();
+        System.out.println(String.format("Replayed %d calls and %d steps, %d calls assigned to other carts%s",
+                replayer.getReplayedCalls(), elevatorSystem.getStepsMade(), replayer.getMismatchedCalls(),
+                replayer.getFirstMismatchStep() < 0 ? ""
+                        : String.format(" (first in step %d)", replayer.getFirstMismatchStep())));
+        System.out.println(elevatorSystem);
+    }
+
+    private static SimulationConfig readParams() {
+        return SimulationConfig.fromProperties(readProperties());
+    }
+
+    private static Properties readProperties() {
         InputStream input = null;
+        Properties properties = new Properties();
         try {
             input = new FileInputStream(Paths.get(configFileName).toString());
-            Properties properties = new Properties();
             properties.load(input);
-            cartsAmount = Integer.parseInt(properties.getProperty("cartsAmount"));
-            floorsAmount = Integer.parseInt(properties.getProperty("floorsAmount"));
-            minStepsAmount = Integer.parseInt(properties.getProperty("minStepsAmount"));
-            passengersAmount = Integer.parseInt(properties.getProperty("passengersAmount"));
-            passengersFrequency = Integer.parseInt(properties.getProperty("passengersFrequency"));
-
 
         } catch (FileNotFoundException ex) {
             System.err.println(String.format("File %s not found!- Using parameters from program!", configFileName));
@@ -76,86 +176,7 @@ public class App {
                 }
             }
         }
+        return properties;
     }
 
-
-    private static String getParamsString() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("Current Parameters are:\n");
-        sb.append(String.format("Amount of carts: %d%n", cartsAmount));
-        sb.append(String.format("Amount of floors: %d%n", floorsAmount));
-        sb.append(String.format("Minimum amount of steps in simulation: %d%n", minStepsAmount));
-        sb.append(String.format("Amount of passengers: %d%n", passengersAmount));
-        sb.append(String.format(
-                "Passengers requests frequency: %d(it means each %d simulation steps new request will occur)%n%n"
-                , passengersFrequency, passengersFrequency));
-        return sb.toString();
-    }
-
-    private static void callElevatorApi() {
-
-
-        elevatorSystem = new ElevatorSystem(cartsAmount, floorsAmount);
-        passengerFactory = new PassengerFactory(floorsAmount);
-        List<Passenger> passengerList = new ArrayList<>();
-        waitingPassengers = new ArrayList<>();
-
-        for (int i = 0; i < passengersAmount; i++) {
-            passengerList.add(passengerFactory.getRandomPassenger());
-        }
-
-        int i = 0;
-        int j = 0;
-
-        while (!waitingPassengers.isEmpty() || minStepsAmount > j || !isEveryCartIdle()) {
-
-            if (((j++ % passengersFrequency) == 0) && i < passengersAmount) {
-
-                makePassengerRequest(passengerList.get(i++));
-
-            }
-            checkAndMakeRequestsForActivePassengers();
-            elevatorSystem.makeStep();
-
-            System.out.println(String.format("Step %d:", j + 1));
-            System.out.println(elevatorSystem.getCartsList());
-            System.out.println(waitingPassengers);
-
-        }
-
-    }
-
-
-    private static void makePassengerRequest(Passenger passenger) {
-        passenger.setAssignedCartId(elevatorSystem.requestCart(passenger.getStartingFloor()
-                , passenger.getDirection()));
-
-        waitingPassengers.add(passenger);
-    }
-
-    private static boolean isEveryCartIdle() {
-        for (ElevatorCart cart : elevatorSystem.getCartsList()) {
-            if (!cart.isIdle()) {
-                return false;
-            }
-        }
-        return true;
-    }
-
-    //For every passenger checks if cart assigned to him is now on his floor.
-    //If it is true passenger is adding requests for his destination floor and becomes no more active.
-    private static void checkAndMakeRequestsForActivePassengers() {
-        List<Passenger> passengersToRemove = new ArrayList<>();
-        for (Passenger passenger : waitingPassengers) {
-            if (elevatorSystem.getCartsList().get(passenger.getAssignedCartId()).getCurrentFloor() == passenger.getStartingFloor()) {
-                elevatorSystem.makeDestinationRequest(passenger.getAssignedCartId(), passenger.getDestinationFloor());
-                passengersToRemove.add(passenger);
-            }
-        }
-        waitingPassengers.removeAll(passengersToRemove);
-    }
-
-
 }
-
-
@@ -0,0 +1,122 @@
+package app;
+
+import elevator.ElevatorCart;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Output formatting steps in simulation's thread and writing them to stream in background thread.
+ * Steps are appended to one of few reused builders, full builder is passed to writing thread.
+ * Simulation waits only when every builder is waiting to be written. When writing fails, writing thread
+ * only returns builders for reuse and failure is thrown from next printed step or from closing output.
+ */
+public class AsyncOutput implements SimulationOutput {
+
+    private static final int BUFFERS_AMOUNT = 4;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Writer writer;
+    private final BlockingQueue<StringBuilder> freeBuffers;
+    private final BlockingQueue<StringBuilder> filledBuffers;
+    private final Thread writingThread;
+    private final StringBuilder closingBuffer;
+    private StringBuilder buffer;
+    private volatile Exception writingException;
+
+    public AsyncOutput(OutputStream outputStream) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream));
+        this.freeBuffers = new ArrayBlockingQueue<>(BUFFERS_AMOUNT);
+        this.filledBuffers = new ArrayBlockingQueue<>(BUFFERS_AMOUNT + 1);
+        this.closingBuffer = new StringBuilder();
+        for (int i = 0; i < BUFFERS_AMOUNT - 1; i++) {
+            freeBuffers.add(new StringBuilder(BUFFER_SIZE));
+        }
+        this.buffer = new StringBuilder(BUFFER_SIZE);
+        this.writingThread = new Thread(this::writeBuffers, "simulation-output");
+        this.writingThread.setDaemon(true);
+        this.writingThread.start();
+    }
+
+    @Override
+    public void printStep(int stepNumber, List<ElevatorCart> carts, Collection<Passenger> waitingPassengers) {
+        checkWriting();
+        SimulationOutput.appendStep(buffer, stepNumber, carts, waitingPassengers);
+        if (buffer.length() >= BUFFER_SIZE) {
+            passBuffer();
+        }
+    }
+
+    //Waits until every step is written. Queue of filled builders has place for every builder and closing one.
+    @Override
+    public void close() {
+        if (buffer.length() > 0) {
+            putInterruptibly(filledBuffers, buffer);
+        }
+        putInterruptibly(filledBuffers, closingBuffer);
+        try {
+            writingThread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        checkWriting();
+    }
+
+    private void checkWriting() {
+        if (writingException != null) {
+            throw new IllegalStateException("Problem while writing simulation output", writingException);
+        }
+    }
+
+    private void passBuffer() {
+        putInterruptibly(filledBuffers, buffer);
+        try {
+            buffer = freeBuffers.take();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            buffer = new StringBuilder(BUFFER_SIZE);
+        }
+    }
+
+    //Any exception of stream stops writing, but builders are still returned, so simulation never waits for them
+    //forever and learns about failure from next step.
+    private void writeBuffers() {
+        char[] chars = new char[BUFFER_SIZE];
+        try {
+            StringBuilder filledBuffer;
+            while ((filledBuffer = filledBuffers.take()) != closingBuffer) {
+                if (writingException == null) {
+                    try {
+                        chars = ConsoleOutput.write(writer, filledBuffer, chars);
+                    } catch (IOException | RuntimeException ex) {
+                        writingException = ex;
+                    }
+                }
+                filledBuffer.setLength(0);
+                freeBuffers.put(filledBuffer);
+            }
+            if (writingException == null) {
+                writer.flush();
+            }
+        } catch (IOException | RuntimeException ex) {
+            writingException = ex;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void putInterruptibly(BlockingQueue<StringBuilder> queue, StringBuilder sb) {
+        try {
+            queue.put(sb);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package app;
+
+import elevator.Bank;
+import elevator.Building;
+import elevator.DispatchStrategy;
+import elevator.ElevatorCart;
+import elevator.ElevatorListener;
+import elevator.Route;
+import utils.Histogram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Simulation of building whose carts are split into banks, configured with banks parameter.
+ * Passengers who can't get to destination with one bank transfer on floors served by two banks.
+ * Passengers board and leave carts when carts stop on their floors, steps are always made one by one.
+ * Route of each passenger is found when he arrives, passengers are forgotten once they get to destination.
+ */
+public class BuildingSimulation {
+
+    private final SimulationConfig config;
+    private final Building building;
+    private final PassengerSource passengerSource;
+    private final SimulationOutput output;
+
+    private final List<Passenger> passengerList;
+    private boolean keepPassengers;
+    private final List<ElevatorCart> carts;
+    private final Set<Passenger> waitingPassengers;
+    //Trips of passengers waiting for cart or riding in it, by bank, cart and floor where cart has to stop.
+    private final Map<Long, List<Trip>> waitingByStop;
+    private final Map<Long, List<Trip>> ridingByStop;
+
+    //Stops made in current step, as keys of waitingByStop and ridingByStop.
+    private long[] servedStops;
+    private int servedStopsAmount;
+
+    private final Histogram tripSteps;
+    private int transfersAmount;
+
+    /**
+     * Creates simulation in which passengers amount and frequency are taken from config.
+     *
+     * @param config           parameters of simulation, with banks parameter describing banks.
+     * @param passengerFactory factory used to create passengers.
+     * @param output           output to which state of carts and waiting passengers is printed after each step.
+     */
+    public BuildingSimulation(SimulationConfig config, PassengerFactory passengerFactory, SimulationOutput output) {
+        this(config, passengerFactory.getPassengerSource(config.getPassengersAmount(),
+                config.getPassengersFrequency()), output);
+        this.keepPassengers = true;
+    }
+
+    /**
+     * Creates simulation in which passengers come from given source.
+     * Passengers are not kept after they get to destination, so they don't have to fit in memory at once.
+     *
+     * @param config          parameters of simulation, with banks parameter describing banks,
+     *                        passengers amount and frequency are not used.
+     * @param passengerSource source of arriving passengers.
+     * @param output          output to which state of carts and waiting passengers is printed after each step.
+     */
+    public BuildingSimulation(SimulationConfig config, PassengerSource passengerSource, SimulationOutput output) {
+        this.config = config;
+        this.building = new Building(config.getFloorsAmount(), parseBanks(config.getBanks(),
+                config.getDispatchStrategy()));
+        this.passengerSource = passengerSource;
+        this.output = output;
+        this.passengerList = new ArrayList<>();
+        this.carts = new ArrayList<>();
+        this.waitingPassengers = new LinkedHashSet<>();
+        this.waitingByStop = new HashMap<>();
+        this.ridingByStop = new HashMap<>();
+        this.servedStops = new long[16];
+        this.tripSteps = new Histogram();
+
+        for (int floor = 1; floor <= config.getFloorsAmount(); floor++) {
+            if (building.getBankIndexes(floor).length == 0) {
+                throw new IllegalArgumentException(String.format("No bank serves floor %d", floor));
+            }
+        }
+        List<Bank> banks = building.getBanks();
+        for (int i = 0; i < banks.size(); i++) {
+            int bankIndex = i;
+            carts.addAll(banks.get(i).getElevatorSystem().getCartsList());
+            banks.get(i).getElevatorSystem().addListener(new ElevatorListener() {
+                @Override
+                public void onStopServed(int step, int cartId, int floorNumber) {
+                    addServedStop(getStopKey(bankIndex, cartId, floorNumber));
+                }
+            });
+        }
+    }
+
+    /**
+     * Parses banks described as "name/cartsAmount/floors" separated by semicolons, where floors are
+     * comma-separated floor numbers or ranges, e.g. "low/4/0-20;high/4/0,20-40".
+     *
+     * @param description      description of banks.
+     * @param dispatchStrategy name of strategy used by each bank.
+     * @return banks in described order.
+     */
+    static List<Bank> parseBanks(String description, String dispatchStrategy) {
+        List<Bank> banks = new ArrayList<>();
+        for (String bankDescription : description.split(";")) {
+            String[] fields = bankDescription.trim().split("/");
+            if (fields.length != 3) {
+                throw new IllegalArgumentException(String.format("Bank should be name/cartsAmount/floors, got %s",
+                        bankDescription));
+            }
+            BitSet servedFloors = new BitSet();
+            for (String range : fields[2].split(",")) {
+                String[] bounds = range.trim().split("-");
+                int lowestFloor = Integer.parseInt(bounds[0].trim());
+                int highestFloor = Integer.parseInt(bounds[bounds.length - 1].trim());
+                servedFloors.set(lowestFloor, highestFloor + 1);
+            }
+            banks.add(new Bank(fields[0].trim(), Integer.parseInt(fields[1].trim()), servedFloors,
+                    DispatchStrategy.forName(dispatchStrategy)));
+        }
+        return banks;
+    }
+
+    /**
+     * Runs simulation until every passenger gets to his destination, every cart is idle
+     * and minimum amount of steps is made.
+     *
+     * @return amount of steps made.
+     */
+    public int run() {
+        Passenger nextPassenger = nextPassenger();
+        int travellingAmount = 0;
+        int j = 0;
+        while (nextPassenger != null || travellingAmount > 0 || config.getMinStepsAmount() > j
+                || !isEveryCartIdle()) {
+
+            while (nextPassenger != null && nextPassenger.getCallStep() <= j) {
+                requestCart(new Trip(nextPassenger, building.route(nextPassenger.getStartingFloor(),
+                        nextPassenger.getDestinationFloor())), j);
+                travellingAmount++;
+                nextPassenger = nextPassenger();
+            }
+
+            servedStopsAmount = 0;
+            building.makeStep();
+            j++;
+
+            for (int stop = 0; stop < servedStopsAmount; stop++) {
+                travellingAmount -= leaveCart(servedStops[stop], j);
+                board(servedStops[stop], j);
+            }
+
+            output.printStep(j + 1, carts, waitingPassengers);
+        }
+        return j;
+    }
+
+    //Returns next passenger from source, keeping him if needed.
+    private Passenger nextPassenger() {
+        Passenger passenger = passengerSource.next();
+        if (passenger != null && keepPassengers) {
+            passengerList.add(passenger);
+        }
+        return passenger;
+    }
+
+    //Passenger calls cart for his current leg, he boards at once if assigned cart is on his floor.
+    private void requestCart(Trip trip, int step) {
+        Route route = trip.route;
+        int bankIndex = route.getBankIndex(trip.leg);
+        int cartId = building.requestCart(route, trip.leg);
+        trip.passenger.setAssignedCartId(cartId);
+        waitingPassengers.add(trip.passenger);
+
+        ElevatorCart cart = building.getBanks().get(bankIndex).getElevatorSystem().getCartsList().get(cartId);
+        long stopKey = getStopKey(bankIndex, cartId, route.getFromFloor(trip.leg));
+        if (cart.getCurrentFloor() == route.getFromFloor(trip.leg)) {
+            board(trip, stopKey, step);
+        } else {
+            waitingByStop.computeIfAbsent(stopKey, key -> new ArrayList<>()).add(trip);
+        }
+    }
+
+    private void board(long stopKey, int step) {
+        List<Trip> boarding = waitingByStop.remove(stopKey);
+        if (boarding != null) {
+            for (Trip trip : boarding) {
+                board(trip, stopKey, step);
+            }
+        }
+    }
+
+    //Passenger steps into cart and makes request for floor where his leg ends.
+    private void board(Trip trip, long stopKey, int step) {
+        int toFloor = trip.route.getToFloor(trip.leg);
+        int bankIndex = getStopBankIndex(stopKey);
+        int cartId = getStopCartId(stopKey);
+        if (trip.leg == 0) {
+            trip.passenger.setBoardingStep(step);
+        }
+        waitingPassengers.remove(trip.passenger);
+        building.getBanks().get(bankIndex).makeDestinationRequest(cartId, toFloor);
+        ridingByStop.computeIfAbsent(getStopKey(bankIndex, cartId, toFloor), key -> new ArrayList<>()).add(trip);
+    }
+
+    //Passengers whose leg ends on stop leave cart, returns amount of passengers who got to their destinations.
+    private int leaveCart(long stopKey, int step) {
+        List<Trip> leaving = ridingByStop.remove(stopKey);
+        if (leaving == null) {
+            return 0;
+        }
+        int arrivedAmount = 0;
+        for (Trip trip : leaving) {
+            if (++trip.leg == trip.route.getLegsAmount()) {
+                tripSteps.record(step - trip.passenger.getCallStep());
+                arrivedAmount++;
+            } else {
+                transfersAmount++;
+                requestCart(trip, step);
+            }
+        }
+        return arrivedAmount;
+    }
+
+    private void addServedStop(long stopKey) {
+        if (servedStopsAmount == servedStops.length) {
+            servedStops = Arrays.copyOf(servedStops, servedStops.length * 2);
+        }
+        servedStops[servedStopsAmount++] = stopKey;
+    }
+
+    //Stop key is bank's index, cart's id and floor number in 16, 24 and 24 bits.
+    private static long getStopKey(int bankIndex, int cartId, int floorNumber) {
+        return (long) bankIndex << 48 | (long) cartId << 24 | floorNumber;
+    }
+
+    private static int getStopBankIndex(long stopKey) {
+        return (int) (stopKey >>> 48);
+    }
+
+    private static int getStopCartId(long stopKey) {
+        return (int) (stopKey >>> 24) & 0xFFFFFF;
+    }
+
+    private boolean isEveryCartIdle() {
+        for (ElevatorCart cart : carts) {
+            if (!cart.isIdle()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Building getBuilding() {
+        return building;
+    }
+
+    /**
+     * @return every passenger of simulation created by {@link PassengerFactory}, with steps of their calls
+     * and boardings after simulation is run, empty if passengers came from other {@link PassengerSource}.
+     */
+    public List<Passenger> getPassengers() {
+        return Collections.unmodifiableList(passengerList);
+    }
+
+    /**
+     * @return steps from first call until arrival on destination floor, one value for each passenger.
+     */
+    public Histogram getTripSteps() {
+        return tripSteps.copy();
+    }
+
+    /**
+     * @return amount of transfers made by passengers.
+     */
+    public int getTransfersAmount() {
+        return transfersAmount;
+    }
+
+    //Passenger travelling on his route, leg is index of route's leg he waits for or rides on.
+    private static class Trip {
+
+        private final Passenger passenger;
+        private final Route route;
+        private int leg;
+
+        private Trip(Passenger passenger, Route route) {
+            this.passenger = passenger;
+            this.route = route;
+        }
+    }
+}
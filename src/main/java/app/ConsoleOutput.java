@@ -0,0 +1,60 @@
+package app;
+
+import elevator.ElevatorCart;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Output writing each step to stream right away, from simulation's thread.
+ * Steps are formatted into one reused builder.
+ */
+public class ConsoleOutput implements SimulationOutput {
+
+    private final Writer writer;
+    private final StringBuilder sb;
+    private char[] chars;
+
+    public ConsoleOutput(OutputStream outputStream) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream));
+        this.sb = new StringBuilder();
+        this.chars = new char[0];
+    }
+
+    @Override
+    public void printStep(int stepNumber, List<ElevatorCart> carts, Collection<Passenger> waitingPassengers) {
+        sb.setLength(0);
+        SimulationOutput.appendStep(sb, stepNumber, carts, waitingPassengers);
+        try {
+            chars = write(writer, sb, chars);
+            writer.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    //Writes builder's content through given chars buffer, returns buffer enlarged if it was too small.
+    static char[] write(Writer writer, StringBuilder sb, char[] chars) throws IOException {
+        if (chars.length < sb.length()) {
+            chars = new char[Math.max(sb.length(), chars.length * 2)];
+        }
+        sb.getChars(0, sb.length(), chars, 0);
+        writer.write(chars, 0, sb.length());
+        return chars;
+    }
+}
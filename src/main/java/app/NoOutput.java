@@ -0,0 +1,20 @@
+package app;
+
+import elevator.ElevatorCart;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Output ignoring every step.
+ */
+public class NoOutput implements SimulationOutput {
+
+    @Override
+    public void printStep(int stepNumber, List<ElevatorCart> carts, Collection<Passenger> waitingPassengers) {
+    }
+
+    @Override
+    public void close() {
+    }
+}
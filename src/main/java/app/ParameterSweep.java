@@ -0,0 +1,278 @@
+package app;
+
+import elevator.MetricsSnapshot;
+import utils.Histogram;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many independent simulations for every combination of carts amount, floors amount, passengers frequency
+ * and dispatch strategy, each with several seeds, and aggregates steps which passengers waited for carts.
+ * Simulations run on thread pool without output, trace or snapshots, event-driven when their parameters
+ * allow it.
+ * Seed number i gives same passengers to every combination with same floors amount, so combinations
+ * are compared on same traffic.
+ */
+public class ParameterSweep {
+
+    private final Properties baseProperties;
+    private final List<Result> results;
+    private final int seedsAmount;
+    private final long firstSeed;
+
+    /**
+     * @param baseProperties        parameters of every simulation, except for swept ones.
+     * @param cartsAmounts          amounts of carts to sweep.
+     * @param floorsAmounts         amounts of floors to sweep.
+     * @param passengersFrequencies frequencies of passengers to sweep.
+     * @param dispatchStrategies    names of dispatch strategies to sweep.
+     * @param seedsAmount           amount of simulations run for each combination.
+     * @param firstSeed             seed of first simulation of each combination, next ones use next numbers.
+     */
+    public ParameterSweep(Properties baseProperties, int[] cartsAmounts, int[] floorsAmounts,
+                          int[] passengersFrequencies, String[] dispatchStrategies, int seedsAmount, long firstSeed) {
+        if (seedsAmount < 1) {
+            throw new IllegalArgumentException(String.format("Seeds amount (%d) has to be positive", seedsAmount));
+        }
+        this.baseProperties = baseProperties;
+        this.seedsAmount = seedsAmount;
+        this.firstSeed = firstSeed;
+        this.results = new ArrayList<>();
+        for (int cartsAmount : cartsAmounts) {
+            for (int floorsAmount : floorsAmounts) {
+                for (int passengersFrequency : passengersFrequencies) {
+                    for (String dispatchStrategy : dispatchStrategies) {
+                        results.add(new Result(cartsAmount, floorsAmount, passengersFrequency, dispatchStrategy,
+                                seedsAmount));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates sweep from sweepCartsAmounts, sweepFloorsAmounts, sweepPassengersFrequencies and
+     * sweepDispatchStrategies parameters with comma-separated values, parameter which is missing or empty
+     * takes single value from simulation parameters. Amount of seeds is given by sweepSeeds parameter.
+     *
+     * @param properties simulation and sweep parameters, e.g. loaded from config file.
+     * @return sweep described by parameters.
+     */
+    public static ParameterSweep fromProperties(Properties properties) {
+        SimulationConfig config = SimulationConfig.fromProperties(properties);
+        return new ParameterSweep(properties,
+                readInts(properties, "sweepCartsAmounts", config.getCartsAmount()),
+                readInts(properties, "sweepFloorsAmounts", config.getFloorsAmount()),
+                readInts(properties, "sweepPassengersFrequencies", config.getPassengersFrequency()),
+                readStrings(properties, "sweepDispatchStrategies", config.getDispatchStrategy()),
+                Integer.parseInt(properties.getProperty("sweepSeeds", "10").trim()), 0);
+    }
+
+    private static int[] readInts(Properties properties, String key, int defaultValue) {
+        String[] values = readStrings(properties, key, String.valueOf(defaultValue));
+        int[] numbers = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            numbers[i] = Integer.parseInt(values[i]);
+        }
+        return numbers;
+    }
+
+    //Splits comma-separated values of parameter, missing or empty parameter gives default value.
+    static String[] readStrings(Properties properties, String key, String defaultValue) {
+        String value = properties.getProperty(key, "").trim();
+        if (value.isEmpty()) {
+            return new String[]{defaultValue};
+        }
+        String[] values = value.split(",");
+        for (int i = 0; i < values.length; i++) {
+            values[i] = values[i].trim();
+        }
+        return values;
+    }
+
+    /**
+     * Runs every simulation of sweep and waits until they end.
+     *
+     * @param parallelism amount of simulations running at the same time.
+     * @return results of combinations, in order of carts amount, floors amount, passengers frequency
+     * and dispatch strategy.
+     */
+    public List<Result> run(int parallelism) {
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<?>> runs = new ArrayList<>(results.size() * seedsAmount);
+            for (Result result : results) {
+                for (int seedIndex = 0; seedIndex < seedsAmount; seedIndex++) {
+                    int runIndex = seedIndex;
+                    runs.add(executor.submit(() -> runSimulation(result, runIndex)));
+                }
+            }
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sweep was interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Simulation of sweep failed", ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return Collections.unmodifiableList(results);
+    }
+
+    //Simulation keeps nothing but metrics, they are added to combination's result when it ends.
+    private void runSimulation(Result result, int seedIndex) {
+        SimulationConfig config = SimulationConfig.fromProperties(baseProperties);
+        config.setCartsAmount(result.cartsAmount);
+        config.setFloorsAmount(result.floorsAmount);
+        config.setPassengersFrequency(result.passengersFrequency);
+        config.setDispatchStrategy(result.dispatchStrategy);
+        config.setStepParallelism(0);
+        config.setEventDriven(true);
+        config.setTraceFile("");
+        config.setSnapshotFile("");
+        config.setMetrics(true);
+
+        long seed = firstSeed + seedIndex;
+        Simulation simulation = Simulation.withSeed(config, seed, new NoOutput());
+        int steps = simulation.run();
+        MetricsSnapshot metrics = simulation.getElevatorSystem().getMetrics().getSnapshot();
+        result.add(seedIndex, steps, metrics.getWaitSteps(), metrics.getRideSteps());
+    }
+
+    /**
+     * Writes results as CSV with header line, one line for each combination.
+     *
+     * @param results results returned by {@link #run(int)}.
+     * @param writer  writer to which lines are written, it isn't closed.
+     * @throws IOException when writing fails.
+     */
+    public static void writeCsv(List<Result> results, Writer writer) throws IOException {
+        writer.write(String.format("cartsAmount,floorsAmount,passengersFrequency,dispatchStrategy,runs,calls,"
+                + "meanWait,meanWaitStdDev,p50Wait,p90Wait,p99Wait,maxWait,meanRide,meanSteps%n"));
+        for (Result result : results) {
+            Histogram waitSteps = result.getWaitSteps();
+            writer.write(String.format(Locale.ROOT, "%d,%d,%d,%s,%d,%d,%.3f,%.3f,%d,%d,%d,%d,%.3f,%.1f%n",
+                    result.cartsAmount, result.floorsAmount, result.passengersFrequency, result.dispatchStrategy,
+                    result.getRunsAmount(), waitSteps.getCount(), waitSteps.getMean(), result.getMeanWaitStdDev(),
+                    waitSteps.getValueAtPercentile(50), waitSteps.getValueAtPercentile(90),
+                    waitSteps.getValueAtPercentile(99), waitSteps.getMax(), result.getRideSteps().getMean(),
+                    result.getMeanSteps()));
+        }
+    }
+
+    /**
+     * Statistics of every simulation run for one combination of parameters.
+     */
+    public static class Result {
+
+        private final int cartsAmount;
+        private final int floorsAmount;
+        private final int passengersFrequency;
+        private final String dispatchStrategy;
+
+        private final Histogram waitSteps;
+        private final Histogram rideSteps;
+        //Mean wait and steps of each run, by seed index, so deviation doesn't depend on order in which runs end.
+        //They are complete when sweep returns results.
+        private final double[] meanWaits;
+        private final int[] steps;
+        private int runsAmount;
+
+        private Result(int cartsAmount, int floorsAmount, int passengersFrequency, String dispatchStrategy,
+                       int seedsAmount) {
+            this.cartsAmount = cartsAmount;
+            this.floorsAmount = floorsAmount;
+            this.passengersFrequency = passengersFrequency;
+            this.dispatchStrategy = dispatchStrategy;
+            this.waitSteps = new Histogram();
+            this.rideSteps = new Histogram();
+            this.meanWaits = new double[seedsAmount];
+            this.steps = new int[seedsAmount];
+        }
+
+        private synchronized void add(int seedIndex, int runSteps, Histogram runWaitSteps,
+                                      Histogram runRideSteps) {
+            waitSteps.add(runWaitSteps);
+            rideSteps.add(runRideSteps);
+            meanWaits[seedIndex] = runWaitSteps.getMean();
+            steps[seedIndex] = runSteps;
+            runsAmount++;
+        }
+
+        public int getCartsAmount() {
+            return cartsAmount;
+        }
+
+        public int getFloorsAmount() {
+            return floorsAmount;
+        }
+
+        public int getPassengersFrequency() {
+            return passengersFrequency;
+        }
+
+        public String getDispatchStrategy() {
+            return dispatchStrategy;
+        }
+
+        public synchronized int getRunsAmount() {
+            return runsAmount;
+        }
+
+        /**
+         * @return copy of steps waited for carts by passengers of every run.
+         */
+        public synchronized Histogram getWaitSteps() {
+            return waitSteps.copy();
+        }
+
+        /**
+         * @return copy of steps ridden by passengers of every run.
+         */
+        public synchronized Histogram getRideSteps() {
+            return rideSteps.copy();
+        }
+
+        /**
+         * @return sample standard deviation of runs' mean waits, 0 for single run.
+         */
+        public synchronized double getMeanWaitStdDev() {
+            if (meanWaits.length < 2) {
+                return 0;
+            }
+            double mean = 0;
+            for (double meanWait : meanWaits) {
+                mean += meanWait;
+            }
+            mean /= meanWaits.length;
+            double squares = 0;
+            for (double meanWait : meanWaits) {
+                squares += (meanWait - mean) * (meanWait - mean);
+            }
+            return Math.sqrt(squares / (meanWaits.length - 1));
+        }
+
+        /**
+         * @return mean amount of steps made by runs.
+         */
+        public synchronized double getMeanSteps() {
+            long sum = 0;
+            for (int runSteps : steps) {
+                sum += runSteps;
+            }
+            return (double) sum / steps.length;
+        }
+    }
+}
@@ -12,6 +12,8 @@ public class Passenger {
     private final String name;
     private  int assignedCartId;
     private final RequestDirection direction;
+    private int callStep;
+    private int boardingStep;
 
     /**
      * Creates passenger with given floors and name parameters.
@@ -25,6 +27,8 @@ public class Passenger {
         this.name=name;
         this.assignedCartId=-1;
         this.direction= calculateDirection();
+        this.callStep=-1;
+        this.boardingStep=-1;
     }
 
     /**
@@ -43,6 +47,38 @@ public class Passenger {
         this.assignedCartId=assignedCartId;
     }
 
+    /**
+     *
+     * @return number of simulation step in which passenger called cart, -1 before the call.
+     */
+    public int getCallStep(){
+        return callStep;
+    }
+
+    /**
+     *
+     * @param callStep number of simulation step in which passenger called cart.
+     */
+    public void setCallStep(int callStep){
+        this.callStep=callStep;
+    }
+
+    /**
+     *
+     * @return number of simulation step in which passenger stepped into cart, -1 before that.
+     */
+    public int getBoardingStep(){
+        return boardingStep;
+    }
+
+    /**
+     *
+     * @param boardingStep number of simulation step in which passenger stepped into cart.
+     */
+    public void setBoardingStep(int boardingStep){
+        this.boardingStep=boardingStep;
+    }
+
     /**
      *
      * @return passenger's name
@@ -72,7 +108,17 @@ public class Passenger {
      * @return human-readable data about passenger's name,floors and assigned cart's ID.
      */
     public String toString(){
-        return String.format("{%s(%d => %d)[%d]}",name,startingFloor,destinationFloor,assignedCartId);
+        return appendTo(new StringBuilder()).toString();
+    }
+
+    /**
+     * Appends same data as {@link #toString()} without creating intermediate strings.
+     * @param sb builder to append to.
+     * @return given builder.
+     */
+    public StringBuilder appendTo(StringBuilder sb){
+        return sb.append('{').append(name).append('(').append(startingFloor).append(" => ").append(destinationFloor)
+                .append(")[").append(assignedCartId).append("]}");
     }
 
     /**
@@ -19,8 +19,22 @@ public class PassengerFactory {
      *                or go to using the called one.
      */
     public PassengerFactory(int maxFloors) {
+        this(maxFloors, new Random());
+    }
+
+    /**
+     * creates Factory to create {@link Passenger } with reproducible sequence of random passengers.
+     * @param maxFloors sets maximum number of floors from which passenger can call elevator
+     *                or go to using the called one.
+     * @param seed seed of random numbers generator.
+     */
+    public PassengerFactory(int maxFloors, long seed) {
+        this(maxFloors, new Random(seed));
+    }
+
+    private PassengerFactory(int maxFloors, Random random) {
         this.maxFloors = maxFloors;
-        this.random = new Random();
+        this.random = random;
         this.passengerId = 0;
 
     }
@@ -45,12 +59,36 @@ public class PassengerFactory {
      */
     public Passenger getRandomPassenger() {
         int startingFloor = random.nextInt(maxFloors) + 1;
-        int destinationFloor;
-        while ((destinationFloor = random.nextInt(maxFloors) + 1) == startingFloor) {
+        return getPassenger(startingFloor, skipFloor(random.nextInt(maxFloors - 1) + 1, startingFloor));
+    }
+
+    //Destination is drawn from one floor fewer and moved above starting floor when it isn't below it,
+    //so it never equals starting floor.
+    static int skipFloor(int drawnFloor, int startingFloor) {
+        return drawnFloor >= startingFloor ? drawnFloor + 1 : drawnFloor;
+    }
 
-        }
+    /**
+     * Creates source of random passengers arriving one after another in equal intervals, from step 0.
+     *
+     * @param passengersAmount    amount of passengers.
+     * @param passengersFrequency amount of steps between arrivals of two passengers.
+     * @return source of passengers created by {@link #getRandomPassenger()}.
+     */
+    public PassengerSource getPassengerSource(int passengersAmount, int passengersFrequency) {
+        return new PassengerSource() {
+            private int passengersCreated;
 
-        return getPassenger(startingFloor, destinationFloor);
+            @Override
+            public Passenger next() {
+                if (passengersCreated == passengersAmount) {
+                    return null;
+                }
+                Passenger passenger = getRandomPassenger();
+                passenger.setCallStep(passengersCreated++ * passengersFrequency);
+                return passenger;
+            }
+        };
     }
 
 }
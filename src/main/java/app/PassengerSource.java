@@ -0,0 +1,16 @@
+package app;
+
+/**
+ * Source of passengers arriving during simulation, asked for next passenger only when previous one arrived,
+ * so that passengers don't have to be created before simulation starts.
+ */
+public interface PassengerSource {
+
+    /**
+     * Creates next arriving passenger, with step of his arrival set as call step.
+     * Passengers are given in order of their arrival steps.
+     *
+     * @return next passenger or null if no more passengers arrive.
+     */
+    Passenger next();
+}
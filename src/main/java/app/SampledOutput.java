@@ -0,0 +1,40 @@
+package app;
+
+import elevator.ElevatorCart;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Output passing only every n-th printed step to another output.
+ */
+public class SampledOutput implements SimulationOutput {
+
+    private final SimulationOutput output;
+    private final int sampleRate;
+    private long printedSteps;
+
+    /**
+     * @param output     output which prints sampled steps.
+     * @param sampleRate amount of steps from which only first one is printed.
+     */
+    public SampledOutput(SimulationOutput output, int sampleRate) {
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException(String.format("Sample rate has to be positive, got %d", sampleRate));
+        }
+        this.output = output;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public void printStep(int stepNumber, List<ElevatorCart> carts, Collection<Passenger> waitingPassengers) {
+        if (printedSteps++ % sampleRate == 0) {
+            output.printStep(stepNumber, carts, waitingPassengers);
+        }
+    }
+
+    @Override
+    public void close() {
+        output.close();
+    }
+}
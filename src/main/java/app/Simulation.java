@@ -0,0 +1,512 @@
+package app;
+
+import elevator.DispatchStrategy;
+import elevator.ElevatorCart;
+import elevator.ElevatorListener;
+import elevator.ElevatorSystem;
+import elevator.SnapshotReader;
+import elevator.SnapshotWriter;
+import elevator.TraceWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * One run of elevator simulation.
+ * Passengers created by {@link PassengerFactory} are calling carts, step into them when assigned cart reaches
+ * their floor and choose destination floor, while {@link ElevatorSystem} moves carts step by step.
+ * Simulation can be also event-driven - then steps in which nothing happens are made at once, with same
+ * calls and boardings as in step by step simulation.
+ * When carts have limited capacity passengers who can't board full cart call again, and so do passengers
+ * whose calls were passed by full carts. Such simulation, as well as simulation with other than default
+ * motion model of carts, is always made step by step.
+ * State of carts and waiting passengers can be written every few steps to snapshot file, from which
+ * simulation is resumed with {@link #resume(SimulationConfig, PassengerSource, SimulationOutput)}.
+ * Simulation writing snapshots or parking idle carts is made step by step as well, and simulation parking
+ * idle carts writes neither trace nor snapshots.
+ */
+public class Simulation {
+
+    private final SimulationConfig config;
+    private final ElevatorSystem elevatorSystem;
+    private final PassengerSource passengerSource;
+    //Passengers are kept only when they are created by PassengerFactory.
+    private final List<Passenger> passengerList;
+    private boolean keepPassengers;
+    private final WaitingPassengers waitingPassengers;
+    private final SimulationOutput output;
+
+    //Calls passed by full carts in current step, as cart's id in upper bits and floor number in lower bits.
+    private long[] bypassedCalls;
+    private int bypassedCallsAmount;
+    //Passengers who couldn't board full cart or whose calls were passed, they call again after step.
+    private final List<Passenger> callingAgain;
+
+    //Amount of passengers taken from source, so resumed simulation can skip them.
+    private int passengersTaken;
+    private SnapshotWriter snapshotWriter;
+
+    /**
+     * Creates simulation with new elevator system built from config, in which passengers amount
+     * and frequency are taken from config.
+     *
+     * @param config           parameters of simulation.
+     * @param passengerFactory factory used to create passengers.
+     * @param output           output to which state of carts and waiting passengers is printed after each step,
+     *                         event-driven simulation doesn't print steps.
+     */
+    public Simulation(SimulationConfig config, PassengerFactory passengerFactory, SimulationOutput output) {
+        this(config, passengerFactory.getPassengerSource(config.getPassengersAmount(),
+                config.getPassengersFrequency()), output);
+        this.keepPassengers = true;
+    }
+
+    /**
+     * Creates simulation with new elevator system built from config, in which passengers come from given source.
+     * Passengers are not kept after they board, so they don't have to fit in memory at once.
+     *
+     * @param config          parameters of simulation, passengers amount and frequency are not used.
+     * @param passengerSource source of arriving passengers.
+     * @param output          output to which state of carts and waiting passengers is printed after each step,
+     *                        event-driven simulation doesn't print steps.
+     */
+    public Simulation(SimulationConfig config, PassengerSource passengerSource, SimulationOutput output) {
+        this(config, new ElevatorSystem(config.getCartsAmount(), config.getFloorsAmount(),
+                DispatchStrategy.forName(config.getDispatchStrategy()),
+                config.getCartCapacity() > 0 ? config.getCartCapacity() : ElevatorSystem.UNLIMITED_CAPACITY,
+                config.getMotionModel()), passengerSource, output);
+    }
+
+    //Creates simulation whose passengers are generated for traffic profile given by config or, without profile,
+    //call one by one between random floors, both drawn from given seed.
+    static Simulation withSeed(SimulationConfig config, long seed, SimulationOutput output) {
+        return config.getTrafficProfile().isEmpty()
+                ? new Simulation(config, new PassengerFactory(config.getFloorsAmount(), seed), output)
+                : new Simulation(config, createPassengerSource(config, seed), output);
+    }
+
+    //Returns same passengers as simulation created with seed, for simulation resumed with that seed.
+    static PassengerSource createPassengerSource(SimulationConfig config, long seed) {
+        return config.getTrafficProfile().isEmpty()
+                ? new PassengerFactory(config.getFloorsAmount(), seed).getPassengerSource(
+                config.getPassengersAmount(), config.getPassengersFrequency())
+                : new TrafficGenerator(config.getFloorsAmount(), TrafficProfile.valueOf(config.getTrafficProfile()),
+                config.getArrivalRate(), config.getPassengersAmount(), seed);
+    }
+
+    private Simulation(SimulationConfig config, ElevatorSystem elevatorSystem, PassengerSource passengerSource,
+                       SimulationOutput output) {
+        this.config = config;
+        this.elevatorSystem = elevatorSystem;
+        this.passengerSource = passengerSource;
+        this.passengerList = new ArrayList<>();
+        this.waitingPassengers = new WaitingPassengers(elevatorSystem.getCartsAmount(),
+                elevatorSystem.getFloorsAmount());
+        this.output = output;
+        if (config.isMetrics()) {
+            elevatorSystem.enableMetrics();
+        }
+        if (config.getParkingWindow() > 0) {
+            elevatorSystem.enableParking(config.getParkingWindow(), config.getParkingInterval());
+        }
+        this.bypassedCalls = new long[16];
+        this.callingAgain = new ArrayList<>();
+        elevatorSystem.addListener(new ElevatorListener() {
+            @Override
+            public void onCallBypassed(int step, int cartId, int floorNumber) {
+                addBypassedCall(cartId, floorNumber);
+            }
+        });
+    }
+
+    /**
+     * Resumes simulation from the last snapshot written to snapshot file given by config. Carts, waiting
+     * passengers and steps made are restored from snapshot, passengers which simulation already took
+     * from source are skipped, so seeded source gives same following passengers as in interrupted run.
+     * Metrics and trace cover only steps made after resuming.
+     *
+     * @param config          parameters of simulation, carts and floors amounts and motion model are taken
+     *                        from snapshot.
+     * @param passengerSource new source of passengers of interrupted simulation.
+     * @param output          output to which state of carts and waiting passengers is printed after each step.
+     * @return simulation which continues from snapshot when run, writing following snapshots to the same file.
+     * @throws IOException when snapshot file can't be read or isn't a snapshot of simulation.
+     */
+    public static Simulation resume(SimulationConfig config, PassengerSource passengerSource,
+                                    SimulationOutput output) throws IOException {
+        try (SnapshotReader reader = new SnapshotReader(Paths.get(config.getSnapshotFile()))) {
+            Simulation simulation = new Simulation(config,
+                    reader.read(DispatchStrategy.forName(config.getDispatchStrategy())), passengerSource, output);
+            simulation.restorePassengers(reader.getApplicationData());
+            return simulation;
+        }
+    }
+
+    /**
+     * Runs simulation until every passenger is served, every cart is idle and minimum amount of steps is made.
+     *
+     * @return amount of steps made.
+     * @throws IllegalArgumentException when simulation parks idle carts and trace or snapshot file is set.
+     */
+    public int run() {
+        if (elevatorSystem.getParkingPolicy() != null
+                && (!config.getTraceFile().isEmpty() || !config.getSnapshotFile().isEmpty())) {
+            throw new IllegalArgumentException("Simulation parking idle carts can't write trace or snapshots");
+        }
+        if (config.getStepParallelism() > 0) {
+            elevatorSystem.enableParallelStepping(config.getStepParallelism(), config.getSequentialStepThreshold());
+        }
+        TraceWriter traceWriter = null;
+        try {
+            if (!config.getTraceFile().isEmpty()) {
+                traceWriter = new TraceWriter(Paths.get(config.getTraceFile()), config.getCartsAmount(),
+                        config.getFloorsAmount());
+                elevatorSystem.setTraceWriter(traceWriter);
+            }
+            if (!config.getSnapshotFile().isEmpty()) {
+                if (config.getSnapshotInterval() < 1) {
+                    throw new IllegalArgumentException(String.format("Snapshot interval has to be positive, got %d",
+                            config.getSnapshotInterval()));
+                }
+                snapshotWriter = new SnapshotWriter(Paths.get(config.getSnapshotFile()), elevatorSystem,
+                        config.getSnapshotCompactionInterval());
+            }
+            return isEventDriven() ? runEventDriven() : runStepByStep();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            elevatorSystem.disableParallelStepping();
+            elevatorSystem.setTraceWriter(null);
+            close(traceWriter);
+            close(snapshotWriter);
+            snapshotWriter = null;
+        }
+    }
+
+    //Event-driven simulation needs exact steps until carts get to floors, which are known only for default
+    //motion model, and doesn't handle full carts. Its waiting passengers aren't kept in snapshots
+    //and parked carts can get to floors earlier than predicted.
+    private boolean isEventDriven() {
+        return config.isEventDriven() && config.getCartCapacity() <= 0 && elevatorSystem.getMotionModel().isDefault()
+                && config.getSnapshotFile().isEmpty() && elevatorSystem.getParkingPolicy() == null;
+    }
+
+    private static void close(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    /**
+     * @return elevator system used in simulation.
+     */
+    public ElevatorSystem getElevatorSystem() {
+        return elevatorSystem;
+    }
+
+    /**
+     * @return every passenger of simulation created by {@link PassengerFactory}, with steps of their calls
+     * and boardings after simulation is run, empty if passengers came from other {@link PassengerSource}.
+     */
+    public List<Passenger> getPassengers() {
+        return passengerList;
+    }
+
+    //Returns next passenger from source, keeping him if needed.
+    private Passenger nextPassenger() {
+        Passenger passenger = passengerSource.next();
+        if (passenger != null) {
+            passengersTaken++;
+        }
+        if (passenger != null && keepPassengers) {
+            passengerList.add(passenger);
+        }
+        return passenger;
+    }
+
+    private int runStepByStep() {
+        Passenger nextPassenger = nextPassenger();
+        int j = elevatorSystem.getStepsMade();
+        writeSnapshot(nextPassenger);
+
+        while (nextPassenger != null || !waitingPassengers.isEmpty() || !callingAgain.isEmpty()
+                || config.getMinStepsAmount() > j || !isEveryCartIdle()) {
+
+            while (nextPassenger != null && nextPassenger.getCallStep() <= j) {
+
+                makePassengerRequest(nextPassenger, j);
+                waitingPassengers.add(nextPassenger);
+                nextPassenger = nextPassenger();
+
+            }
+            checkAndMakeRequestsForActivePassengers(j);
+            elevatorSystem.makeStep();
+            j++;
+            callAgain(j);
+
+            output.printStep(j + 1, elevatorSystem.getCartsList(), waitingPassengers);
+            if (snapshotWriter != null && j % config.getSnapshotInterval() == 0) {
+                writeSnapshot(nextPassenger);
+            }
+
+        }
+        return j;
+    }
+
+    //Snapshot's application data holds amount of passengers taken from source, without next passenger
+    //who hasn't called yet, then waiting passengers and passengers calling again.
+    private void writeSnapshot(Passenger nextPassenger) {
+        if (snapshotWriter == null) {
+            return;
+        }
+        List<byte[]> names = new ArrayList<>();
+        int size = 3 * Integer.BYTES;
+        for (Passenger passenger : waitingPassengers) {
+            size += addName(names, passenger);
+        }
+        for (Passenger passenger : callingAgain) {
+            size += addName(names, passenger);
+        }
+        ByteBuffer data = ByteBuffer.allocate(size);
+        data.putInt(passengersTaken - (nextPassenger != null ? 1 : 0));
+        data.putInt(waitingPassengers.size());
+        int nameIndex = 0;
+        for (Passenger passenger : waitingPassengers) {
+            putPassenger(data, passenger, names.get(nameIndex++));
+        }
+        data.putInt(callingAgain.size());
+        for (Passenger passenger : callingAgain) {
+            putPassenger(data, passenger, names.get(nameIndex++));
+        }
+        data.flip();
+        try {
+            snapshotWriter.write(data);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    //Returns size of passenger's record.
+    private static int addName(List<byte[]> names, Passenger passenger) {
+        byte[] name = passenger.getName().getBytes(StandardCharsets.UTF_8);
+        names.add(name);
+        return 5 * Integer.BYTES + name.length;
+    }
+
+    private static void putPassenger(ByteBuffer data, Passenger passenger, byte[] name) {
+        data.putInt(passenger.getStartingFloor()).putInt(passenger.getDestinationFloor())
+                .putInt(passenger.getAssignedCartId()).putInt(passenger.getCallStep()).putInt(name.length).put(name);
+    }
+
+    private static Passenger getPassenger(ByteBuffer data) {
+        int startingFloor = data.getInt();
+        int destinationFloor = data.getInt();
+        int assignedCartId = data.getInt();
+        int callStep = data.getInt();
+        byte[] name = new byte[data.getInt()];
+        data.get(name);
+        Passenger passenger = new Passenger(startingFloor, destinationFloor, new String(name, StandardCharsets.UTF_8));
+        passenger.setAssignedCartId(assignedCartId);
+        passenger.setCallStep(callStep);
+        return passenger;
+    }
+
+    //Reads passengers from snapshot's application data and skips passengers already taken from source.
+    private void restorePassengers(ByteBuffer data) {
+        int takenAmount = data.getInt();
+        for (int i = 0; i < takenAmount; i++) {
+            nextPassenger();
+        }
+        for (int i = data.getInt(); i > 0; i--) {
+            waitingPassengers.add(getPassenger(data));
+        }
+        for (int i = data.getInt(); i > 0; i--) {
+            callingAgain.add(getPassenger(data));
+        }
+    }
+
+    //Waiting passengers are kept in queue ordered by earliest step in which their cart can be on their floor.
+    //New requests can only delay cart, so passenger taken from queue too early is put back with new step.
+    //Steps until next call, next possible boarding or end of simulation are made at once.
+    //Waiting passengers are kept in slots reused after they board.
+    private int runEventDriven() {
+        PriorityQueue<Long> boardingChecks = new PriorityQueue<>();
+        List<Passenger> waitingSlots = new ArrayList<>();
+        ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+        int waitingAmount = 0;
+        Passenger nextPassenger = nextPassenger();
+        int j = 0;
+
+        while (nextPassenger != null || waitingAmount > 0 || config.getMinStepsAmount() > j || !isEveryCartIdle()) {
+
+            while (nextPassenger != null && nextPassenger.getCallStep() <= j) {
+
+                makePassengerRequest(nextPassenger, j);
+                int slot;
+                if (freeSlots.isEmpty()) {
+                    slot = waitingSlots.size();
+                    waitingSlots.add(nextPassenger);
+                } else {
+                    slot = freeSlots.pop();
+                    waitingSlots.set(slot, nextPassenger);
+                }
+                boardingChecks.add(getBoardingCheck(j, slot));
+                waitingAmount++;
+                nextPassenger = nextPassenger();
+
+            }
+            while (!boardingChecks.isEmpty() && getBoardingCheckStep(boardingChecks.peek()) <= j) {
+                int slot = getBoardingCheckSlot(boardingChecks.poll());
+                Passenger passenger = waitingSlots.get(slot);
+                if (isAssignedCartOnPassengerFloor(passenger)) {
+                    board(passenger, j);
+                    waitingSlots.set(slot, null);
+                    freeSlots.push(slot);
+                    waitingAmount--;
+                } else {
+                    int stepsUntilBoarding = elevatorSystem.getStepsUntilCartAtFloor(
+                            passenger.getAssignedCartId(), passenger.getStartingFloor());
+                    boardingChecks.add(getBoardingCheck(j + Math.max(stepsUntilBoarding, 1), slot));
+                }
+            }
+
+            int steps = Integer.MAX_VALUE;
+            if (nextPassenger != null) {
+                steps = nextPassenger.getCallStep() - j;
+            }
+            if (!boardingChecks.isEmpty()) {
+                steps = Math.min(steps, getBoardingCheckStep(boardingChecks.peek()) - j);
+            }
+            if (waitingAmount == 0) {
+                steps = Math.min(steps, Math.max(config.getMinStepsAmount() - j, getStepsUntilEveryCartIdle()));
+            }
+            steps = Math.max(steps, 1);
+
+            elevatorSystem.makeSteps(steps);
+            j += steps;
+        }
+        return j;
+    }
+
+    //Boarding check is step number in upper bits and passenger's slot in lower bits.
+    private static long getBoardingCheck(int step, int slot) {
+        return (long) step << 32 | slot;
+    }
+
+    private static int getBoardingCheckStep(long boardingCheck) {
+        return (int) (boardingCheck >> 32);
+    }
+
+    private static int getBoardingCheckSlot(long boardingCheck) {
+        return (int) boardingCheck;
+    }
+
+    private int getStepsUntilEveryCartIdle() {
+        int steps = 0;
+        for (int cartId = 0; cartId < elevatorSystem.getCartsAmount(); cartId++) {
+            steps = Math.max(steps, elevatorSystem.getStepsUntilCartIdle(cartId));
+        }
+        return steps;
+    }
+
+    private void makePassengerRequest(Passenger passenger, int step) {
+        if (config.isDestinationDispatch()) {
+            passenger.setAssignedCartId(elevatorSystem.requestCart(passenger.getStartingFloor(),
+                    passenger.getDestinationFloor()));
+        } else {
+            passenger.setAssignedCartId(elevatorSystem.requestCart(passenger.getStartingFloor()
+                    , passenger.getDirection()));
+        }
+        passenger.setCallStep(step);
+    }
+
+    //Passenger steps into cart and makes request for his destination floor, returns false if cart is full.
+    private boolean board(Passenger passenger, int step) {
+        if (!elevatorSystem.boardPassenger(passenger.getAssignedCartId(), passenger.getDestinationFloor())) {
+            return false;
+        }
+        passenger.setBoardingStep(step);
+        return true;
+    }
+
+    //Listener may be called from worker threads of parallel stepping.
+    private synchronized void addBypassedCall(int cartId, int floorNumber) {
+        if (bypassedCallsAmount == bypassedCalls.length) {
+            bypassedCalls = Arrays.copyOf(bypassedCalls, bypassedCalls.length * 2);
+        }
+        bypassedCalls[bypassedCallsAmount++] = (long) cartId << 32 | floorNumber;
+    }
+
+    //Passengers whose calls were passed by full carts in last step or who couldn't board call again,
+    //keeping step of their first call. Request for floor on which assigned cart stands isn't added,
+    //so passenger assigned to such cart boards at once or calls again after next step.
+    private void callAgain(int step) {
+        for (int i = 0; i < bypassedCallsAmount; i++) {
+            callingAgain.addAll(waitingPassengers.removeBoarding((int) (bypassedCalls[i] >> 32),
+                    (int) bypassedCalls[i]));
+        }
+        bypassedCallsAmount = 0;
+        int stillCallingAmount = 0;
+        for (int i = 0; i < callingAgain.size(); i++) {
+            Passenger passenger = callingAgain.get(i);
+            makePassengerRequest(passenger, passenger.getCallStep());
+            if (!isAssignedCartOnPassengerFloor(passenger)) {
+                waitingPassengers.add(passenger);
+            } else if (!board(passenger, step)) {
+                callingAgain.set(stillCallingAmount++, passenger);
+            }
+        }
+        callingAgain.subList(stillCallingAmount, callingAgain.size()).clear();
+    }
+
+    private boolean isAssignedCartOnPassengerFloor(Passenger passenger) {
+        return elevatorSystem.getCartsList().get(passenger.getAssignedCartId()).getCurrentFloor()
+                == passenger.getStartingFloor();
+    }
+
+    //Cart whose door is open has no direction yet, although passenger who boarded it has made request.
+    private boolean isEveryCartIdle() {
+        if (elevatorSystem.getRequestsAmount() > 0) {
+            return false;
+        }
+        for (ElevatorCart cart : elevatorSystem.getCartsList()) {
+            if (!cart.isIdle()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //For every cart with waiting passengers takes those waiting on floor on which cart now is.
+    //They are adding requests for their destination floors and become no more active,
+    //unless cart is full and they have to call again.
+    private void checkAndMakeRequestsForActivePassengers(int step) {
+        if (waitingPassengers.isEmpty()) {
+            return;
+        }
+        List<ElevatorCart> carts = elevatorSystem.getCartsList();
+        for (int cartId = 0; cartId < carts.size(); cartId++) {
+            if (waitingPassengers.getWaitingAmount(cartId) > 0) {
+                for (Passenger passenger : waitingPassengers.removeBoarding(cartId, carts.get(cartId).getCurrentFloor())) {
+                    if (!board(passenger, step)) {
+                        callingAgain.add(passenger);
+                    }
+                }
+            }
+        }
+    }
+
+}
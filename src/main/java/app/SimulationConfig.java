@@ -0,0 +1,415 @@
+package app;
+
+import elevator.DispatchStrategy;
+import elevator.MotionModel;
+
+import java.util.Properties;
+
+/**
+ * Parameters of one simulation run.
+ * Default values are used for every parameter which is not present in properties.
+ */
+public class SimulationConfig {
+
+    private int cartsAmount = 16;
+    private int floorsAmount = 50;
+    private int minStepsAmount = 20;
+    private int passengersAmount = 70;
+    private int passengersFrequency = 2;
+    private int stepParallelism = 0;
+    private int sequentialStepThreshold = 256;
+    private boolean eventDriven = false;
+    private String outputMode = "console";
+    private int outputSampleRate = 1;
+    private String traceFile = "";
+    private boolean metrics = false;
+    private String dispatchStrategy = "fitness";
+    private String dispatchMode = "hallCall";
+    private String banks = "";
+    private int cartCapacity = 0;
+    private int cartSpeed = 1;
+    private int cartAcceleration = 1;
+    private int doorDwellSteps = 0;
+    private String trafficProfile = "";
+    private double arrivalRate = 0.5;
+    private String snapshotFile = "";
+    private int snapshotInterval = 100;
+    private int snapshotCompactionInterval = 100;
+    private int parkingWindow = 0;
+    private int parkingInterval = 10;
+    private long seed = 0;
+
+    /**
+     * Creates config with values read from given properties.
+     *
+     * @param properties properties with simulation parameters, e.g. loaded from config file.
+     * @return config with parameters from properties or default ones for missing keys.
+     */
+    public static SimulationConfig fromProperties(Properties properties) {
+        SimulationConfig config = new SimulationConfig();
+        config.cartsAmount = readInt(properties, "cartsAmount", config.cartsAmount);
+        config.floorsAmount = readInt(properties, "floorsAmount", config.floorsAmount);
+        config.minStepsAmount = readInt(properties, "minStepsAmount", config.minStepsAmount);
+        config.passengersAmount = readInt(properties, "passengersAmount", config.passengersAmount);
+        config.passengersFrequency = readInt(properties, "passengersFrequency", config.passengersFrequency);
+        config.stepParallelism = readInt(properties, "stepParallelism", config.stepParallelism);
+        config.sequentialStepThreshold = readInt(properties, "sequentialStepThreshold",
+                config.sequentialStepThreshold);
+        config.eventDriven = readBoolean(properties, "eventDriven", config.eventDriven);
+        config.outputMode = properties.getProperty("outputMode", config.outputMode).trim();
+        config.outputSampleRate = readInt(properties, "outputSampleRate", config.outputSampleRate);
+        config.traceFile = properties.getProperty("traceFile", config.traceFile).trim();
+        config.metrics = readBoolean(properties, "metrics", config.metrics);
+        config.dispatchStrategy = properties.getProperty("dispatchStrategy", config.dispatchStrategy).trim();
+        config.dispatchMode = properties.getProperty("dispatchMode", config.dispatchMode).trim();
+        config.banks = properties.getProperty("banks", config.banks).trim();
+        config.cartCapacity = readInt(properties, "cartCapacity", config.cartCapacity);
+        config.cartSpeed = readInt(properties, "cartSpeed", config.cartSpeed);
+        config.cartAcceleration = readInt(properties, "cartAcceleration", config.cartAcceleration);
+        config.doorDwellSteps = readInt(properties, "doorDwellSteps", config.doorDwellSteps);
+        config.trafficProfile = properties.getProperty("trafficProfile", config.trafficProfile).trim();
+        String arrivalRate = properties.getProperty("arrivalRate");
+        if (arrivalRate != null) {
+            config.arrivalRate = Double.parseDouble(arrivalRate.trim());
+        }
+        config.snapshotFile = properties.getProperty("snapshotFile", config.snapshotFile).trim();
+        config.snapshotInterval = readInt(properties, "snapshotInterval", config.snapshotInterval);
+        config.snapshotCompactionInterval = readInt(properties, "snapshotCompactionInterval",
+                config.snapshotCompactionInterval);
+        config.parkingWindow = readInt(properties, "parkingWindow", config.parkingWindow);
+        config.parkingInterval = readInt(properties, "parkingInterval", config.parkingInterval);
+        String seed = properties.getProperty("seed");
+        if (seed != null) {
+            config.seed = Long.parseLong(seed.trim());
+        }
+        return config;
+    }
+
+    private static int readInt(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static boolean readBoolean(Properties properties, String key, boolean defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    public int getCartsAmount() {
+        return cartsAmount;
+    }
+
+    public void setCartsAmount(int cartsAmount) {
+        this.cartsAmount = cartsAmount;
+    }
+
+    public int getFloorsAmount() {
+        return floorsAmount;
+    }
+
+    public void setFloorsAmount(int floorsAmount) {
+        this.floorsAmount = floorsAmount;
+    }
+
+    public int getMinStepsAmount() {
+        return minStepsAmount;
+    }
+
+    public void setMinStepsAmount(int minStepsAmount) {
+        this.minStepsAmount = minStepsAmount;
+    }
+
+    public int getPassengersAmount() {
+        return passengersAmount;
+    }
+
+    public void setPassengersAmount(int passengersAmount) {
+        this.passengersAmount = passengersAmount;
+    }
+
+    public int getPassengersFrequency() {
+        return passengersFrequency;
+    }
+
+    public void setPassengersFrequency(int passengersFrequency) {
+        this.passengersFrequency = passengersFrequency;
+    }
+
+    /**
+     * @return amount of threads making steps of carts, 0 means steps are made sequentially.
+     */
+    public int getStepParallelism() {
+        return stepParallelism;
+    }
+
+    public void setStepParallelism(int stepParallelism) {
+        this.stepParallelism = stepParallelism;
+    }
+
+    /**
+     * @return amount of carts below which steps are made sequentially even if parallelism is set.
+     */
+    public int getSequentialStepThreshold() {
+        return sequentialStepThreshold;
+    }
+
+    public void setSequentialStepThreshold(int sequentialStepThreshold) {
+        this.sequentialStepThreshold = sequentialStepThreshold;
+    }
+
+    /**
+     * @return true if steps in which nothing happens are made at once instead of one by one.
+     */
+    public boolean isEventDriven() {
+        return eventDriven;
+    }
+
+    public void setEventDriven(boolean eventDriven) {
+        this.eventDriven = eventDriven;
+    }
+
+    /**
+     * @return where steps are printed: "off", "console" or "async" (console written from background thread).
+     */
+    public String getOutputMode() {
+        return outputMode;
+    }
+
+    public void setOutputMode(String outputMode) {
+        this.outputMode = outputMode;
+    }
+
+    /**
+     * @return amount of steps from which only first one is printed.
+     */
+    public int getOutputSampleRate() {
+        return outputSampleRate;
+    }
+
+    public void setOutputSampleRate(int outputSampleRate) {
+        this.outputSampleRate = outputSampleRate;
+    }
+
+    /**
+     * @return path of file to which binary trace of simulation is written, empty if trace isn't recorded.
+     */
+    public String getTraceFile() {
+        return traceFile;
+    }
+
+    public void setTraceFile(String traceFile) {
+        this.traceFile = traceFile;
+    }
+
+    /**
+     * @return true if metrics of elevator system are recorded.
+     */
+    public boolean isMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(boolean metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return name of strategy choosing carts for calls, as accepted by {@link DispatchStrategy#forName(String)}.
+     */
+    public String getDispatchStrategy() {
+        return dispatchStrategy;
+    }
+
+    public void setDispatchStrategy(String dispatchStrategy) {
+        this.dispatchStrategy = dispatchStrategy;
+    }
+
+    /**
+     * @return "hallCall" when passengers call carts with direction and choose destination after boarding,
+     * "destination" when they give destination floor already when calling.
+     */
+    public String getDispatchMode() {
+        return dispatchMode;
+    }
+
+    public void setDispatchMode(String dispatchMode) {
+        this.dispatchMode = dispatchMode;
+    }
+
+    /**
+     * @return true if passengers give destination floors when calling carts.
+     */
+    public boolean isDestinationDispatch() {
+        return "destination".equals(dispatchMode);
+    }
+
+    /**
+     * @return description of banks parsed by {@link BuildingSimulation#parseBanks(String, String)},
+     * empty if every cart serves every floor.
+     */
+    public String getBanks() {
+        return banks;
+    }
+
+    public void setBanks(String banks) {
+        this.banks = banks;
+    }
+
+    /**
+     * @return maximum amount of passengers riding in one cart, 0 means carts never get full.
+     */
+    public int getCartCapacity() {
+        return cartCapacity;
+    }
+
+    public void setCartCapacity(int cartCapacity) {
+        this.cartCapacity = cartCapacity;
+    }
+
+    /**
+     * @return maximum amount of floors passed by cart in one step.
+     */
+    public int getCartSpeed() {
+        return cartSpeed;
+    }
+
+    public void setCartSpeed(int cartSpeed) {
+        this.cartSpeed = cartSpeed;
+    }
+
+    /**
+     * @return change of cart's speed in one step, in floors per step.
+     */
+    public int getCartAcceleration() {
+        return cartAcceleration;
+    }
+
+    public void setCartAcceleration(int cartAcceleration) {
+        this.cartAcceleration = cartAcceleration;
+    }
+
+    /**
+     * @return amount of steps in which cart stays with open doors on floor where it stopped.
+     */
+    public int getDoorDwellSteps() {
+        return doorDwellSteps;
+    }
+
+    public void setDoorDwellSteps(int doorDwellSteps) {
+        this.doorDwellSteps = doorDwellSteps;
+    }
+
+    /**
+     * @return motion model of carts built from speed, acceleration and door dwell parameters.
+     */
+    public MotionModel getMotionModel() {
+        return new MotionModel(cartSpeed, cartAcceleration, doorDwellSteps);
+    }
+
+    /**
+     * @return name of {@link TrafficProfile} of generated passengers, empty for passengers calling one by one
+     * every passengersFrequency steps between random floors.
+     */
+    public String getTrafficProfile() {
+        return trafficProfile;
+    }
+
+    public void setTrafficProfile(String trafficProfile) {
+        this.trafficProfile = trafficProfile;
+    }
+
+    /**
+     * @return mean amount of passengers arriving in one step when traffic profile is set.
+     */
+    public double getArrivalRate() {
+        return arrivalRate;
+    }
+
+    public void setArrivalRate(double arrivalRate) {
+        this.arrivalRate = arrivalRate;
+    }
+
+    /**
+     * @return path of file to which state of simulation is written every snapshotInterval steps,
+     * empty for no snapshots.
+     */
+    public String getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    public void setSnapshotFile(String snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    /**
+     * @return amount of steps between snapshots.
+     */
+    public int getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public void setSnapshotInterval(int snapshotInterval) {
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * @return amount of snapshots after which snapshot file is replaced by file holding only the last one.
+     */
+    public int getSnapshotCompactionInterval() {
+        return snapshotCompactionInterval;
+    }
+
+    public void setSnapshotCompactionInterval(int snapshotCompactionInterval) {
+        this.snapshotCompactionInterval = snapshotCompactionInterval;
+    }
+
+    /**
+     * @return amount of steps after which weight of call in parking demand drops e times, 0 when idle carts
+     * aren't parked.
+     */
+    public int getParkingWindow() {
+        return parkingWindow;
+    }
+
+    public void setParkingWindow(int parkingWindow) {
+        this.parkingWindow = parkingWindow;
+    }
+
+    /**
+     * @return amount of steps between choosing floors where idle carts are parked.
+     */
+    public int getParkingInterval() {
+        return parkingInterval;
+    }
+
+    public void setParkingInterval(int parkingInterval) {
+        this.parkingInterval = parkingInterval;
+    }
+
+    /**
+     * @return seed from which passengers of simulation are drawn, simulation resumed with same seed
+     * gets same passengers as interrupted one.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return human-readable description of parameters.
+     */
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Current Parameters are:\n");
+        sb.append(String.format("Amount of carts: %d%n", cartsAmount));
+        sb.append(String.format("Amount of floors: %d%n", floorsAmount));
+        sb.append(String.format("Minimum amount of steps in simulation: %d%n", minStepsAmount));
+        sb.append(String.format("Amount of passengers: %d%n", passengersAmount));
+        sb.append(String.format(
+                "Passengers requests frequency: %d(it means each %d simulation steps new request will occur)%n%n"
+                , passengersFrequency, passengersFrequency));
+        return sb.toString();
+    }
+}
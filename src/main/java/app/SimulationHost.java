@@ -0,0 +1,286 @@
+package app;
+
+import elevator.MetricsSnapshot;
+import utils.Histogram;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many independent building simulations in one process and aggregates steps which passengers waited
+ * for carts and rode in every building. Each building has its own config, elevator system, seeded passengers
+ * and metrics, and simulation failing in one building is recorded in its result without stopping other ones.
+ * Simulations run on work-stealing pool with given parallelism or, when host runs on Java 21 or newer,
+ * each on its own virtual thread. Buildings with banks are not hosted.
+ */
+public class SimulationHost {
+
+    private final List<Result> results;
+    private final long firstSeed;
+    private final Histogram waitSteps;
+    private final Histogram rideSteps;
+
+    /**
+     * @param firstSeed seed of passengers of first added building, next buildings use next numbers.
+     */
+    public SimulationHost(long firstSeed) {
+        this.results = new ArrayList<>();
+        this.firstSeed = firstSeed;
+        this.waitSteps = new Histogram();
+        this.rideSteps = new Histogram();
+    }
+
+    /**
+     * Creates host from hostBuildings parameter with comma-separated names of buildings, each simulated
+     * hostCopies times with different seeds. Building's parameters are simulation parameters overridden by
+     * parameters prefixed with its name and dot, e.g. "north.cartsAmount".
+     *
+     * @param properties simulation and host parameters, e.g. loaded from config file.
+     * @return host with every building described by parameters.
+     */
+    public static SimulationHost fromProperties(Properties properties) {
+        SimulationHost host = new SimulationHost(0);
+        int copiesAmount = Integer.parseInt(properties.getProperty("hostCopies", "1").trim());
+        for (String name : ParameterSweep.readStrings(properties, "hostBuildings", "building")) {
+            Properties buildingProperties = new Properties();
+            buildingProperties.putAll(properties);
+            String prefix = name + ".";
+            for (String key : properties.stringPropertyNames()) {
+                if (key.startsWith(prefix)) {
+                    buildingProperties.setProperty(key.substring(prefix.length()), properties.getProperty(key));
+                }
+            }
+            for (int copy = 0; copy < copiesAmount; copy++) {
+                host.addBuilding(copiesAmount == 1 ? name : name + "-" + copy, buildingProperties);
+            }
+        }
+        return host;
+    }
+
+    /**
+     * Adds building simulated with next seed. Simulation makes steps sequentially, is event-driven when
+     * its parameters allow it and records metrics without writing trace, snapshots or steps.
+     *
+     * @param name       name of building in results.
+     * @param properties parameters of building's simulation.
+     */
+    public void addBuilding(String name, Properties properties) {
+        SimulationConfig config = SimulationConfig.fromProperties(properties);
+        if (!config.getBanks().isEmpty()) {
+            throw new IllegalArgumentException(String.format("Building %s has banks, which host doesn't simulate",
+                    name));
+        }
+        results.add(new Result(name, properties, config, firstSeed + results.size()));
+    }
+
+    /**
+     * Runs every building on work-stealing pool and waits until they end.
+     *
+     * @param parallelism amount of buildings simulated at the same time.
+     * @return results of buildings, in order in which they were added.
+     */
+    public List<Result> run(int parallelism) {
+        return run(new ForkJoinPool(parallelism));
+    }
+
+    /**
+     * Runs every building on its own virtual thread and waits until they end.
+     *
+     * @return results of buildings, in order in which they were added.
+     * @throws UnsupportedOperationException when Java running host has no virtual threads.
+     */
+    public List<Result> runOnVirtualThreads() {
+        try {
+            return run((ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null));
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            throw new UnsupportedOperationException("Virtual threads need Java 21 or newer", ex);
+        } catch (InvocationTargetException ex) {
+            throw new UnsupportedOperationException("Virtual threads can't be started", ex.getCause());
+        }
+    }
+
+    /**
+     * @return true if Java running host has virtual threads.
+     */
+    public static boolean isVirtualThreadsAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+
+    //Executor is shut down after every building ends.
+    private List<Result> run(ExecutorService executor) {
+        try {
+            List<Future<?>> runs = new ArrayList<>(results.size());
+            for (Result result : results) {
+                runs.add(executor.submit(() -> runBuilding(result)));
+            }
+            for (Future<?> run : runs) {
+                run.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Host was interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Building simulation failed", ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return Collections.unmodifiableList(results);
+    }
+
+    //Simulation runs on its own config, its failure is kept in building's result.
+    private void runBuilding(Result result) {
+        try {
+            SimulationConfig config = SimulationConfig.fromProperties(result.properties);
+            config.setStepParallelism(0);
+            config.setEventDriven(true);
+            config.setTraceFile("");
+            config.setSnapshotFile("");
+            config.setMetrics(true);
+            Simulation simulation = Simulation.withSeed(config, result.seed, new NoOutput());
+            int steps = simulation.run();
+            MetricsSnapshot metrics = simulation.getElevatorSystem().getMetrics().getSnapshot();
+            result.finish(steps, metrics.getWaitSteps(), metrics.getRideSteps(), null);
+            synchronized (this) {
+                waitSteps.add(metrics.getWaitSteps());
+                rideSteps.add(metrics.getRideSteps());
+            }
+        } catch (RuntimeException ex) {
+            result.finish(0, new Histogram(), new Histogram(), ex);
+        }
+    }
+
+    /**
+     * @return copy of steps waited for carts by passengers of every finished building.
+     */
+    public synchronized Histogram getWaitSteps() {
+        return waitSteps.copy();
+    }
+
+    /**
+     * @return copy of steps ridden by passengers of every finished building.
+     */
+    public synchronized Histogram getRideSteps() {
+        return rideSteps.copy();
+    }
+
+    /**
+     * @param results results returned by {@link #run(int)} or {@link #runOnVirtualThreads()}.
+     * @return amount of buildings whose simulation failed.
+     */
+    public static int getFailuresAmount(List<Result> results) {
+        int failuresAmount = 0;
+        for (Result result : results) {
+            if (result.getFailure() != null) {
+                failuresAmount++;
+            }
+        }
+        return failuresAmount;
+    }
+
+    /**
+     * Writes results as CSV with header line, one line for each building.
+     *
+     * @param results results returned by {@link #run(int)} or {@link #runOnVirtualThreads()}.
+     * @param writer  writer to which lines are written, it isn't closed.
+     * @throws IOException when writing fails.
+     */
+    public static void writeCsv(List<Result> results, Writer writer) throws IOException {
+        writer.write(String.format("building,cartsAmount,floorsAmount,dispatchStrategy,seed,steps,calls,meanWait,"
+                + "p50Wait,p90Wait,p99Wait,maxWait,meanRide,failure%n"));
+        for (Result result : results) {
+            Histogram resultWaitSteps = result.getWaitSteps();
+            writer.write(String.format(Locale.ROOT, "%s,%d,%d,%s,%d,%d,%d,%.3f,%d,%d,%d,%d,%.3f,%s%n",
+                    result.name, result.config.getCartsAmount(), result.config.getFloorsAmount(),
+                    result.config.getDispatchStrategy(), result.seed, result.getSteps(),
+                    resultWaitSteps.getCount(), resultWaitSteps.getMean(),
+                    resultWaitSteps.getValueAtPercentile(50), resultWaitSteps.getValueAtPercentile(90),
+                    resultWaitSteps.getValueAtPercentile(99), resultWaitSteps.getMax(),
+                    result.getRideSteps().getMean(),
+                    result.getFailure() == null ? "" : result.getFailure().toString().replace(',', ';')));
+        }
+    }
+
+    /**
+     * Outcome of one building's simulation, complete when host returns results.
+     */
+    public static class Result {
+
+        private final String name;
+        private final Properties properties;
+        //Config read when building was added, used only to describe building.
+        private final SimulationConfig config;
+        private final long seed;
+
+        private int steps;
+        private Histogram waitSteps;
+        private Histogram rideSteps;
+        private RuntimeException failure;
+
+        private Result(String name, Properties properties, SimulationConfig config, long seed) {
+            this.name = name;
+            this.properties = properties;
+            this.config = config;
+            this.seed = seed;
+            this.waitSteps = new Histogram();
+            this.rideSteps = new Histogram();
+        }
+
+        private synchronized void finish(int steps, Histogram waitSteps, Histogram rideSteps,
+                                         RuntimeException failure) {
+            this.steps = steps;
+            this.waitSteps = waitSteps;
+            this.rideSteps = rideSteps;
+            this.failure = failure;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public synchronized int getSteps() {
+            return steps;
+        }
+
+        /**
+         * @return copy of steps waited for carts by building's passengers.
+         */
+        public synchronized Histogram getWaitSteps() {
+            return waitSteps.copy();
+        }
+
+        /**
+         * @return copy of steps ridden by building's passengers.
+         */
+        public synchronized Histogram getRideSteps() {
+            return rideSteps.copy();
+        }
+
+        /**
+         * @return exception which stopped building's simulation, null if it ended.
+         */
+        public synchronized RuntimeException getFailure() {
+            return failure;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package app;
+
+import elevator.ElevatorCart;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Destination of simulation's state printed after steps.
+ */
+public interface SimulationOutput extends AutoCloseable {
+
+    /**
+     * Called after step of simulation.
+     *
+     * @param stepNumber        number of printed step.
+     * @param carts             carts of elevator after step.
+     * @param waitingPassengers passengers waiting for carts after step.
+     */
+    void printStep(int stepNumber, List<ElevatorCart> carts, Collection<Passenger> waitingPassengers);
+
+    /**
+     * Writes everything what was printed and releases output's resources.
+     */
+    @Override
+    void close();
+
+    /**
+     * Appends step's data in same format as printing collections of carts and passengers, each in new line.
+     *
+     * @param sb                builder to append to.
+     * @param stepNumber        number of step.
+     * @param carts             carts of elevator.
+     * @param waitingPassengers passengers waiting for carts.
+     * @return given builder.
+     */
+    static StringBuilder appendStep(StringBuilder sb, int stepNumber, List<ElevatorCart> carts,
+                                    Collection<Passenger> waitingPassengers) {
+        String lineSeparator = System.lineSeparator();
+        sb.append("Step ").append(stepNumber).append(':').append(lineSeparator).append('[');
+        for (int i = 0; i < carts.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            carts.get(i).appendTo(sb);
+        }
+        sb.append(']').append(lineSeparator).append('[');
+        boolean first = true;
+        for (Passenger passenger : waitingPassengers) {
+            if (!first) {
+                sb.append(", ");
+            }
+            passenger.appendTo(sb);
+            first = false;
+        }
+        return sb.append(']').append(lineSeparator);
+    }
+
+    /**
+     * Creates output chosen in config.
+     *
+     * @param config simulation's config with output mode and sample rate.
+     * @return output printing to standard output or ignoring steps.
+     */
+    static SimulationOutput fromConfig(SimulationConfig config) {
+        SimulationOutput output;
+        switch (config.getOutputMode()) {
+            case "off":
+                return new NoOutput();
+            case "console":
+                output = new ConsoleOutput(System.out);
+                break;
+            case "async":
+                output = new AsyncOutput(System.out);
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("Unknown output mode: %s", config.getOutputMode()));
+        }
+        if (config.getOutputSampleRate() > 1) {
+            return new SampledOutput(output, config.getOutputSampleRate());
+        }
+        return output;
+    }
+}
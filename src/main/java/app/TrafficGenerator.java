@@ -0,0 +1,103 @@
+package app;
+
+import java.util.SplittableRandom;
+
+/**
+ * Source of passengers whose trips follow {@link TrafficProfile}, created one by one when simulation needs them.
+ * Passengers arrive as Poisson process with given rate, so amount of arrivals on each floor in each step
+ * has Poisson distribution: lobby gets incoming part of the rate and each upper floor gets equal share of the rest.
+ * Random numbers come from {@link SplittableRandom}, so generator with same seed always gives same passengers,
+ * and generators for parallel runs can be split from one seeded generator.
+ */
+public class TrafficGenerator implements PassengerSource {
+
+    private static final int LOBBY = 0;
+
+    private final int floorsAmount;
+    private final TrafficProfile profile;
+    private final double arrivalRate;
+    private final long passengersAmount;
+    private final SplittableRandom random;
+
+    //Time of last arrival, in steps.
+    private double time;
+    private long passengersCreated;
+
+    /**
+     * @param floorsAmount     amount of floors above lobby, at least 2.
+     * @param profile          mix of trips.
+     * @param arrivalRate      mean amount of passengers arriving in one step in whole building.
+     * @param passengersAmount amount of passengers after which no more passengers arrive.
+     * @param seed             seed of random numbers generator.
+     */
+    public TrafficGenerator(int floorsAmount, TrafficProfile profile, double arrivalRate, long passengersAmount,
+                            long seed) {
+        this(floorsAmount, profile, arrivalRate, passengersAmount, new SplittableRandom(seed));
+    }
+
+    /**
+     * @param floorsAmount     amount of floors above lobby, at least 2.
+     * @param profile          mix of trips.
+     * @param arrivalRate      mean amount of passengers arriving in one step in whole building.
+     * @param passengersAmount amount of passengers after which no more passengers arrive.
+     * @param random           generator of random numbers, used only by this object.
+     */
+    public TrafficGenerator(int floorsAmount, TrafficProfile profile, double arrivalRate, long passengersAmount,
+                            SplittableRandom random) {
+        if (floorsAmount < 2 || !(arrivalRate > 0) || passengersAmount < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Floors amount (%d) has to be at least 2, arrival rate (%f) positive and passengers amount (%d) "
+                            + "not negative", floorsAmount, arrivalRate, passengersAmount));
+        }
+        this.floorsAmount = floorsAmount;
+        this.profile = profile;
+        this.arrivalRate = arrivalRate;
+        this.passengersAmount = passengersAmount;
+        this.random = random;
+    }
+
+    //Time between arrivals of Poisson process is exponentially distributed.
+    @Override
+    public Passenger next() {
+        if (passengersCreated == passengersAmount) {
+            return null;
+        }
+        time -= Math.log(1 - random.nextDouble()) / arrivalRate;
+
+        int startingFloor;
+        int destinationFloor;
+        double trip = random.nextDouble();
+        if (trip < profile.getIncomingPart()) {
+            startingFloor = LOBBY;
+            destinationFloor = getRandomUpperFloor();
+        } else if (trip < profile.getIncomingPart() + profile.getOutgoingPart()) {
+            startingFloor = getRandomUpperFloor();
+            destinationFloor = LOBBY;
+        } else {
+            startingFloor = getRandomUpperFloor();
+            destinationFloor = PassengerFactory.skipFloor(random.nextInt(floorsAmount - 1) + 1, startingFloor);
+        }
+
+        Passenger passenger = new Passenger(startingFloor, destinationFloor, "P" + passengersCreated++);
+        passenger.setCallStep((int) Math.min(time, Integer.MAX_VALUE));
+        return passenger;
+    }
+
+    private int getRandomUpperFloor() {
+        return random.nextInt(floorsAmount) + 1;
+    }
+
+    /**
+     * @return mix of trips.
+     */
+    public TrafficProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * @return mean amount of passengers arriving in one step.
+     */
+    public double getArrivalRate() {
+        return arrivalRate;
+    }
+}
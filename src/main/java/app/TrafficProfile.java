@@ -0,0 +1,55 @@
+package app;
+
+/**
+ * Mix of trips typical for part of day in office building, as parts of incoming trips (from lobby
+ * on floor 0 to upper floors), outgoing trips (from upper floors to lobby) and inter-floor trips
+ * (between upper floors).
+ */
+public enum TrafficProfile {
+
+    /**
+     * Morning rush, almost everybody rides up from lobby.
+     */
+    UP_PEAK(0.85, 0.05),
+    /**
+     * Evening rush, almost everybody rides down to lobby.
+     */
+    DOWN_PEAK(0.05, 0.85),
+    /**
+     * Lunch time, people leave and come back through lobby at the same time.
+     */
+    LUNCH(0.4, 0.4),
+    /**
+     * Middle of day, people mostly ride between upper floors.
+     */
+    INTER_FLOOR(0.1, 0.1);
+
+    private final double incomingPart;
+    private final double outgoingPart;
+
+    TrafficProfile(double incomingPart, double outgoingPart) {
+        this.incomingPart = incomingPart;
+        this.outgoingPart = outgoingPart;
+    }
+
+    /**
+     * @return part of trips from lobby to upper floors.
+     */
+    public double getIncomingPart() {
+        return incomingPart;
+    }
+
+    /**
+     * @return part of trips from upper floors to lobby.
+     */
+    public double getOutgoingPart() {
+        return outgoingPart;
+    }
+
+    /**
+     * @return part of trips between upper floors.
+     */
+    public double getInterFloorPart() {
+        return 1 - incomingPart - outgoingPart;
+    }
+}
@@ -0,0 +1,99 @@
+package app;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Passengers waiting for carts, indexed by assigned cart and starting floor,
+ * so that only passengers whose cart arrived at their floor are touched when they board.
+ * Iterates passengers in order in which they were added.
+ */
+public class WaitingPassengers extends AbstractCollection<Passenger> {
+
+    private final int floorsAmount;
+    private final Set<Passenger> passengers;
+    private final Map<Long, List<Passenger>> passengersByCartAndFloor;
+    private final int[] waitingAmounts;
+
+    /**
+     * @param cartsAmount  amount of carts to which passengers can be assigned.
+     * @param floorsAmount amount of floors on which passengers can wait.
+     */
+    public WaitingPassengers(int cartsAmount, int floorsAmount) {
+        this.floorsAmount = floorsAmount;
+        this.passengers = new LinkedHashSet<>();
+        this.passengersByCartAndFloor = new HashMap<>();
+        this.waitingAmounts = new int[cartsAmount];
+    }
+
+    /**
+     * Adds passenger, who must already have assigned cart.
+     *
+     * @param passenger passenger waiting on his starting floor.
+     * @return true
+     */
+    @Override
+    public boolean add(Passenger passenger) {
+        passengers.add(passenger);
+        passengersByCartAndFloor.computeIfAbsent(getKey(passenger.getAssignedCartId(), passenger.getStartingFloor()),
+                key -> new ArrayList<>()).add(passenger);
+        waitingAmounts[passenger.getAssignedCartId()]++;
+        return true;
+    }
+
+    /**
+     * Removes passengers waiting for given cart on given floor.
+     *
+     * @param cartId      id of cart which is on floor.
+     * @param floorNumber floor on which cart is.
+     * @return removed passengers, in order in which they were added.
+     */
+    public List<Passenger> removeBoarding(int cartId, int floorNumber) {
+        if (waitingAmounts[cartId] == 0) {
+            return Collections.emptyList();
+        }
+        List<Passenger> boarding = passengersByCartAndFloor.remove(getKey(cartId, floorNumber));
+        if (boarding == null) {
+            return Collections.emptyList();
+        }
+        for (Passenger passenger : boarding) {
+            passengers.remove(passenger);
+        }
+        waitingAmounts[cartId] -= boarding.size();
+        return boarding;
+    }
+
+    /**
+     * @param cartId id of cart.
+     * @return amount of passengers waiting for cart.
+     */
+    public int getWaitingAmount(int cartId) {
+        return waitingAmounts[cartId];
+    }
+
+    @Override
+    public Iterator<Passenger> iterator() {
+        return Collections.unmodifiableSet(passengers).iterator();
+    }
+
+    @Override
+    public int size() {
+        return passengers.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return passengers.isEmpty();
+    }
+
+    private long getKey(int cartId, int floorNumber) {
+        return (long) cartId * (floorsAmount + 1) + floorNumber;
+    }
+}
@@ -0,0 +1,187 @@
+package elevator;
+
+import java.util.Arrays;
+
+/**
+ * Cart store keeping state of carts in parallel primitive arrays on heap, so loops over carts read
+ * consecutive array elements instead of following references to separate objects. Each bitmap of
+ * every cart lies one after another in one array, and bitmaps grow for every cart when floor above
+ * them is requested.
+ */
+class ArrayCartStore extends CartStore {
+
+    private final int cartsAmount;
+    private final int[] currentFloors;
+    private final byte[] directions;
+    private final int[] requestsAmounts;
+    private final int[] capacities;
+    private final int[] loads;
+    private final int[] speeds;
+    private final int[] dwellStepsLeft;
+    private int stepsMade;
+
+    private int wordsPerCart;
+    private final long[][] bitmaps;
+
+    //Bitmaps are sized for floors from 0 to floorsAmount.
+    ArrayCartStore(int cartsAmount, int floorsAmount) {
+        this.cartsAmount = cartsAmount;
+        this.currentFloors = new int[cartsAmount];
+        this.directions = new byte[cartsAmount];
+        this.requestsAmounts = new int[cartsAmount];
+        this.capacities = new int[cartsAmount];
+        this.loads = new int[cartsAmount];
+        this.speeds = new int[cartsAmount];
+        this.dwellStepsLeft = new int[cartsAmount];
+        this.wordsPerCart = getWordsAmount(floorsAmount);
+        this.bitmaps = new long[BITMAPS_AMOUNT][cartsAmount * wordsPerCart];
+        Arrays.fill(directions, NONE);
+        Arrays.fill(capacities, Integer.MAX_VALUE);
+    }
+
+    //Copies every array of given store.
+    private ArrayCartStore(ArrayCartStore store) {
+        this.cartsAmount = store.cartsAmount;
+        this.currentFloors = store.currentFloors.clone();
+        this.directions = store.directions.clone();
+        this.requestsAmounts = store.requestsAmounts.clone();
+        this.capacities = store.capacities.clone();
+        this.loads = store.loads.clone();
+        this.speeds = store.speeds.clone();
+        this.dwellStepsLeft = store.dwellStepsLeft.clone();
+        this.stepsMade = store.stepsMade;
+        this.wordsPerCart = store.wordsPerCart;
+        this.bitmaps = new long[BITMAPS_AMOUNT][];
+        for (int bitmap = 0; bitmap < BITMAPS_AMOUNT; bitmap++) {
+            bitmaps[bitmap] = store.bitmaps[bitmap].clone();
+        }
+    }
+
+    @Override
+    ArrayCartStore copy() {
+        return new ArrayCartStore(this);
+    }
+
+    @Override
+    int getCartsAmount() {
+        return cartsAmount;
+    }
+
+    @Override
+    int getCurrentFloor(int slot) {
+        return currentFloors[slot];
+    }
+
+    @Override
+    void setCurrentFloor(int slot, int floorNumber) {
+        currentFloors[slot] = floorNumber;
+    }
+
+    @Override
+    byte getDirectionCode(int slot) {
+        return directions[slot];
+    }
+
+    @Override
+    void setDirectionCode(int slot, byte directionCode) {
+        directions[slot] = directionCode;
+    }
+
+    @Override
+    boolean isResting(int slot) {
+        return directions[slot] == NONE && requestsAmounts[slot] == 0 && dwellStepsLeft[slot] == 0;
+    }
+
+    @Override
+    int getRequestsAmount(int slot) {
+        return requestsAmounts[slot];
+    }
+
+    @Override
+    void addRequestsAmount(int slot, int amount) {
+        requestsAmounts[slot] += amount;
+    }
+
+    @Override
+    int getCapacity(int slot) {
+        return capacities[slot];
+    }
+
+    @Override
+    void setCapacity(int slot, int capacity) {
+        capacities[slot] = capacity;
+    }
+
+    @Override
+    int getLoad(int slot) {
+        return loads[slot];
+    }
+
+    @Override
+    void addLoad(int slot, int amount) {
+        loads[slot] += amount;
+    }
+
+    @Override
+    int getSpeed(int slot) {
+        return speeds[slot];
+    }
+
+    @Override
+    void setSpeed(int slot, int speed) {
+        speeds[slot] = speed;
+    }
+
+    @Override
+    int getDwellStepsLeft(int slot) {
+        return dwellStepsLeft[slot];
+    }
+
+    @Override
+    void setDwellStepsLeft(int slot, int steps) {
+        dwellStepsLeft[slot] = steps;
+    }
+
+    @Override
+    int getStepsMade() {
+        return stepsMade;
+    }
+
+    @Override
+    void setStepsMade(int stepsMade) {
+        this.stepsMade = stepsMade;
+    }
+
+    @Override
+    int getWordsPerCart() {
+        return wordsPerCart;
+    }
+
+    @Override
+    long getWord(int bitmap, int slot, int word) {
+        return bitmaps[bitmap][slot * wordsPerCart + word];
+    }
+
+    @Override
+    void setWord(int bitmap, int slot, int word, long bits) {
+        bitmaps[bitmap][slot * wordsPerCart + word] = bits;
+    }
+
+    //Copies each cart's words to its new place.
+    @Override
+    void ensureFloor(int floorNumber) {
+        int newWordsPerCart = getWordsAmount(floorNumber);
+        if (newWordsPerCart <= wordsPerCart) {
+            return;
+        }
+        for (int bitmap = 0; bitmap < BITMAPS_AMOUNT; bitmap++) {
+            long[] newBitmaps = new long[cartsAmount * newWordsPerCart];
+            for (int slot = 0; slot < cartsAmount; slot++) {
+                System.arraycopy(bitmaps[bitmap], slot * wordsPerCart, newBitmaps, slot * newWordsPerCart,
+                        wordsPerCart);
+            }
+            bitmaps[bitmap] = newBitmaps;
+        }
+        wordsPerCart = newWordsPerCart;
+    }
+}
@@ -0,0 +1,113 @@
+package elevator;
+
+import java.util.BitSet;
+
+/**
+ * Group of carts serving only chosen floors of building, e.g. low-rise, high-rise or express shuttle
+ * to sky lobby. Carts of bank pass other floors without stopping on them.
+ * Bank uses its own {@link ElevatorSystem}, so choosing cart for call checks only carts of this bank.
+ */
+public class Bank {
+
+    private final String name;
+    private final BitSet servedFloors;
+    private final ElevatorSystem elevatorSystem;
+
+    /**
+     * Creates bank whose carts start on its lowest served floor.
+     *
+     * @param name             name of bank.
+     * @param cartsAmount      amount of carts in bank.
+     * @param servedFloors     floors on which carts of bank stop.
+     * @param dispatchStrategy strategy choosing carts of bank for calls.
+     */
+    public Bank(String name, int cartsAmount, BitSet servedFloors, DispatchStrategy dispatchStrategy) {
+        if (servedFloors.cardinality() < 2) {
+            throw new IllegalArgumentException(String.format("Bank %s has to serve at least two floors", name));
+        }
+        this.name = name;
+        this.servedFloors = (BitSet) servedFloors.clone();
+        this.elevatorSystem = new ElevatorSystem(cartsAmount, getHighestFloor(), dispatchStrategy);
+        for (ElevatorCart cart : elevatorSystem.getCartsList()) {
+            cart.setCurrentFloor(getLowestFloor());
+        }
+    }
+
+    /**
+     * Assigns cart of bank to call from one served floor to another.
+     *
+     * @param floorNumber      number of floor where passenger made the call.
+     * @param destinationFloor number of floor to which passenger wants to ride with this bank.
+     * @return id of cart assigned to call.
+     */
+    public int requestCart(int floorNumber, int destinationFloor) {
+        checkServed(floorNumber);
+        checkServed(destinationFloor);
+        return elevatorSystem.requestCart(floorNumber, destinationFloor);
+    }
+
+    /**
+     * Adds destination request of passenger who boarded cart of bank.
+     *
+     * @param cartId      id of cart.
+     * @param floorNumber number of served floor.
+     */
+    public void makeDestinationRequest(int cartId, int floorNumber) {
+        checkServed(floorNumber);
+        elevatorSystem.makeDestinationRequest(cartId, floorNumber);
+    }
+
+    private void checkServed(int floorNumber) {
+        if (!isServing(floorNumber)) {
+            throw new IllegalArgumentException(String.format("Bank %s doesn't serve floor %d", name, floorNumber));
+        }
+    }
+
+    /**
+     * @param floorNumber number of floor.
+     * @return true if carts of bank stop on floor.
+     */
+    public boolean isServing(int floorNumber) {
+        return floorNumber >= 0 && servedFloors.get(floorNumber);
+    }
+
+    /**
+     * @return lowest floor served by bank.
+     */
+    public int getLowestFloor() {
+        return servedFloors.nextSetBit(0);
+    }
+
+    /**
+     * @return highest floor served by bank.
+     */
+    public int getHighestFloor() {
+        return servedFloors.length() - 1;
+    }
+
+    /**
+     * @return copy of floors served by bank.
+     */
+    public BitSet getServedFloors() {
+        return (BitSet) servedFloors.clone();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return elevator system of bank's carts, which numbers floors same as building.
+     */
+    public ElevatorSystem getElevatorSystem() {
+        return elevatorSystem;
+    }
+
+    /**
+     * @return human-readable name, served floors and carts of bank.
+     */
+    public String toString() {
+        return String.format("Bank %s serves floors %s with carts %s", name, servedFloors,
+                elevatorSystem.getCartsList());
+    }
+}
@@ -0,0 +1,257 @@
+package elevator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Cart store keeping state of carts in fixed-size records of byte buffer outside of heap, either direct
+ * buffer or memory-mapped file, so heap used by carts' state doesn't grow with fleet size.
+ * Buffer starts with little-endian header (magic number, format version, carts and floors amounts, words
+ * of each bitmap and steps made) followed by one record for each cart: floor, requests amount, capacity, load,
+ * speed, dwell steps and direction, then upward requests, downward requests and car stops bitmaps.
+ * Changes of mapped file are written by operating system also when process crashes, so system can be
+ * resumed from the file. Bitmaps are sized once for given floors and don't grow.
+ */
+class BufferCartStore extends CartStore {
+
+    static final int MAGIC = 0x454C5646;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    private static final int CARTS_AMOUNT_OFFSET = 8;
+    private static final int FLOORS_AMOUNT_OFFSET = 12;
+    private static final int WORDS_PER_CART_OFFSET = 16;
+    private static final int STEPS_MADE_OFFSET = 20;
+
+    private static final int FLOOR_OFFSET = 0;
+    private static final int REQUESTS_AMOUNT_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int LOAD_OFFSET = 12;
+    private static final int SPEED_OFFSET = 16;
+    private static final int DWELL_STEPS_OFFSET = 20;
+    private static final int DIRECTION_OFFSET = 24;
+    private static final int BITMAPS_OFFSET = 32;
+
+    private final ByteBuffer buffer;
+    private final int cartsAmount;
+    private final int floorsAmount;
+    private final int wordsPerCart;
+    private final int recordSize;
+
+    //Little-endian order is native order of most processors, so values aren't swapped on each access.
+    private BufferCartStore(ByteBuffer buffer, int cartsAmount, int floorsAmount) {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        this.cartsAmount = cartsAmount;
+        this.floorsAmount = floorsAmount;
+        this.wordsPerCart = getWordsAmount(floorsAmount);
+        this.recordSize = getRecordSize(wordsPerCart);
+    }
+
+    /**
+     * Creates store in direct buffer.
+     *
+     * @param cartsAmount  amount of carts.
+     * @param floorsAmount highest floor which can be requested.
+     * @return store with idle carts on floor 0.
+     */
+    static BufferCartStore allocateDirect(int cartsAmount, int floorsAmount) {
+        BufferCartStore store = new BufferCartStore(ByteBuffer.allocateDirect(getBufferSize(cartsAmount,
+                floorsAmount)), cartsAmount, floorsAmount);
+        store.initialise();
+        return store;
+    }
+
+    /**
+     * Creates store in memory-mapped file, existing file is overwritten.
+     *
+     * @param path         path of file.
+     * @param cartsAmount  amount of carts.
+     * @param floorsAmount highest floor which can be requested.
+     * @return store with idle carts on floor 0.
+     * @throws IOException when file can't be created or mapped.
+     */
+    static BufferCartStore create(Path path, int cartsAmount, int floorsAmount) throws IOException {
+        int bufferSize = getBufferSize(cartsAmount, floorsAmount);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            BufferCartStore store = new BufferCartStore(channel.map(FileChannel.MapMode.READ_WRITE, 0, bufferSize),
+                    cartsAmount, floorsAmount);
+            store.initialise();
+            return store;
+        }
+    }
+
+    /**
+     * Maps file of store created earlier, carts keep state which they had when it was last changed.
+     *
+     * @param path path of file.
+     * @return store with state from file.
+     * @throws IOException when file can't be mapped or isn't a cart store file.
+     */
+    static BufferCartStore open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException(String.format("File %s is too short for cart store", path));
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC || header.getShort(4) != VERSION) {
+                throw new IOException(String.format("File %s is not a cart store of version %d", path, VERSION));
+            }
+            int cartsAmount = header.getInt(CARTS_AMOUNT_OFFSET);
+            int floorsAmount = header.getInt(FLOORS_AMOUNT_OFFSET);
+            if (cartsAmount < 0 || floorsAmount < 0 || header.getInt(WORDS_PER_CART_OFFSET)
+                    != getWordsAmount(floorsAmount) || channel.size() != getBufferSize(cartsAmount, floorsAmount)) {
+                throw new IOException(String.format("File %s has wrong size for %d carts and %d floors", path,
+                        cartsAmount, floorsAmount));
+            }
+            return new BufferCartStore(channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()),
+                    cartsAmount, floorsAmount);
+        }
+    }
+
+    private static int getRecordSize(int wordsPerCart) {
+        return BITMAPS_OFFSET + BITMAPS_AMOUNT * wordsPerCart * Long.BYTES;
+    }
+
+    private static int getBufferSize(int cartsAmount, int floorsAmount) {
+        long bufferSize = HEADER_SIZE + (long) cartsAmount * getRecordSize(getWordsAmount(floorsAmount));
+        if (bufferSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("Store of %d carts and %d floors needs %d bytes, "
+                    + "more than one buffer can hold", cartsAmount, floorsAmount, bufferSize));
+        }
+        return (int) bufferSize;
+    }
+
+    private void initialise() {
+        buffer.putInt(0, MAGIC).putShort(4, VERSION).putInt(CARTS_AMOUNT_OFFSET, cartsAmount)
+                .putInt(FLOORS_AMOUNT_OFFSET, floorsAmount).putInt(WORDS_PER_CART_OFFSET, wordsPerCart)
+                .putInt(STEPS_MADE_OFFSET, 0);
+        for (int slot = 0; slot < cartsAmount; slot++) {
+            setCapacity(slot, Integer.MAX_VALUE);
+            setDirectionCode(slot, NONE);
+        }
+    }
+
+    int getFloorsAmount() {
+        return floorsAmount;
+    }
+
+    private int getRecord(int slot) {
+        return HEADER_SIZE + slot * recordSize;
+    }
+
+    @Override
+    int getCartsAmount() {
+        return cartsAmount;
+    }
+
+    @Override
+    int getCurrentFloor(int slot) {
+        return buffer.getInt(getRecord(slot) + FLOOR_OFFSET);
+    }
+
+    @Override
+    void setCurrentFloor(int slot, int floorNumber) {
+        buffer.putInt(getRecord(slot) + FLOOR_OFFSET, floorNumber);
+    }
+
+    @Override
+    byte getDirectionCode(int slot) {
+        return buffer.get(getRecord(slot) + DIRECTION_OFFSET);
+    }
+
+    @Override
+    void setDirectionCode(int slot, byte directionCode) {
+        buffer.put(getRecord(slot) + DIRECTION_OFFSET, directionCode);
+    }
+
+    @Override
+    int getRequestsAmount(int slot) {
+        return buffer.getInt(getRecord(slot) + REQUESTS_AMOUNT_OFFSET);
+    }
+
+    @Override
+    void addRequestsAmount(int slot, int amount) {
+        int index = getRecord(slot) + REQUESTS_AMOUNT_OFFSET;
+        buffer.putInt(index, buffer.getInt(index) + amount);
+    }
+
+    @Override
+    int getCapacity(int slot) {
+        return buffer.getInt(getRecord(slot) + CAPACITY_OFFSET);
+    }
+
+    @Override
+    void setCapacity(int slot, int capacity) {
+        buffer.putInt(getRecord(slot) + CAPACITY_OFFSET, capacity);
+    }
+
+    @Override
+    int getLoad(int slot) {
+        return buffer.getInt(getRecord(slot) + LOAD_OFFSET);
+    }
+
+    @Override
+    void addLoad(int slot, int amount) {
+        int index = getRecord(slot) + LOAD_OFFSET;
+        buffer.putInt(index, buffer.getInt(index) + amount);
+    }
+
+    @Override
+    int getSpeed(int slot) {
+        return buffer.getInt(getRecord(slot) + SPEED_OFFSET);
+    }
+
+    @Override
+    void setSpeed(int slot, int speed) {
+        buffer.putInt(getRecord(slot) + SPEED_OFFSET, speed);
+    }
+
+    @Override
+    int getDwellStepsLeft(int slot) {
+        return buffer.getInt(getRecord(slot) + DWELL_STEPS_OFFSET);
+    }
+
+    @Override
+    void setDwellStepsLeft(int slot, int steps) {
+        buffer.putInt(getRecord(slot) + DWELL_STEPS_OFFSET, steps);
+    }
+
+    @Override
+    int getStepsMade() {
+        return buffer.getInt(STEPS_MADE_OFFSET);
+    }
+
+    @Override
+    void setStepsMade(int stepsMade) {
+        buffer.putInt(STEPS_MADE_OFFSET, stepsMade);
+    }
+
+    @Override
+    int getWordsPerCart() {
+        return wordsPerCart;
+    }
+
+    @Override
+    long getWord(int bitmap, int slot, int word) {
+        return buffer.getLong(getRecord(slot) + BITMAPS_OFFSET + (bitmap * wordsPerCart + word) * Long.BYTES);
+    }
+
+    @Override
+    void setWord(int bitmap, int slot, int word, long bits) {
+        buffer.putLong(getRecord(slot) + BITMAPS_OFFSET + (bitmap * wordsPerCart + word) * Long.BYTES, bits);
+    }
+
+    //Records have fixed size, so floors above the ones given at creation can't be requested.
+    @Override
+    void ensureFloor(int floorNumber) {
+        if (floorNumber > floorsAmount) {
+            throw new IllegalArgumentException(String.format("Store holds requests for floors up to %d, got %d",
+                    floorsAmount, floorNumber));
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package elevator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Building with carts split into {@link Bank banks}, each serving its own floors.
+ * Routes calls only to banks serving their floors, with transfers on floors served by two banks
+ * (e.g. sky lobbies) when no bank serves both origin and destination.
+ */
+public class Building {
+
+    private static final int NO_BANK = -1;
+
+    private final int floorsAmount;
+    private final List<Bank> banks;
+    //Indexes of banks serving each floor.
+    private final int[][] banksByFloor;
+    //Floors served by both banks, for each pair of banks.
+    private final BitSet[][] transferFloors;
+
+    /**
+     * @param floorsAmount amount of floors in building.
+     * @param banks        banks of building, each serving floors from 0 to floorsAmount.
+     */
+    public Building(int floorsAmount, List<Bank> banks) {
+        this.floorsAmount = floorsAmount;
+        this.banks = Collections.unmodifiableList(new ArrayList<>(banks));
+        this.banksByFloor = new int[floorsAmount + 1][];
+        for (int floor = 0; floor <= floorsAmount; floor++) {
+            int[] floorBanks = new int[banks.size()];
+            int floorBanksAmount = 0;
+            for (int i = 0; i < banks.size(); i++) {
+                if (banks.get(i).isServing(floor)) {
+                    floorBanks[floorBanksAmount++] = i;
+                }
+            }
+            banksByFloor[floor] = Arrays.copyOf(floorBanks, floorBanksAmount);
+        }
+        for (Bank bank : banks) {
+            if (bank.getHighestFloor() > floorsAmount) {
+                throw new IllegalArgumentException(String.format("Bank %s serves floor %d above building",
+                        bank.getName(), bank.getHighestFloor()));
+            }
+        }
+        this.transferFloors = new BitSet[banks.size()][banks.size()];
+        for (int i = 0; i < banks.size(); i++) {
+            for (int j = 0; j < banks.size(); j++) {
+                transferFloors[i][j] = banks.get(i).getServedFloors();
+                transferFloors[i][j].and(banks.get(j).getServedFloors());
+            }
+        }
+    }
+
+    /**
+     * Finds route with fewest legs from one floor to another. Passenger rides with one bank when it is possible,
+     * choosing bank with smallest range of served floors, otherwise he transfers on floors closest to destination.
+     *
+     * @param floorNumber      number of floor where passenger is.
+     * @param destinationFloor number of floor to which passenger wants to get.
+     * @return route of passenger.
+     */
+    public Route route(int floorNumber, int destinationFloor) {
+        checkFloor(floorNumber);
+        checkFloor(destinationFloor);
+        if (floorNumber == destinationFloor) {
+            throw new IllegalArgumentException(String.format("Passenger is already on floor %d", floorNumber));
+        }
+
+        int directBank = NO_BANK;
+        for (int bankIndex : banksByFloor[floorNumber]) {
+            Bank bank = banks.get(bankIndex);
+            if (bank.isServing(destinationFloor) && (directBank == NO_BANK
+                    || getRange(bank) < getRange(banks.get(directBank)))) {
+                directBank = bankIndex;
+            }
+        }
+        if (directBank != NO_BANK) {
+            return new Route(new int[]{directBank}, new int[]{floorNumber, destinationFloor});
+        }
+
+        //Breadth-first search over banks, two banks are connected when they share a floor.
+        int[] previousBanks = new int[banks.size()];
+        Arrays.fill(previousBanks, NO_BANK);
+        boolean[] visited = new boolean[banks.size()];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int bankIndex : banksByFloor[floorNumber]) {
+            visited[bankIndex] = true;
+            queue.add(bankIndex);
+        }
+        while (!queue.isEmpty()) {
+            int bankIndex = queue.poll();
+            if (banks.get(bankIndex).isServing(destinationFloor)) {
+                return createRoute(bankIndex, previousBanks, floorNumber, destinationFloor);
+            }
+            for (int nextBank = 0; nextBank < banks.size(); nextBank++) {
+                if (!visited[nextBank] && !transferFloors[bankIndex][nextBank].isEmpty()) {
+                    visited[nextBank] = true;
+                    previousBanks[nextBank] = bankIndex;
+                    queue.add(nextBank);
+                }
+            }
+        }
+        throw new IllegalArgumentException(String.format("No route from floor %d to %d",
+                floorNumber, destinationFloor));
+    }
+
+    private Route createRoute(int lastBank, int[] previousBanks, int floorNumber, int destinationFloor) {
+        int legsAmount = 1;
+        for (int bankIndex = lastBank; previousBanks[bankIndex] != NO_BANK; bankIndex = previousBanks[bankIndex]) {
+            legsAmount++;
+        }
+        int[] bankIndexes = new int[legsAmount];
+        int[] floors = new int[legsAmount + 1];
+        for (int leg = legsAmount - 1, bankIndex = lastBank; leg >= 0; leg--, bankIndex = previousBanks[bankIndex]) {
+            bankIndexes[leg] = bankIndex;
+        }
+        floors[0] = floorNumber;
+        floors[legsAmount] = destinationFloor;
+        for (int leg = 0; leg < legsAmount - 1; leg++) {
+            floors[leg + 1] = getClosestFloor(transferFloors[bankIndexes[leg]][bankIndexes[leg + 1]],
+                    destinationFloor);
+        }
+        return new Route(bankIndexes, floors);
+    }
+
+    private static int getClosestFloor(BitSet floors, int floorNumber) {
+        int lowerFloor = floors.previousSetBit(floorNumber);
+        int upperFloor = floors.nextSetBit(floorNumber);
+        if (lowerFloor < 0) {
+            return upperFloor;
+        }
+        if (upperFloor < 0) {
+            return lowerFloor;
+        }
+        return floorNumber - lowerFloor <= upperFloor - floorNumber ? lowerFloor : upperFloor;
+    }
+
+    private static int getRange(Bank bank) {
+        return bank.getHighestFloor() - bank.getLowestFloor();
+    }
+
+    private void checkFloor(int floorNumber) {
+        if (floorNumber < 0 || floorNumber > floorsAmount) {
+            throw new IllegalArgumentException(String.format("Building has no floor %d", floorNumber));
+        }
+    }
+
+    /**
+     * Assigns cart to given leg of route, passenger should be on leg's starting floor.
+     *
+     * @param route route of passenger.
+     * @param leg   number of leg, from 0.
+     * @return id of cart in leg's bank.
+     */
+    public int requestCart(Route route, int leg) {
+        return banks.get(route.getBankIndex(leg)).requestCart(route.getFromFloor(leg), route.getToFloor(leg));
+    }
+
+    /**
+     * Makes one step for carts of every bank.
+     */
+    public void makeStep() {
+        for (Bank bank : banks) {
+            bank.getElevatorSystem().makeStep();
+        }
+    }
+
+    /**
+     * @param floorNumber number of floor.
+     * @return indexes of banks serving floor.
+     */
+    public int[] getBankIndexes(int floorNumber) {
+        checkFloor(floorNumber);
+        return banksByFloor[floorNumber].clone();
+    }
+
+    public List<Bank> getBanks() {
+        return banks;
+    }
+
+    public int getFloorsAmount() {
+        return floorsAmount;
+    }
+
+    /**
+     * @return human-readable data about building's banks.
+     */
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format("Building has %d floors and %d banks:%n",
+                floorsAmount, banks.size()));
+        for (Bank bank : banks) {
+            sb.append(bank).append(String.format("%n"));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,107 @@
+package elevator;
+
+import utils.CartDirection;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Index of carts grouped by current floor and {@link CartDirection}.
+ * Each group is a doubly linked list of carts' ids kept in arrays, so moving cart between groups
+ * is constant time and doesn't allocate objects.
+ */
+class CartIndex {
+
+    static final int NO_CART = -1;
+
+    private static final int DIRECTIONS_AMOUNT = CartDirection.values().length;
+
+    private final int floorsAmount;
+    private final int[] firstCartIds;
+    private final int[] nextCartIds;
+    private final int[] previousCartIds;
+    private final int[] cartGroups;
+    private boolean tracking;
+
+    CartIndex(int cartsAmount, int floorsAmount) {
+        this.floorsAmount = floorsAmount;
+        this.firstCartIds = new int[(floorsAmount + 1) * DIRECTIONS_AMOUNT];
+        this.nextCartIds = new int[cartsAmount];
+        this.previousCartIds = new int[cartsAmount];
+        this.cartGroups = new int[cartsAmount];
+        this.tracking = true;
+        Arrays.fill(firstCartIds, NO_CART);
+        Arrays.fill(cartGroups, NO_CART);
+    }
+
+    //Moves cart to group matching its current floor and direction.
+    void update(ElevatorCart cart) {
+        if (!tracking) {
+            return;
+        }
+        int cartId = cart.getId();
+        int group = getGroup(cart.getCurrentFloor(), cart.getDirection());
+        if (cartGroups[cartId] == group) {
+            return;
+        }
+        if (cartGroups[cartId] != NO_CART) {
+            unlink(cartId);
+        }
+        link(cartId, group);
+    }
+
+    //Updates every cart at once, e.g. after steps made while index wasn't tracking changes.
+    void updateAll(List<ElevatorCart> carts) {
+        for (ElevatorCart cart : carts) {
+            update(cart);
+        }
+    }
+
+    //While index isn't tracking, carts can be moved from many threads and index has to be updated later.
+    void setTracking(boolean tracking) {
+        this.tracking = tracking;
+    }
+
+    int getFloorsAmount() {
+        return floorsAmount;
+    }
+
+    //Returns id of first cart on given floor with given direction or NO_CART.
+    int getFirstCartId(int floorNumber, CartDirection direction) {
+        return firstCartIds[getGroup(floorNumber, direction)];
+    }
+
+    //Returns id of next cart in same group or NO_CART.
+    int getNextCartId(int cartId) {
+        return nextCartIds[cartId];
+    }
+
+    private int getGroup(int floorNumber, CartDirection direction) {
+        return floorNumber * DIRECTIONS_AMOUNT + direction.ordinal();
+    }
+
+    private void link(int cartId, int group) {
+        int firstCartId = firstCartIds[group];
+        nextCartIds[cartId] = firstCartId;
+        previousCartIds[cartId] = NO_CART;
+        if (firstCartId != NO_CART) {
+            previousCartIds[firstCartId] = cartId;
+        }
+        firstCartIds[group] = cartId;
+        cartGroups[cartId] = group;
+    }
+
+    private void unlink(int cartId) {
+        int nextCartId = nextCartIds[cartId];
+        int previousCartId = previousCartIds[cartId];
+        if (previousCartId == NO_CART) {
+            firstCartIds[cartGroups[cartId]] = nextCartId;
+        } else {
+            nextCartIds[previousCartId] = nextCartId;
+        }
+        if (nextCartId != NO_CART) {
+            previousCartIds[nextCartId] = previousCartId;
+        }
+        cartGroups[cartId] = NO_CART;
+    }
+}
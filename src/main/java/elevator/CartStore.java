@@ -0,0 +1,191 @@
+package elevator;
+
+import utils.CartDirection;
+
+/**
+ * State of whole fleet of carts indexed by cart's slot, which {@link ElevatorCart} objects only view.
+ * Requests for floors above and below cart and floors requested from inside cart are bitmaps packed
+ * into long words, with same amount of words for every cart.
+ * {@link ArrayCartStore} keeps state in parallel arrays on heap, {@link BufferCartStore} in fixed-size
+ * records of off-heap or memory-mapped buffer.
+ */
+abstract class CartStore {
+
+    static final int UPWARD_REQUESTS = 0;
+    static final int DOWNWARD_REQUESTS = 1;
+    static final int CAR_STOPS = 2;
+    static final int BITMAPS_AMOUNT = 3;
+
+    private static final CartDirection[] DIRECTIONS = CartDirection.values();
+    static final byte NONE = (byte) CartDirection.NONE.ordinal();
+
+    static int getWordsAmount(int floorNumber) {
+        return (floorNumber >> 6) + 1;
+    }
+
+    abstract int getCartsAmount();
+
+    abstract int getCurrentFloor(int slot);
+
+    abstract void setCurrentFloor(int slot, int floorNumber);
+
+    abstract byte getDirectionCode(int slot);
+
+    abstract void setDirectionCode(int slot, byte directionCode);
+
+    abstract int getRequestsAmount(int slot);
+
+    abstract void addRequestsAmount(int slot, int amount);
+
+    abstract int getCapacity(int slot);
+
+    abstract void setCapacity(int slot, int capacity);
+
+    abstract int getLoad(int slot);
+
+    abstract void addLoad(int slot, int amount);
+
+    //Floors moved in last step, 0 when cart stands.
+    abstract int getSpeed(int slot);
+
+    abstract void setSpeed(int slot, int speed);
+
+    //Steps which cart still has to stay on floor with open doors.
+    abstract int getDwellStepsLeft(int slot);
+
+    abstract void setDwellStepsLeft(int slot, int steps);
+
+    //Steps made by system owning the store.
+    abstract int getStepsMade();
+
+    abstract void setStepsMade(int stepsMade);
+
+    abstract int getWordsPerCart();
+
+    abstract long getWord(int bitmap, int slot, int word);
+
+    abstract void setWord(int bitmap, int slot, int word, long bits);
+
+    //Makes room for given floor in every bitmap.
+    abstract void ensureFloor(int floorNumber);
+
+    //Returns store on heap with same state of every cart and same steps made.
+    ArrayCartStore copy() {
+        ArrayCartStore copy = new ArrayCartStore(getCartsAmount(), getHighestFloor());
+        for (int slot = 0; slot < getCartsAmount(); slot++) {
+            copy.setCurrentFloor(slot, getCurrentFloor(slot));
+            copy.setDirectionCode(slot, getDirectionCode(slot));
+            copy.addRequestsAmount(slot, getRequestsAmount(slot));
+            copy.setCapacity(slot, getCapacity(slot));
+            copy.addLoad(slot, getLoad(slot));
+            copy.setSpeed(slot, getSpeed(slot));
+            copy.setDwellStepsLeft(slot, getDwellStepsLeft(slot));
+            for (int bitmap = 0; bitmap < BITMAPS_AMOUNT; bitmap++) {
+                for (int word = 0; word < getWordsPerCart(); word++) {
+                    copy.setWord(bitmap, slot, word, getWord(bitmap, slot, word));
+                }
+            }
+        }
+        copy.setStepsMade(getStepsMade());
+        return copy;
+    }
+
+    CartDirection getDirection(int slot) {
+        return DIRECTIONS[getDirectionCode(slot)];
+    }
+
+    void setDirection(int slot, CartDirection direction) {
+        setDirectionCode(slot, (byte) direction.ordinal());
+    }
+
+    //Returns true if cart stands without requests and open doors, so its step doesn't change anything.
+    boolean isResting(int slot) {
+        return getDirectionCode(slot) == NONE && getRequestsAmount(slot) == 0 && getDwellStepsLeft(slot) == 0;
+    }
+
+    boolean isFull(int slot) {
+        return getLoad(slot) >= getCapacity(slot);
+    }
+
+    //Returns highest floor which fits in bitmaps without growing them.
+    int getHighestFloor() {
+        return getWordsPerCart() * Long.SIZE - 1;
+    }
+
+    //Bitmap operations take one of bitmaps' numbers above, floors outside bitmaps are never set.
+
+    boolean get(int bitmap, int slot, int floorNumber) {
+        if (floorNumber < 0 || floorNumber > getHighestFloor()) {
+            return false;
+        }
+        return (getWord(bitmap, slot, floorNumber >> 6) & 1L << floorNumber) != 0;
+    }
+
+    //Returns true if floor wasn't set before, floor has to fit in bitmaps.
+    boolean set(int bitmap, int slot, int floorNumber) {
+        if (floorNumber < 0 || floorNumber > getHighestFloor()) {
+            throw new IndexOutOfBoundsException(String.format("Floor %d is outside of bitmaps", floorNumber));
+        }
+        long bits = getWord(bitmap, slot, floorNumber >> 6);
+        long bit = 1L << floorNumber;
+        if ((bits & bit) != 0) {
+            return false;
+        }
+        setWord(bitmap, slot, floorNumber >> 6, bits | bit);
+        return true;
+    }
+
+    void clear(int bitmap, int slot, int floorNumber) {
+        if (floorNumber >= 0 && floorNumber <= getHighestFloor()) {
+            setWord(bitmap, slot, floorNumber >> 6, getWord(bitmap, slot, floorNumber >> 6) & ~(1L << floorNumber));
+        }
+    }
+
+    boolean isEmpty(int bitmap, int slot) {
+        for (int word = 0; word < getWordsPerCart(); word++) {
+            if (getWord(bitmap, slot, word) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Returns lowest set floor not lower than given one, -1 if there is none.
+    int nextSetFloor(int bitmap, int slot, int floorNumber) {
+        if (floorNumber > getHighestFloor()) {
+            return -1;
+        }
+        floorNumber = Math.max(floorNumber, 0);
+        int word = floorNumber >> 6;
+        long bits = getWord(bitmap, slot, word) & -1L << floorNumber;
+        while (bits == 0) {
+            if (++word == getWordsPerCart()) {
+                return -1;
+            }
+            bits = getWord(bitmap, slot, word);
+        }
+        return word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+    }
+
+    //Returns highest set floor not higher than given one, -1 if there is none.
+    int previousSetFloor(int bitmap, int slot, int floorNumber) {
+        if (floorNumber < 0) {
+            return -1;
+        }
+        floorNumber = Math.min(floorNumber, getHighestFloor());
+        int word = floorNumber >> 6;
+        long bits = getWord(bitmap, slot, word) & -1L >>> (Long.SIZE - 1 - (floorNumber & 63));
+        while (bits == 0) {
+            if (word-- == 0) {
+                return -1;
+            }
+            bits = getWord(bitmap, slot, word);
+        }
+        return word * Long.SIZE + Long.SIZE - 1 - Long.numberOfLeadingZeros(bits);
+    }
+
+    //Returns highest set floor, -1 if there is none.
+    int lastSetFloor(int bitmap, int slot) {
+        return previousSetFloor(bitmap, slot, getHighestFloor());
+    }
+}
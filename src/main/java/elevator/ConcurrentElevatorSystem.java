@@ -0,0 +1,124 @@
+package elevator;
+
+import utils.RequestDirection;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+
+/**
+ * Thread-safe front of {@link ElevatorSystem} for calls made from many threads at the same time.
+ * Hall calls and destination requests are put into lock-free queue and are handled in order of arrival
+ * at the beginning of next step, before carts are moved. Every call therefore takes effect between two steps,
+ * as if it was made by stepping thread.
+ * Wrapped elevator system may be read only from stepping thread.
+ */
+public class ConcurrentElevatorSystem {
+
+    private final ElevatorSystem elevatorSystem;
+    private final ConcurrentLinkedQueue<Call> calls;
+    private int skippedRequests;
+
+    public ConcurrentElevatorSystem(int cartsAmount, int floorsAmount) {
+        this(new ElevatorSystem(cartsAmount, floorsAmount));
+    }
+
+    /**
+     * @param elevatorSystem system which will be used only through this object from now on.
+     */
+    public ConcurrentElevatorSystem(ElevatorSystem elevatorSystem) {
+        this.elevatorSystem = elevatorSystem;
+        this.calls = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Queues hall call, it can be called from any thread.
+     *
+     * @param floorNumber      number of floor where passenger pressed the button.
+     * @param requestDirection direction choosed by passenger (up or down).
+     * @return future completed with id of assigned cart at the beginning of next step.
+     */
+    public CompletableFuture<Integer> requestCart(int floorNumber, RequestDirection requestDirection) {
+        Call call = new Call(-1, floorNumber, requestDirection);
+        calls.add(call);
+        return call.assignedCartId;
+    }
+
+    /**
+     * Queues destination request, it can be called from any thread.
+     *
+     * @param cartId      id of cart whose requests list is being changed
+     * @param floorNumber number of passenger's destination floor.
+     * @throws IllegalArgumentException when there is no such cart or floor.
+     */
+    public void makeDestinationRequest(int cartId, int floorNumber) {
+        if (cartId < 0 || cartId >= elevatorSystem.getCartsAmount()) {
+            throw new IllegalArgumentException(String.format("There is no cart with id %d", cartId));
+        }
+        if (floorNumber < 0 || floorNumber > elevatorSystem.getFloorsAmount()) {
+            throw new IllegalArgumentException(String.format("There is no floor %d", floorNumber));
+        }
+        calls.add(new Call(cartId, floorNumber, null));
+    }
+
+    /**
+     * Handles every queued call and then makes step of each cart, see {@link ElevatorSystem#makeStep()}.
+     * Steps can be made by one thread at a time.
+     */
+    public synchronized void makeStep() {
+        handleCalls();
+        elevatorSystem.makeStep();
+    }
+
+    /**
+     * @return amount of queued destination requests which failed when handled and were skipped,
+     * should be read only from thread making steps.
+     */
+    public int getSkippedRequests() {
+        return skippedRequests;
+    }
+
+    /**
+     * @return elevator system which should be read only from thread making steps.
+     */
+    public ElevatorSystem getElevatorSystem() {
+        return elevatorSystem;
+    }
+
+    //Handles queued calls in order of arrival. Destination requests are checked when queued and have no future
+    //to report failure, so request which still fails is skipped instead of stopping other calls and the step.
+    private void handleCalls() {
+        Call call;
+        while ((call = calls.poll()) != null) {
+            if (call.requestDirection == null) {
+                try {
+                    elevatorSystem.makeDestinationRequest(call.cartId, call.floorNumber);
+                } catch (RuntimeException ex) {
+                    skippedRequests++;
+                }
+            } else {
+                try {
+                    call.assignedCartId.complete(elevatorSystem.requestCart(call.floorNumber, call.requestDirection));
+                } catch (RuntimeException ex) {
+                    call.assignedCartId.completeExceptionally(ex);
+                }
+            }
+        }
+    }
+
+    //Hall call (with request direction) or destination request (with cart id).
+    private static class Call {
+
+        private final int cartId;
+        private final int floorNumber;
+        private final RequestDirection requestDirection;
+        private final CompletableFuture<Integer> assignedCartId;
+
+        Call(int cartId, int floorNumber, RequestDirection requestDirection) {
+            this.cartId = cartId;
+            this.floorNumber = floorNumber;
+            this.requestDirection = requestDirection;
+            this.assignedCartId = requestDirection == null ? null : new CompletableFuture<>();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package elevator;
+
+import utils.CartDirection;
+
+/**
+ * Strategy for destination calls, choosing cart with the lowest cost of whole trip:
+ * estimated steps until cart stops on passenger's floor, estimated steps of ride to destination floor
+ * and penalty for each stop which cart didn't have to make yet.
+ * Passengers going to same floor are grouped in one cart, as their destination doesn't add new stop.
+ * Full carts are chosen only when every cart is full.
+ * Hall calls without destination are handled as by {@link EtaDispatchStrategy}.
+ */
+public class DestinationDispatchStrategy extends EtaDispatchStrategy {
+
+    /**
+     * Default penalty for new stop, in steps.
+     */
+    public static final int DEFAULT_STOP_PENALTY = 3;
+
+    private final int stopPenalty;
+
+    public DestinationDispatchStrategy() {
+        this(DEFAULT_STOP_PENALTY);
+    }
+
+    /**
+     * @param stopPenalty cost of one new stop, in steps.
+     */
+    public DestinationDispatchStrategy(int stopPenalty) {
+        this.stopPenalty = stopPenalty;
+    }
+
+    @Override
+    public int chooseCart(ElevatorSystem elevatorSystem, int floorNumber, int destinationFloor) {
+        int bestCartId = -1;
+        long bestCost = Long.MAX_VALUE;
+        int bestRequestsAmount = Integer.MAX_VALUE;
+        boolean bestFull = true;
+        for (ElevatorCart cart : elevatorSystem.getCartsList()) {
+            long cost = (long) getStepsUntilStop(elevatorSystem, cart, floorNumber)
+                    + getRideSteps(elevatorSystem, cart, floorNumber, destinationFloor);
+            if (!cart.isStopPlanned(floorNumber) && cart.getCurrentFloor() != floorNumber) {
+                cost += stopPenalty;
+            }
+            if (!cart.isStopPlanned(destinationFloor)) {
+                cost += stopPenalty;
+            }
+            if (bestFull && !cart.isFull() || cart.isFull() == bestFull && (cost < bestCost
+                    || cost == bestCost && cart.getRequestsAmount() < bestRequestsAmount)) {
+                bestCartId = cart.getId();
+                bestFull = cart.isFull();
+                bestCost = cost;
+                bestRequestsAmount = cart.getRequestsAmount();
+            }
+        }
+        if (bestCartId < 0) {
+            throw new RuntimeException(String.format("No suitable cart found to handle call from %d to %d floor",
+                    floorNumber, destinationFloor));
+        }
+        return bestCartId;
+    }
+
+    /**
+     * Estimates steps of ride from floor on which passenger boards to his destination.
+     * When cart reaches passenger's floor heading away from destination, it first goes on
+     * to its last request or announced destination in that direction and comes back.
+     * Ride between cart's stops and door dwell on them take steps given by {@link MotionModel}.
+     *
+     * @param elevatorSystem   elevator system of cart.
+     * @param cart             cart to check.
+     * @param floorNumber      number of floor where passenger boards.
+     * @param destinationFloor number of passenger's destination floor.
+     * @return amount of steps.
+     */
+    static int getRideSteps(ElevatorSystem elevatorSystem, ElevatorCart cart, int floorNumber,
+                            int destinationFloor) {
+        int floorsAmount = elevatorSystem.getFloorsAmount();
+        CartDirection arrivalDirection = getArrivalDirection(cart, floorsAmount, floorNumber);
+        int turnFloor = floorNumber;
+        if (arrivalDirection == CartDirection.UPWARDS && destinationFloor < floorNumber) {
+            turnFloor = Math.max(Math.min(cart.getHighestPlannedStop(), floorsAmount), floorNumber);
+        } else if (arrivalDirection == CartDirection.DOWNWARDS && destinationFloor > floorNumber
+                && cart.getLowestPlannedStop() >= 0) {
+            turnFloor = Math.min(cart.getLowestPlannedStop(), floorNumber);
+        }
+        if (turnFloor == floorNumber) {
+            return getTravelSteps(elevatorSystem, cart, floorNumber, destinationFloor);
+        }
+        return getTravelSteps(elevatorSystem, cart, floorNumber, turnFloor)
+                + elevatorSystem.getMotionModel().getDoorDwellSteps()
+                + getTravelSteps(elevatorSystem, cart, turnFloor, destinationFloor);
+    }
+
+    //Returns direction in which cart will be heading when it stops on floor, NONE if it has no other requests.
+    private static CartDirection getArrivalDirection(ElevatorCart cart, int floorsAmount, int floorNumber) {
+        int cartFloor = cart.getCurrentFloor();
+        CartDirection direction = cart.getDirection();
+        if (direction == CartDirection.NONE) {
+            if (cart.hasMoreUpRequests() && cartFloor < floorsAmount) {
+                direction = CartDirection.UPWARDS;
+            } else if (cart.hasMoreDownRequests() && cartFloor > 0) {
+                direction = CartDirection.DOWNWARDS;
+            } else {
+                return CartDirection.NONE;
+            }
+        }
+        if (floorNumber == cartFloor) {
+            return direction;
+        }
+        if (direction == CartDirection.UPWARDS) {
+            return floorNumber > cartFloor ? CartDirection.UPWARDS : CartDirection.DOWNWARDS;
+        }
+        return floorNumber < cartFloor ? CartDirection.DOWNWARDS : CartDirection.UPWARDS;
+    }
+}
@@ -0,0 +1,78 @@
+package elevator;
+
+import utils.RequestDirection;
+
+/**
+ * Strategy used by {@link ElevatorSystem} to choose cart for hall call.
+ * Strategy is called before call's floor is added to chosen cart's requests.
+ */
+public interface DispatchStrategy {
+
+    /**
+     * Chooses cart which will handle hall call.
+     *
+     * @param elevatorSystem   elevator system which handles call.
+     * @param floorNumber      number of floor where passenger pressed the button.
+     * @param requestDirection direction choosed by passenger.
+     * @return id of chosen cart.
+     */
+    int chooseCart(ElevatorSystem elevatorSystem, int floorNumber, RequestDirection requestDirection);
+
+    /**
+     * Chooses cart which will handle destination call, made with passenger's origin and destination floors.
+     * Default implementation ignores destination apart from its direction.
+     *
+     * @param elevatorSystem   elevator system which handles call.
+     * @param floorNumber      number of floor where passenger made the call.
+     * @param destinationFloor number of floor to which passenger wants to ride.
+     * @return id of chosen cart.
+     */
+    default int chooseCart(ElevatorSystem elevatorSystem, int floorNumber, int destinationFloor) {
+        return chooseCart(elevatorSystem, floorNumber,
+                destinationFloor > floorNumber ? RequestDirection.UPWARDS : RequestDirection.DOWNWARDS);
+    }
+
+    /**
+     * Assigns carts to many calls, with same result as calling
+     * {@link ElevatorSystem#requestCart(int, RequestDirection)} for each call in given order.
+     * Strategies can override it when choosing carts for whole batch is faster.
+     *
+     * @param elevatorSystem    elevator system which handles calls.
+     * @param floorNumbers      numbers of floors where passengers pressed the button.
+     * @param requestDirections directions choosed by passengers, one for each floor number.
+     * @return ids of carts assigned to requests, in order of calls.
+     */
+    default int[] requestCarts(ElevatorSystem elevatorSystem, int[] floorNumbers,
+                               RequestDirection[] requestDirections) {
+        int[] assignedCartIds = new int[floorNumbers.length];
+        for (int call = 0; call < floorNumbers.length; call++) {
+            assignedCartIds[call] = elevatorSystem.requestCart(floorNumbers[call], requestDirections[call]);
+        }
+        return assignedCartIds;
+    }
+
+    /**
+     * Creates strategy with given name: "fitness" for {@link FitnessDispatchStrategy},
+     * "eta" for {@link EtaDispatchStrategy}, "destination" for {@link DestinationDispatchStrategy},
+     * or name of class with public constructor without parameters.
+     *
+     * @param name name of strategy.
+     * @return new strategy.
+     */
+    static DispatchStrategy forName(String name) {
+        switch (name) {
+            case "fitness":
+                return new FitnessDispatchStrategy();
+            case "eta":
+                return new EtaDispatchStrategy();
+            case "destination":
+                return new DestinationDispatchStrategy();
+            default:
+                try {
+                    return Class.forName(name).asSubclass(DispatchStrategy.class).getConstructor().newInstance();
+                } catch (ReflectiveOperationException | ClassCastException ex) {
+                    throw new IllegalArgumentException(String.format("Unknown dispatch strategy: %s", name), ex);
+                }
+        }
+    }
+}
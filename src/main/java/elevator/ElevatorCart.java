@@ -2,49 +2,125 @@ package elevator;
 
 import utils.CartDirection;
 
-import java.util.Comparator;
-import java.util.Set;
-import java.util.TreeSet;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
 
 /**
  * Model class of one cart used in system.
  * Its properties are current occupied floor, {@link CartDirection} where cart is heading
  * and separate sets of requests for floors below and above cart.
+ * Cart is a view of one slot of {@link CartStore}, which keeps state of every cart of system in arrays,
+ * requests sets are bitmaps indexed by floor number, so adding, checking and removing requests
+ * doesn't allocate objects.
+ * Cart also counts passengers on board, who can't exceed its capacity.
  */
 public class ElevatorCart {
 
+    //Id, floor, direction, requests amount, capacity, load, speed, dwell steps and amounts of announced
+    //destinations' words and floors of passengers on board.
+    private static final int SNAPSHOT_FIXED_SIZE = 9 * Integer.BYTES + 1;
+
     private final int id;
-    private int currentFloor;
-    private CartDirection direction;
-    private final TreeSet<Integer> upwardRequests;
-    private final TreeSet<Integer> downwardRequests;
+    private final CartStore store;
+    private final int slot;
+    private CartIndex index;
+    //Destinations of passengers assigned with destination calls who haven't boarded yet,
+    //created with first such call.
+    private BitSet announcedDestinations;
+    //Amounts of passengers on board by their destination floors, created when first passenger boards.
+    private int[] alightingAmounts;
 
     ElevatorCart(int id) {
-        this.currentFloor = 0;
-        this.direction = CartDirection.NONE;
-        this.upwardRequests = new TreeSet<>();
-        this.downwardRequests = new TreeSet<>(Comparator.reverseOrder());
+        this(id, 0);
+    }
+
+    //Cart with its own store, sized for floors from 0 to floorsAmount, it still grows if higher floor is requested.
+    ElevatorCart(int id, int floorsAmount) {
+        this(id, new ArrayCartStore(1, floorsAmount), 0);
+    }
+
+    ElevatorCart(int id, CartStore store, int slot) {
         this.id = id;
+        this.store = store;
+        this.slot = slot;
     }
 
     CartDirection getDirection() {
-        return this.direction;
+        return store.getDirection(slot);
     }
 
+    //Cart changes direction only when it stands.
     void setDirection(CartDirection direction) {
-        this.direction = direction;
+        store.setDirection(slot, direction);
+        store.setSpeed(slot, 0);
+        updateIndex();
+    }
+
+    int getSpeed() {
+        return store.getSpeed(slot);
+    }
+
+    //Stops cart on current floor, where it stays with open doors for given amount of steps.
+    void stop(int dwellSteps) {
+        store.setSpeed(slot, 0);
+        store.setDwellStepsLeft(slot, dwellSteps);
+    }
+
+    //Spends one step with open doors, returns false if cart doesn't have to wait anymore.
+    boolean dwell() {
+        int dwellStepsLeft = store.getDwellStepsLeft(slot);
+        if (dwellStepsLeft == 0) {
+            return false;
+        }
+        store.setDwellStepsLeft(slot, dwellStepsLeft - 1);
+        return true;
+    }
+
+    int getDwellStepsLeft() {
+        return store.getDwellStepsLeft(slot);
+    }
+
+    //Returns nearest floor above given one from upward requests, -1 if there is none.
+    int getNextUpRequest(int floorNumber) {
+        return store.nextSetFloor(CartStore.UPWARD_REQUESTS, slot, floorNumber + 1);
+    }
+
+    //Returns nearest floor below given one from downward requests, -1 if there is none.
+    int getNextDownRequest(int floorNumber) {
+        return store.previousSetFloor(CartStore.DOWNWARD_REQUESTS, slot, floorNumber - 1);
+    }
+
+    //Sets index which is updated each time cart changes floor or direction.
+    void setIndex(CartIndex index) {
+        this.index = index;
+        updateIndex();
+    }
+
+    private void updateIndex() {
+        if (index != null) {
+            index.update(this);
+        }
     }
 
     //Adds request to correct set basing on current floor number.
-    // Doesn't add request if current floor is same as request's
-    void addRequest(int floorNumber) {
+    // Doesn't add request if current floor is same as request's.
+    // Returns true if new request was added (false for current floor or already requested floor).
+    boolean addRequest(int floorNumber) {
 
+        boolean added = false;
+        int currentFloor = getCurrentFloor();
         if (currentFloor > floorNumber) {
-            this.downwardRequests.add(floorNumber);
+            added = store.set(CartStore.DOWNWARD_REQUESTS, slot, floorNumber);
         } else if (currentFloor < floorNumber) {
-            this.upwardRequests.add(floorNumber);
+            store.ensureFloor(floorNumber);
+            added = store.set(CartStore.UPWARD_REQUESTS, slot, floorNumber);
         }
-
+        if (added) {
+            store.addRequestsAmount(slot, 1);
+        }
+        return added;
     }
 
     int getId() {
@@ -52,77 +128,310 @@ public class ElevatorCart {
     }
 
     int getRequestsAmount() {
-        return upwardRequests.size() + downwardRequests.size();
+        return store.getRequestsAmount(slot);
     }
 
+    //Returns lowest floor from upward requests.
     int getNextUpRequest() {
-        return getNextRequest(this.upwardRequests);
+        return checkRequest(store.nextSetFloor(CartStore.UPWARD_REQUESTS, slot, 0));
     }
 
+    //Returns highest floor from downward requests.
     int getNextDownRequest() {
-        return getNextRequest(this.downwardRequests);
+        return checkRequest(store.lastSetFloor(CartStore.DOWNWARD_REQUESTS, slot));
     }
 
-    private int getNextRequest(Set<Integer> requests) {
-        return requests.iterator().next();
+    //Returns highest floor from upward requests.
+    int getLastUpRequest() {
+        return checkRequest(store.lastSetFloor(CartStore.UPWARD_REQUESTS, slot));
     }
 
-    boolean hasMoreUpRequests() {
-        return hasMoreRequests(upwardRequests);
+    //Returns lowest floor from downward requests.
+    int getLastDownRequest() {
+        return checkRequest(store.nextSetFloor(CartStore.DOWNWARD_REQUESTS, slot, 0));
     }
 
-    boolean hasMoreDownRequests() {
-        return hasMoreRequests(downwardRequests);
+    private int checkRequest(int floorNumber) {
+        if (floorNumber < 0) {
+            throw new NoSuchElementException("No more requests in this direction");
+        }
+        return floorNumber;
     }
 
-    private boolean hasMoreRequests(Set<Integer> requests) {
-        return !requests.isEmpty();
+    boolean hasMoreUpRequests() {
+        return !store.isEmpty(CartStore.UPWARD_REQUESTS, slot);
     }
 
-    //Removes next element in one of requests set (set is chosen according to cart's direction)
-    void removeNearestRequest() {
+    boolean hasMoreDownRequests() {
+        return !store.isEmpty(CartStore.DOWNWARD_REQUESTS, slot);
+    }
+
+    //Removes next element in one of requests set (set is chosen according to cart's direction).
+    //Returns true if request was removed.
+    boolean removeNearestRequest() {
+        CartDirection direction = getDirection();
         if (direction == CartDirection.UPWARDS) {
             if (hasMoreUpRequests()) {
-                upwardRequests.remove(upwardRequests.first());
-
+                store.clear(CartStore.UPWARD_REQUESTS, slot, getNextUpRequest());
+                store.addRequestsAmount(slot, -1);
+                return true;
             }
         } else if (direction == CartDirection.DOWNWARDS) {
             if (hasMoreDownRequests()) {
-                this.downwardRequests.remove(downwardRequests.first());
+                store.clear(CartStore.DOWNWARD_REQUESTS, slot, getNextDownRequest());
+                store.addRequestsAmount(slot, -1);
+                return true;
+            }
+        }
+        return false;
+    }
 
+    //Remembers destination floor of passenger assigned to cart before he boards.
+    void announceDestination(int floorNumber) {
+        if (announcedDestinations == null) {
+            announcedDestinations = new BitSet(store.getHighestFloor() + 1);
+        }
+        announcedDestinations.set(floorNumber);
+    }
+
+    //Forgets announced destination when cart stops on its floor.
+    void clearAnnouncedDestination(int floorNumber) {
+        if (announcedDestinations != null) {
+            announcedDestinations.clear(floorNumber);
+        }
+    }
+
+    //Returns highest floor which cart will visit because of requests or announced destinations, -1 if there is none.
+    int getHighestPlannedStop() {
+        int highestStop = Math.max(store.lastSetFloor(CartStore.UPWARD_REQUESTS, slot),
+                store.lastSetFloor(CartStore.DOWNWARD_REQUESTS, slot));
+        if (announcedDestinations != null) {
+            highestStop = Math.max(highestStop, announcedDestinations.length() - 1);
+        }
+        return highestStop;
+    }
+
+    //Returns lowest floor which cart will visit because of requests or announced destinations, -1 if there is none.
+    int getLowestPlannedStop() {
+        int lowestStop = getLowerStop(store.nextSetFloor(CartStore.UPWARD_REQUESTS, slot, 0),
+                store.nextSetFloor(CartStore.DOWNWARD_REQUESTS, slot, 0));
+        return announcedDestinations == null ? lowestStop
+                : getLowerStop(lowestStop, announcedDestinations.nextSetBit(0));
+    }
+
+    //Returns lower of two floors, where -1 means no floor.
+    private static int getLowerStop(int floorNumber, int otherFloorNumber) {
+        if (floorNumber < 0 || otherFloorNumber < 0) {
+            return Math.max(floorNumber, otherFloorNumber);
+        }
+        return Math.min(floorNumber, otherFloorNumber);
+    }
+
+    //Returns true if cart will stop on floor because of request or announced destination.
+    boolean isStopPlanned(int floorNumber) {
+        return store.get(CartStore.UPWARD_REQUESTS, slot, floorNumber)
+                || store.get(CartStore.DOWNWARD_REQUESTS, slot, floorNumber)
+                || announcedDestinations != null && announcedDestinations.get(floorNumber);
+    }
+
+    //Marks floor requested from inside cart, so it is served also when cart is full.
+    void addCarStop(int floorNumber) {
+        if (floorNumber != getCurrentFloor()) {
+            store.ensureFloor(floorNumber);
+            store.set(CartStore.CAR_STOPS, slot, floorNumber);
+        }
+    }
+
+    boolean isCarStop(int floorNumber) {
+        return store.get(CartStore.CAR_STOPS, slot, floorNumber);
+    }
+
+    //Adds passenger riding to given floor to load, passenger going to current floor doesn't ride at all.
+    void board(int destinationFloor) {
+        if (destinationFloor == getCurrentFloor()) {
+            return;
+        }
+        if (alightingAmounts == null || alightingAmounts.length <= destinationFloor) {
+            alightingAmounts = alightingAmounts == null
+                    ? new int[Math.max(store.getHighestFloor() + 1, destinationFloor + 1)]
+                    : Arrays.copyOf(alightingAmounts, destinationFloor + 1);
+        }
+        alightingAmounts[destinationFloor]++;
+        store.addLoad(slot, 1);
+    }
+
+    //Passengers riding to current floor leave cart, returns their amount.
+    int alight() {
+        int currentFloor = getCurrentFloor();
+        store.clear(CartStore.CAR_STOPS, slot, currentFloor);
+        if (alightingAmounts == null || alightingAmounts.length <= currentFloor) {
+            return 0;
+        }
+        int alightingAmount = alightingAmounts[currentFloor];
+        alightingAmounts[currentFloor] = 0;
+        store.addLoad(slot, -alightingAmount);
+        return alightingAmount;
+    }
+
+    //Copies destinations announced to cart and passengers on board from cart of other system.
+    void copyPassengers(ElevatorCart cart) {
+        announcedDestinations = cart.announcedDestinations == null ? null
+                : (BitSet) cart.announcedDestinations.clone();
+        alightingAmounts = cart.alightingAmounts == null ? null : cart.alightingAmounts.clone();
+    }
+
+    //Returns size of record written by writeSnapshot.
+    int getSnapshotSize() {
+        int alightingFloors = 0;
+        if (alightingAmounts != null) {
+            for (int alightingAmount : alightingAmounts) {
+                if (alightingAmount > 0) {
+                    alightingFloors++;
+                }
             }
         }
+        int announcedWords = announcedDestinations == null ? 0 : announcedDestinations.toLongArray().length;
+        return SNAPSHOT_FIXED_SIZE + CartStore.BITMAPS_AMOUNT * store.getWordsPerCart() * Long.BYTES
+                + announcedWords * Long.BYTES + alightingFloors * 2 * Integer.BYTES;
+    }
+
+    //Record starts with id, state from store and words of every bitmap, then words of announced destinations
+    //and floors of passengers on board with their amounts, both preceded by their amount.
+    void writeSnapshot(ByteBuffer buffer) {
+        buffer.putInt(id).putInt(store.getCurrentFloor(slot)).put(store.getDirectionCode(slot))
+                .putInt(store.getRequestsAmount(slot)).putInt(store.getCapacity(slot)).putInt(store.getLoad(slot))
+                .putInt(store.getSpeed(slot)).putInt(store.getDwellStepsLeft(slot));
+        for (int bitmap = 0; bitmap < CartStore.BITMAPS_AMOUNT; bitmap++) {
+            for (int word = 0; word < store.getWordsPerCart(); word++) {
+                buffer.putLong(store.getWord(bitmap, slot, word));
+            }
+        }
+        long[] announcedWords = announcedDestinations == null ? new long[0] : announcedDestinations.toLongArray();
+        buffer.putInt(announcedWords.length);
+        for (long announcedWord : announcedWords) {
+            buffer.putLong(announcedWord);
+        }
+        int amountPosition = buffer.position();
+        int alightingFloors = 0;
+        buffer.putInt(0);
+        if (alightingAmounts != null) {
+            for (int floorNumber = 0; floorNumber < alightingAmounts.length; floorNumber++) {
+                if (alightingAmounts[floorNumber] > 0) {
+                    buffer.putInt(floorNumber).putInt(alightingAmounts[floorNumber]);
+                    alightingFloors++;
+                }
+            }
+        }
+        buffer.putInt(amountPosition, alightingFloors);
+    }
+
+    //Reads record written by writeSnapshot after its id, bitmaps have given amount of words,
+    //which store has to hold already.
+    void readSnapshot(ByteBuffer buffer, int wordsPerCart) {
+        store.setCurrentFloor(slot, buffer.getInt());
+        store.setDirectionCode(slot, buffer.get());
+        store.addRequestsAmount(slot, buffer.getInt() - store.getRequestsAmount(slot));
+        store.setCapacity(slot, buffer.getInt());
+        store.addLoad(slot, buffer.getInt() - store.getLoad(slot));
+        store.setSpeed(slot, buffer.getInt());
+        store.setDwellStepsLeft(slot, buffer.getInt());
+        for (int bitmap = 0; bitmap < CartStore.BITMAPS_AMOUNT; bitmap++) {
+            for (int word = 0; word < store.getWordsPerCart(); word++) {
+                store.setWord(bitmap, slot, word, word < wordsPerCart ? buffer.getLong() : 0);
+            }
+        }
+        long[] announcedWords = new long[buffer.getInt()];
+        for (int word = 0; word < announcedWords.length; word++) {
+            announcedWords[word] = buffer.getLong();
+        }
+        announcedDestinations = announcedWords.length == 0 ? null : BitSet.valueOf(announcedWords);
+        int alightingFloors = buffer.getInt();
+        alightingAmounts = null;
+        for (int i = 0; i < alightingFloors; i++) {
+            int floorNumber = buffer.getInt();
+            if (alightingAmounts == null || alightingAmounts.length <= floorNumber) {
+                alightingAmounts = alightingAmounts == null
+                        ? new int[Math.max(store.getHighestFloor() + 1, floorNumber + 1)]
+                        : Arrays.copyOf(alightingAmounts, floorNumber + 1);
+            }
+            alightingAmounts[floorNumber] = buffer.getInt();
+        }
+        updateIndex();
+    }
+
+    /**
+     * @return maximum amount of passengers on board.
+     */
+    public int getCapacity() {
+        return store.getCapacity(slot);
+    }
+
+    /**
+     * @return amount of passengers on board.
+     */
+    public int getLoad() {
+        return store.getLoad(slot);
+    }
+
+    /**
+     * @return true if no more passengers can board.
+     */
+    public boolean isFull() {
+        return store.isFull(slot);
     }
 
     /**
      * @return current floor number.
      */
     public int getCurrentFloor() {
-        return currentFloor;
+        return store.getCurrentFloor(slot);
     }
 
 
     void moveUp() {
-        this.currentFloor++;
+        moveUp(1);
     }
 
     void moveDown() {
-        this.currentFloor--;
+        moveDown(1);
+    }
+
+    void moveUp(int floors) {
+        store.setCurrentFloor(slot, getCurrentFloor() + floors);
+        updateIndex();
+    }
+
+    void moveDown(int floors) {
+        store.setCurrentFloor(slot, getCurrentFloor() - floors);
+        updateIndex();
+    }
+
+    //Moves given amount of floors in current direction, which becomes cart's speed.
+    void move(int floors) {
+        store.setSpeed(slot, floors);
+        CartDirection direction = getDirection();
+        if (direction == CartDirection.UPWARDS) {
+            moveUp(floors);
+        } else if (direction == CartDirection.DOWNWARDS) {
+            moveDown(floors);
+        }
     }
 
     /**
      * @param currentFloor new current floor number
      */
      void setCurrentFloor(int currentFloor) {
-        this.currentFloor = currentFloor;
+        store.setCurrentFloor(slot, currentFloor);
+        updateIndex();
     }
 
     //Returns number of last floor in set corresponding to current direction.
     int getTargetFloor() {
-        if (this.direction == CartDirection.UPWARDS) {
-            return upwardRequests.first();
-        } else if (this.direction == CartDirection.DOWNWARDS) {
-            return downwardRequests.first();
+        CartDirection direction = getDirection();
+        if (direction == CartDirection.UPWARDS) {
+            return getNextUpRequest();
+        } else if (direction == CartDirection.DOWNWARDS) {
+            return getNextDownRequest();
         } else {
             return getCurrentFloor();
         }
@@ -140,14 +449,24 @@ public class ElevatorCart {
      * @return human-readable data about cart's id, direction, current and target floors.
      */
     public String toString() {
+        return appendTo(new StringBuilder()).toString();
+    }
+
+    /**
+     * Appends same data as {@link #toString()} without creating intermediate strings.
+     *
+     * @param sb builder to append to.
+     * @return given builder.
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
         String directionChar = "-";
         if (this.getDirection() == CartDirection.DOWNWARDS) {
             directionChar = "\\/";
         } else if (this.getDirection() == CartDirection.UPWARDS) {
             directionChar = "/\\";
         }
-        return String.format("{[C%d][%s]CF: %d, TF: %d}"
-                , getId(), directionChar, this.currentFloor, this.getTargetFloor());
+        return sb.append("{[C").append(getId()).append("][").append(directionChar)
+                .append("]CF: ").append(getCurrentFloor()).append(", TF: ").append(this.getTargetFloor()).append('}');
     }
 
 }
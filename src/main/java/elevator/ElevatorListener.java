@@ -0,0 +1,55 @@
+package elevator;
+
+import utils.CartDirection;
+
+/**
+ * Listener notified by {@link ElevatorSystem} about what carts do during steps.
+ * Events are passed as primitive arguments, so notifying listeners doesn't allocate objects.
+ * Steps are numbered from 1, event of step n happens when {@link ElevatorSystem#getStepsMade()} goes from n - 1 to n.
+ * When parallel stepping is enabled listeners are called from worker threads, concurrently for different carts,
+ * while events of one cart are still delivered in order.
+ */
+public interface ElevatorListener {
+
+    /**
+     * Called when cart stops on floor and serves request for it.
+     *
+     * @param step        number of step in which request was served.
+     * @param cartId      id of cart.
+     * @param floorNumber number of floor on which cart stopped.
+     */
+    default void onStopServed(int step, int cartId, int floorNumber) {
+    }
+
+    /**
+     * Called when cart changes its direction, also when it becomes idle.
+     *
+     * @param step              number of step in which direction was changed.
+     * @param cartId            id of cart.
+     * @param previousDirection direction before change.
+     * @param direction         new direction.
+     */
+    default void onDirectionChanged(int step, int cartId, CartDirection previousDirection, CartDirection direction) {
+    }
+
+    /**
+     * Called when cart has no more requests and stops on floor, after {@link #onDirectionChanged}.
+     *
+     * @param step        number of step in which cart became idle.
+     * @param cartId      id of cart.
+     * @param floorNumber number of floor on which cart stays.
+     */
+    default void onIdle(int step, int cartId, int floorNumber) {
+    }
+
+    /**
+     * Called when full cart passes floor with hall call assigned to it without stopping, as nobody can board.
+     * Call is removed from cart, so passengers waiting for it have to call again.
+     *
+     * @param step        number of step in which cart passed the floor.
+     * @param cartId      id of cart.
+     * @param floorNumber number of floor with call.
+     */
+    default void onCallBypassed(int step, int cartId, int floorNumber) {
+    }
+}
@@ -0,0 +1,364 @@
+package elevator;
+
+import utils.CartDirection;
+import utils.Histogram;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Metrics of one {@link ElevatorSystem}, enabled with {@link ElevatorSystem#enableMetrics()}.
+ * Records how long hall calls wait for carts and how long rides take (both in steps),
+ * how long choosing cart takes and how much each cart is used.
+ * Memory used by histograms is fixed, calls waiting for carts are kept in arrays reused after calls are served,
+ * so recording doesn't allocate objects once arrays are big enough.
+ * Events of each cart come from one thread at a time, also when carts are stepped in parallel, so counters
+ * of carts and calls waiting for them aren't locked - only histograms shared by all carts are.
+ * Can be read from other threads with {@link #getSnapshot()} or registered as MXBean.
+ */
+public class ElevatorMetrics implements ElevatorListener, ElevatorMetricsMXBean {
+
+    private static final int NO_ENTRY = -1;
+    private static final int NOT_BUSY = -1;
+
+    private final ElevatorSystem elevatorSystem;
+
+    //Histograms are shared by carts and guarded by this object's lock.
+    private final Histogram waitSteps;
+    private final Histogram rideSteps;
+    private final Histogram dispatchNanos;
+
+    //Counters of carts are written only by thread handling cart's events and are never reset,
+    //so other threads read them atomically without lock. Reset stores their values, which are subtracted later.
+    private final AtomicLongArray busySteps;
+    private final AtomicLongArray floorsTravelled;
+    private final AtomicLongArray directionReversals;
+    private final AtomicLongArray stops;
+    //Step from which cart isn't idle, or NOT_BUSY.
+    private final AtomicIntegerArray busySince;
+    //Floor on which cart was during its last event.
+    private final int[] lastFloors;
+    private final PendingRequests[] pendingRequests;
+
+    //Values of counters when metrics were reset, guarded by this object's lock.
+    private final long[] resetBusySteps;
+    private final long[] resetFloorsTravelled;
+    private final long[] resetDirectionReversals;
+    private final long[] resetStops;
+
+    private ObjectName objectName;
+
+    ElevatorMetrics(ElevatorSystem elevatorSystem) {
+        int cartsAmount = elevatorSystem.getCartsAmount();
+        this.elevatorSystem = elevatorSystem;
+        this.waitSteps = new Histogram();
+        this.rideSteps = new Histogram();
+        this.dispatchNanos = new Histogram();
+        this.busySteps = new AtomicLongArray(cartsAmount);
+        this.floorsTravelled = new AtomicLongArray(cartsAmount);
+        this.directionReversals = new AtomicLongArray(cartsAmount);
+        this.stops = new AtomicLongArray(cartsAmount);
+        this.busySince = new AtomicIntegerArray(cartsAmount);
+        this.lastFloors = new int[cartsAmount];
+        this.pendingRequests = new PendingRequests[cartsAmount];
+        for (ElevatorCart cart : elevatorSystem.getCartsList()) {
+            busySince.set(cart.getId(), cart.isIdle() ? NOT_BUSY : elevatorSystem.getStepsMade());
+            lastFloors[cart.getId()] = cart.getCurrentFloor();
+            pendingRequests[cart.getId()] = new PendingRequests();
+        }
+        this.resetBusySteps = new long[cartsAmount];
+        this.resetFloorsTravelled = new long[cartsAmount];
+        this.resetDirectionReversals = new long[cartsAmount];
+        this.resetStops = new long[cartsAmount];
+    }
+
+    //Called after cart was assigned to hall call, with time spent on choosing it.
+    void onCall(int step, int cartId, int floorNumber, long nanos) {
+        synchronized (this) {
+            dispatchNanos.record(nanos);
+        }
+        addEntry(step, cartId, floorNumber, false);
+    }
+
+    //Called after passenger in cart chose destination floor.
+    void onDestinationRequest(int step, int cartId, int floorNumber) {
+        addEntry(step, cartId, floorNumber, true);
+    }
+
+    //Request for floor on which cart is isn't added to cart, so it is served at once.
+    private void addEntry(int step, int cartId, int floorNumber, boolean ride) {
+        if (elevatorSystem.getCartsList().get(cartId).getCurrentFloor() == floorNumber) {
+            recordServed(ride, 0);
+            return;
+        }
+        pendingRequests[cartId].add(step, floorNumber, ride);
+    }
+
+    private synchronized void recordServed(boolean ride, long steps) {
+        (ride ? rideSteps : waitSteps).record(steps);
+    }
+
+    @Override
+    public void onStopServed(int step, int cartId, int floorNumber) {
+        moveTo(cartId, floorNumber);
+        increment(stops, cartId, 1);
+        removeEntries(step, cartId, floorNumber, true);
+    }
+
+    //Call passed by full cart isn't served, passengers make new calls for which they wait again.
+    @Override
+    public void onCallBypassed(int step, int cartId, int floorNumber) {
+        removeEntries(step, cartId, floorNumber, false);
+    }
+
+    //Removes entries of cart for given floor, recording their steps if they were served.
+    private void removeEntries(int step, int cartId, int floorNumber, boolean served) {
+        PendingRequests requests = pendingRequests[cartId];
+        int previousEntry = NO_ENTRY;
+        int entry = requests.firstEntry;
+        while (entry != NO_ENTRY) {
+            int nextEntry = requests.nextEntries[entry];
+            if (requests.entryFloors[entry] == floorNumber) {
+                if (served) {
+                    recordServed(requests.entryRides[entry], step - requests.entrySteps[entry]);
+                }
+                requests.remove(previousEntry, entry);
+            } else {
+                previousEntry = entry;
+            }
+            entry = nextEntry;
+        }
+    }
+
+    @Override
+    public void onDirectionChanged(int step, int cartId, CartDirection previousDirection, CartDirection direction) {
+        moveTo(cartId, elevatorSystem.getCartsList().get(cartId).getCurrentFloor());
+        if (previousDirection == CartDirection.NONE) {
+            busySince.lazySet(cartId, step);
+        } else if (direction == CartDirection.NONE) {
+            if (busySince.get(cartId) != NOT_BUSY) {
+                increment(busySteps, cartId, step - busySince.get(cartId));
+            }
+            busySince.lazySet(cartId, NOT_BUSY);
+        } else {
+            increment(directionReversals, cartId, 1);
+        }
+    }
+
+    //Cart moves in one direction between events, so floors travelled are counted from floors of events.
+    private void moveTo(int cartId, int floorNumber) {
+        increment(floorsTravelled, cartId, Math.abs(floorNumber - lastFloors[cartId]));
+        lastFloors[cartId] = floorNumber;
+    }
+
+    //Counter has one writer, so it is increased without compare-and-set.
+    private static void increment(AtomicLongArray counters, int cartId, long amount) {
+        counters.lazySet(cartId, counters.get(cartId) + amount);
+    }
+
+    /**
+     * Copies current metrics. Steps made by elevator system at the same time may be not included.
+     *
+     * @return snapshot of metrics.
+     */
+    public synchronized MetricsSnapshot getSnapshot() {
+        int stepsMade = elevatorSystem.getStepsMade();
+        long[] currentBusySteps = getBusySteps(stepsMade);
+        long[] currentFloorsTravelled = new long[lastFloors.length];
+        long[] currentDirectionReversals = new long[lastFloors.length];
+        long[] currentStops = new long[lastFloors.length];
+        for (int cartId = 0; cartId < lastFloors.length; cartId++) {
+            currentBusySteps[cartId] -= resetBusySteps[cartId];
+            currentFloorsTravelled[cartId] = floorsTravelled.get(cartId) - resetFloorsTravelled[cartId];
+            currentDirectionReversals[cartId] = directionReversals.get(cartId) - resetDirectionReversals[cartId];
+            currentStops[cartId] = stops.get(cartId) - resetStops[cartId];
+        }
+        return new MetricsSnapshot(stepsMade, waitSteps.copy(), rideSteps.copy(), dispatchNanos.copy(),
+                currentBusySteps, currentFloorsTravelled, currentDirectionReversals, currentStops);
+    }
+
+    //Returns steps of every cart in which it wasn't idle until given step, counted from creation of metrics.
+    private long[] getBusySteps(int stepsMade) {
+        long[] currentBusySteps = new long[lastFloors.length];
+        for (int cartId = 0; cartId < currentBusySteps.length; cartId++) {
+            int cartBusySince = busySince.get(cartId);
+            currentBusySteps[cartId] = busySteps.get(cartId);
+            if (cartBusySince != NOT_BUSY) {
+                currentBusySteps[cartId] += Math.max(stepsMade - cartBusySince, 0);
+            }
+        }
+        return currentBusySteps;
+    }
+
+    /**
+     * Registers metrics in platform MBean server.
+     *
+     * @param name value of name key in object name, which domain is "elevator" and type is "ElevatorMetrics".
+     * @return name under which metrics were registered.
+     * @throws JMException when metrics couldn't be registered, e.g. name is already used.
+     */
+    public synchronized ObjectName registerMBean(String name) throws JMException {
+        unregisterMBean();
+        ObjectName newObjectName = new ObjectName("elevator:type=ElevatorMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, newObjectName);
+        objectName = newObjectName;
+        return objectName;
+    }
+
+    /**
+     * Unregisters metrics from platform MBean server, if they were registered.
+     *
+     * @throws JMException when metrics couldn't be unregistered.
+     */
+    public synchronized void unregisterMBean() throws JMException {
+        if (objectName != null) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            objectName = null;
+        }
+    }
+
+    @Override
+    public synchronized void reset() {
+        waitSteps.reset();
+        rideSteps.reset();
+        dispatchNanos.reset();
+        System.arraycopy(getBusySteps(elevatorSystem.getStepsMade()), 0, resetBusySteps, 0, resetBusySteps.length);
+        for (int cartId = 0; cartId < lastFloors.length; cartId++) {
+            resetFloorsTravelled[cartId] = floorsTravelled.get(cartId);
+            resetDirectionReversals[cartId] = directionReversals.get(cartId);
+            resetStops[cartId] = stops.get(cartId);
+        }
+    }
+
+    @Override
+    public int getStepsMade() {
+        return elevatorSystem.getStepsMade();
+    }
+
+    @Override
+    public synchronized long getServedCallsAmount() {
+        return waitSteps.getCount();
+    }
+
+    @Override
+    public synchronized double getMeanWaitSteps() {
+        return waitSteps.getMean();
+    }
+
+    @Override
+    public synchronized long getWaitSteps99() {
+        return waitSteps.getValueAtPercentile(99);
+    }
+
+    @Override
+    public synchronized long getMaxWaitSteps() {
+        return waitSteps.getMax();
+    }
+
+    @Override
+    public synchronized long getFinishedRidesAmount() {
+        return rideSteps.getCount();
+    }
+
+    @Override
+    public synchronized double getMeanRideSteps() {
+        return rideSteps.getMean();
+    }
+
+    @Override
+    public synchronized long getRideSteps99() {
+        return rideSteps.getValueAtPercentile(99);
+    }
+
+    @Override
+    public synchronized long getMaxRideSteps() {
+        return rideSteps.getMax();
+    }
+
+    @Override
+    public synchronized double getMeanDispatchNanos() {
+        return dispatchNanos.getMean();
+    }
+
+    @Override
+    public synchronized long getDispatchNanos99() {
+        return dispatchNanos.getValueAtPercentile(99);
+    }
+
+    @Override
+    public double getMeanUtilisation() {
+        return getSnapshot().getMeanUtilisation();
+    }
+
+    @Override
+    public long getFloorsTravelled() {
+        return getSnapshot().getFloorsTravelled();
+    }
+
+    @Override
+    public long getDirectionReversals() {
+        return getSnapshot().getDirectionReversals();
+    }
+
+    @Override
+    public long getStops() {
+        return getSnapshot().getStops();
+    }
+
+    //Hall calls and destination requests of one cart not served yet, kept as linked list.
+    //Entries are stored in arrays, removed entries are linked into free list and reused.
+    private static class PendingRequests {
+
+        private int firstEntry = NO_ENTRY;
+        private int[] entryFloors = new int[0];
+        private int[] entrySteps = new int[0];
+        private boolean[] entryRides = new boolean[0];
+        private int[] nextEntries = new int[0];
+        private int firstFreeEntry = NO_ENTRY;
+
+        void add(int step, int floorNumber, boolean ride) {
+            if (firstFreeEntry == NO_ENTRY) {
+                grow();
+            }
+            int entry = firstFreeEntry;
+            firstFreeEntry = nextEntries[entry];
+            entryFloors[entry] = floorNumber;
+            entrySteps[entry] = step;
+            entryRides[entry] = ride;
+            nextEntries[entry] = firstEntry;
+            firstEntry = entry;
+        }
+
+        //Unlinks entry following previous one (or first entry) and links it into free list.
+        void remove(int previousEntry, int entry) {
+            if (previousEntry == NO_ENTRY) {
+                firstEntry = nextEntries[entry];
+            } else {
+                nextEntries[previousEntry] = nextEntries[entry];
+            }
+            nextEntries[entry] = firstFreeEntry;
+            firstFreeEntry = entry;
+        }
+
+        private void grow() {
+            int oldLength = nextEntries.length;
+            int newLength = Math.max(oldLength * 2, 4);
+            entryFloors = Arrays.copyOf(entryFloors, newLength);
+            entrySteps = Arrays.copyOf(entrySteps, newLength);
+            entryRides = Arrays.copyOf(entryRides, newLength);
+            nextEntries = Arrays.copyOf(nextEntries, newLength);
+            for (int entry = oldLength; entry < newLength; entry++) {
+                nextEntries[entry] = entry + 1 < newLength ? entry + 1 : firstFreeEntry;
+            }
+            firstFreeEntry = oldLength;
+        }
+    }
+}
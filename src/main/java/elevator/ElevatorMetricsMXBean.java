@@ -0,0 +1,42 @@
+package elevator;
+
+/**
+ * Management interface of {@link ElevatorMetrics}, times are in steps unless name says otherwise.
+ */
+public interface ElevatorMetricsMXBean {
+
+    int getStepsMade();
+
+    long getServedCallsAmount();
+
+    double getMeanWaitSteps();
+
+    long getWaitSteps99();
+
+    long getMaxWaitSteps();
+
+    long getFinishedRidesAmount();
+
+    double getMeanRideSteps();
+
+    long getRideSteps99();
+
+    long getMaxRideSteps();
+
+    double getMeanDispatchNanos();
+
+    long getDispatchNanos99();
+
+    double getMeanUtilisation();
+
+    long getFloorsTravelled();
+
+    long getDirectionReversals();
+
+    long getStops();
+
+    /**
+     * Removes everything recorded so far, calls waiting for carts are still tracked.
+     */
+    void reset();
+}
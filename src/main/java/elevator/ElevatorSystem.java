@@ -3,189 +3,824 @@ package elevator;
 import utils.CartDirection;
 import utils.RequestDirection;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 
 /**
  * Class responsible for controlling every cart in elevator.
  * Contains information about floors and carts amount.
- * Operates on list of {@link ElevatorCart}.
+ * Operates on list of {@link ElevatorCart}, whose state is kept in arrays of {@link CartStore},
+ * so steps and dispatch scan carts' state sequentially.
  */
 public class ElevatorSystem {
 
+    /**
+     * Capacity of carts which never get full.
+     */
+    public static final int UNLIMITED_CAPACITY = Integer.MAX_VALUE;
+
     private final int cartsAmount;
     private final int floorsAmount;
 
     private final List<ElevatorCart> cartsList;
+    private final CartStore cartStore;
+    private final CartIndex cartIndex;
+    private final DispatchStrategy dispatchStrategy;
+    private final MotionModel motionModel;
+    //Steps of ride between stops for each distance, as given by motion model.
+    private final int[] travelSteps;
+
+    //Amount of currently active requests in every cart, kept up to date with each added or removed request.
+    private int requestsAmount;
+
+    //Pool used to make steps of carts in parallel, null when steps are made sequentially.
+    private ForkJoinPool stepPool;
+    private int sequentialStepThreshold;
+
+    private int stepsMade;
+    private TraceWriter traceWriter;
+
+    //Kept as array replaced on each change, so notifying listeners doesn't allocate iterators.
+    private ElevatorListener[] listeners = new ElevatorListener[0];
+    private ElevatorMetrics metrics;
+    private ParkingPolicy parkingPolicy;
+    //Bitmap of carts whose state changed since last snapshot, null when changes are not tracked.
+    private long[] changedCarts;
 
     public ElevatorSystem(int cartsAmount, int floorsAmount) {
+        this(cartsAmount, floorsAmount, new FitnessDispatchStrategy());
+    }
+
+    /**
+     * @param cartsAmount      amount of carts in elevator.
+     * @param floorsAmount     amount of floors in building.
+     * @param dispatchStrategy strategy choosing carts for hall calls.
+     */
+    public ElevatorSystem(int cartsAmount, int floorsAmount, DispatchStrategy dispatchStrategy) {
+        this(cartsAmount, floorsAmount, dispatchStrategy, UNLIMITED_CAPACITY);
+    }
+
+    /**
+     * @param cartsAmount      amount of carts in elevator.
+     * @param floorsAmount     amount of floors in building.
+     * @param dispatchStrategy strategy choosing carts for hall calls.
+     * @param cartCapacity     maximum amount of passengers boarded with {@link #boardPassenger(int, int)}
+     *                         riding in one cart.
+     */
+    public ElevatorSystem(int cartsAmount, int floorsAmount, DispatchStrategy dispatchStrategy, int cartCapacity) {
+        this(cartsAmount, floorsAmount, dispatchStrategy, cartCapacity, MotionModel.DEFAULT);
+    }
+
+    /**
+     * @param cartsAmount      amount of carts in elevator.
+     * @param floorsAmount     amount of floors in building.
+     * @param dispatchStrategy strategy choosing carts for hall calls.
+     * @param cartCapacity     maximum amount of passengers boarded with {@link #boardPassenger(int, int)}
+     *                         riding in one cart.
+     * @param motionModel      speed, acceleration and door dwell of carts.
+     */
+    public ElevatorSystem(int cartsAmount, int floorsAmount, DispatchStrategy dispatchStrategy, int cartCapacity,
+                          MotionModel motionModel) {
+        this(withCapacity(new ArrayCartStore(cartsAmount, floorsAmount), cartCapacity), floorsAmount,
+                dispatchStrategy, motionModel);
+    }
+
+    /**
+     * Creates system whose carts' state is kept outside of heap, in direct buffer, so heap used by system
+     * doesn't depend on amount of floors. Floors above floorsAmount can't be requested.
+     *
+     * @param cartsAmount      amount of carts in elevator.
+     * @param floorsAmount     amount of floors in building.
+     * @param dispatchStrategy strategy choosing carts for hall calls.
+     * @return system with idle carts on floor 0.
+     */
+    public static ElevatorSystem offHeap(int cartsAmount, int floorsAmount, DispatchStrategy dispatchStrategy) {
+        return new ElevatorSystem(BufferCartStore.allocateDirect(cartsAmount, floorsAmount), floorsAmount,
+                dispatchStrategy, MotionModel.DEFAULT);
+    }
+
+    /**
+     * Creates system whose carts' state is kept in memory-mapped file, from which it can be resumed
+     * with {@link #resume(Path, DispatchStrategy)}, e.g. after crash. Floors above floorsAmount can't be requested.
+     *
+     * @param file             path of file, existing file is overwritten.
+     * @param cartsAmount      amount of carts in elevator.
+     * @param floorsAmount     amount of floors in building.
+     * @param dispatchStrategy strategy choosing carts for hall calls.
+     * @return system with idle carts on floor 0.
+     * @throws IOException when file can't be created.
+     */
+    public static ElevatorSystem mapped(Path file, int cartsAmount, int floorsAmount,
+                                       DispatchStrategy dispatchStrategy) throws IOException {
+        return new ElevatorSystem(BufferCartStore.create(file, cartsAmount, floorsAmount), floorsAmount,
+                dispatchStrategy, MotionModel.DEFAULT);
+    }
+
+    /**
+     * Resumes system from file created with {@link #mapped(Path, int, int, DispatchStrategy)}. Carts keep
+     * floors, directions, requests and steps made from file, which is still updated by resumed system.
+     * Passengers on board aren't kept in file, so carts are resumed empty.
+     *
+     * @param file             path of file.
+     * @param dispatchStrategy strategy choosing carts for hall calls.
+     * @return system in state written to file.
+     * @throws IOException when file can't be read or isn't a file of carts' state.
+     */
+    public static ElevatorSystem resume(Path file, DispatchStrategy dispatchStrategy) throws IOException {
+        BufferCartStore cartStore = BufferCartStore.open(file);
+        for (int slot = 0; slot < cartStore.getCartsAmount(); slot++) {
+            cartStore.addLoad(slot, -cartStore.getLoad(slot));
+        }
+        return new ElevatorSystem(cartStore, cartStore.getFloorsAmount(), dispatchStrategy, MotionModel.DEFAULT);
+    }
 
+    private static CartStore withCapacity(CartStore cartStore, int cartCapacity) {
+        if (cartCapacity < 1) {
+            throw new IllegalArgumentException(String.format("Cart capacity has to be positive, got %d",
+                    cartCapacity));
+        }
+        for (int slot = 0; slot < cartStore.getCartsAmount(); slot++) {
+            cartStore.setCapacity(slot, cartCapacity);
+        }
+        return cartStore;
+    }
+
+    //Carts and steps made are taken from store, which can already hold state of running system.
+    ElevatorSystem(CartStore cartStore, int floorsAmount, DispatchStrategy dispatchStrategy,
+                   MotionModel motionModel) {
+        int cartsAmount = cartStore.getCartsAmount();
+        this.dispatchStrategy = dispatchStrategy;
+        this.motionModel = motionModel;
+        this.travelSteps = new int[floorsAmount + 1];
+        for (int floors = 0; floors <= floorsAmount; floors++) {
+            travelSteps[floors] = motionModel.getTravelSteps(floors);
+        }
         this.cartsList = new ArrayList<>();
         this.floorsAmount = floorsAmount;
         this.cartsAmount = cartsAmount;
 
+        this.cartIndex = new CartIndex(cartsAmount, floorsAmount);
+        this.cartStore = cartStore;
+        this.stepsMade = cartStore.getStepsMade();
+
+        for (int i = 0; i < cartsAmount; i++) {
+            ElevatorCart cart = new ElevatorCart(i, cartStore, i);
+            cart.setIndex(cartIndex);
+            cartsList.add(cart);
+        }
+        countRequests();
+
+    }
+
+    private void countRequests() {
+        requestsAmount = 0;
+        for (int slot = 0; slot < cartsAmount; slot++) {
+            requestsAmount += cartStore.getRequestsAmount(slot);
+        }
+    }
+
+    /**
+     * Creates independent copy of system, in same state and with same carts' passengers, for exploring
+     * other scenarios from current state. State of carts is copied in a few array copies, even for system
+     * whose state is kept outside of heap. Parking policy is copied with its counted calls and parking carts,
+     * listeners, metrics and trace writer are not copied.
+     *
+     * @param dispatchStrategy strategy choosing carts for hall calls in copy.
+     * @return copy of system, with carts' state kept on heap.
+     */
+    public ElevatorSystem fork(DispatchStrategy dispatchStrategy) {
+        ElevatorSystem fork = new ElevatorSystem(cartStore.copy(), floorsAmount, dispatchStrategy, motionModel);
         for (int i = 0; i < cartsAmount; i++) {
-            cartsList.add(new ElevatorCart(i));
+            fork.cartsList.get(i).copyPassengers(cartsList.get(i));
+        }
+        if (parkingPolicy != null) {
+            fork.parkingPolicy = parkingPolicy.copy();
+        }
+        return fork;
+    }
+
+    //Sets steps made and requests amount after carts' state was read from snapshot.
+    void restored(int stepsMade) {
+        this.stepsMade = stepsMade;
+        cartStore.setStepsMade(stepsMade);
+        countRequests();
+    }
+
+    //Starts or stops tracking carts changed since last snapshot.
+    void trackChanges(boolean tracking) {
+        changedCarts = tracking ? new long[CartStore.getWordsAmount(cartsAmount)] : null;
+    }
+
+    //Returns bitmap of carts changed since last call and starts collecting next changes.
+    long[] takeChangedCarts() {
+        long[] changed = changedCarts;
+        changedCarts = new long[changed.length];
+        return changed;
+    }
+
+    private void markChanged(int cartId) {
+        if (changedCarts != null) {
+            changedCarts[cartId >> 6] |= 1L << cartId;
         }
+    }
 
+    //Carts which aren't resting can change in next steps, resting ones stay the same until they get request.
+    private void markMovingCarts() {
+        if (changedCarts != null) {
+            for (int i = 0; i < cartsAmount; i++) {
+                if (!cartStore.isResting(i)) {
+                    changedCarts[i >> 6] |= 1L << i;
+                }
+            }
+        }
     }
 
     /**
-     * Responsible for assigning cart with most suitable distance from floor where
+     * Responsible for assigning cart chosen by {@link DispatchStrategy} to call from floor where
      * button was pressed.
      *
      * @param floorNumber      number of floor where passenger pressed the button.
      * @param requestDirection direction choosed by passenger (up or down).
      * @return id of cart assigned to request.
+     * @throws IllegalArgumentException if floor is outside building.
      */
     public int requestCart(int floorNumber, RequestDirection requestDirection) {
+        checkFloor(floorNumber);
 
-        ElevatorCart requestedCart = findMostSuitableCart(floorNumber, requestDirection);
+        long dispatchStart = metrics != null ? System.nanoTime() : 0;
+        int cartId = dispatchStrategy.chooseCart(this, floorNumber, requestDirection);
 
-        requestedCart.addRequest(floorNumber);
-
-        return cartsList.indexOf(requestedCart);
+        assignCall(cartId, floorNumber, requestDirection, metrics != null ? System.nanoTime() - dispatchStart : 0);
+        return cartId;
     }
 
+    /**
+     * Responsible for assigning cart to destination call, in which passenger gives both floor where he is
+     * and floor to which he wants to ride. Cart is chosen by {@link DispatchStrategy}, which can group passengers
+     * with same destinations in one cart. Passenger still makes destination request after boarding.
+     *
+     * @param floorNumber      number of floor where passenger made the call.
+     * @param destinationFloor number of floor to which passenger wants to ride.
+     * @return id of cart assigned to request.
+     * @throws IllegalArgumentException if either floor is outside building or passenger is already on destination.
+     */
+    public int requestCart(int floorNumber, int destinationFloor) {
+        checkFloor(floorNumber);
+        checkFloor(destinationFloor);
+        if (floorNumber == destinationFloor) {
+            throw new IllegalArgumentException(String.format("Passenger is already on floor %d", floorNumber));
+        }
 
-    //Calculates metric for chosen cart, based on floor and direction where call was made.
-    private int getCartFitness(ElevatorCart elevatorCart, int requestFloorNumber, RequestDirection requestDirection) {
+        long dispatchStart = metrics != null ? System.nanoTime() : 0;
+        int cartId = dispatchStrategy.chooseCart(this, floorNumber, destinationFloor);
 
-        if (isCartRelativelyBusy(elevatorCart)) {
-            return getBusyFitness();
+        cartsList.get(cartId).announceDestination(destinationFloor);
+        if (metrics != null) {
+            metrics.onCall(stepsMade, cartId, floorNumber, System.nanoTime() - dispatchStart);
         }
+        if (parkingPolicy != null) {
+            parkingPolicy.recordCall(stepsMade, floorNumber, destinationFloor > floorNumber
+                    ? RequestDirection.UPWARDS : RequestDirection.DOWNWARDS);
+        }
+        addRequest(cartsList.get(cartId), floorNumber);
 
-        if (elevatorCart.isIdle()) {
+        if (traceWriter != null) {
+            traceWriter.recordDestinationCall(stepsMade, floorNumber, destinationFloor, cartId);
+        }
+        return cartId;
+    }
 
-            return getIdleOrSameDirectionFitness(elevatorCart.getCurrentFloor(), requestFloorNumber);
+    private void checkFloor(int floorNumber) {
+        if (floorNumber < 0 || floorNumber > floorsAmount) {
+            throw new IllegalArgumentException(String.format("There is no floor %d", floorNumber));
+        }
+    }
 
-        } else if (isCartTowardsCall(elevatorCart.getCurrentFloor(), elevatorCart.getDirection(), requestFloorNumber)) {
+    /**
+     * Assigns carts to many calls at once, with same result as calling {@link #requestCart(int, RequestDirection)}
+     * for each call in given order. Default strategy searches its index of carts for each call and,
+     * when some call has to check every cart, reads state of carts once for the rest of batch.
+     *
+     * @param floorNumbers      numbers of floors where passengers pressed the button.
+     * @param requestDirections directions choosed by passengers, one for each floor number.
+     * @return ids of carts assigned to requests, in order of calls.
+     * @throws IllegalArgumentException if arrays differ in length or some floor is outside building,
+     *                                  no call is assigned then.
+     */
+    public int[] requestCarts(int[] floorNumbers, RequestDirection[] requestDirections) {
+        if (floorNumbers.length != requestDirections.length) {
+            throw new IllegalArgumentException(String.format("Got %d floor numbers and %d directions",
+                    floorNumbers.length, requestDirections.length));
+        }
+        for (int floorNumber : floorNumbers) {
+            checkFloor(floorNumber);
+        }
+        return dispatchStrategy.requestCarts(this, floorNumbers, requestDirections);
+    }
 
-            if (areCartAndRequestDirectionsEqual(elevatorCart.getDirection(), requestDirection)) {
+    //Adds call's floor to requests of cart chosen for it, dispatchNanos is time spent on choosing cart.
+    void assignCall(int cartId, int floorNumber, RequestDirection requestDirection, long dispatchNanos) {
+        if (metrics != null) {
+            metrics.onCall(stepsMade, cartId, floorNumber, dispatchNanos);
+        }
+        if (parkingPolicy != null) {
+            parkingPolicy.recordCall(stepsMade, floorNumber, requestDirection);
+        }
+        addRequest(cartsList.get(cartId), floorNumber);
 
-                return getIdleOrSameDirectionFitness(elevatorCart.getCurrentFloor(), requestFloorNumber);
+        if (traceWriter != null) {
+            traceWriter.recordCall(stepsMade, floorNumber, requestDirection, cartId);
+        }
+    }
 
-            } else {
+    //Adds request to cart and updates amount of active requests in system.
+    //Every request, announced destination and boarding passes here, so cart is marked as changed here.
+    private void addRequest(ElevatorCart cart, int floorNumber) {
+        markChanged(cart.getId());
+        if (cart.addRequest(floorNumber)) {
+            requestsAmount++;
+        }
+    }
 
-                return getOppositeDirectionFitness(elevatorCart.getCurrentFloor(), requestFloorNumber);
+    /**
+     * Responsible for choosing floor when passenger is inside cart.
+     *
+     * @param cartId      id of cart whose requests list is being changed
+     * @param floorNumber number of passenger's destination floor.
+     * @throws IllegalArgumentException if floor is outside building.
+     */
+    public void makeDestinationRequest(int cartId, int floorNumber) {
+        checkFloor(floorNumber);
+        addDestinationRequest(cartsList.get(cartId), floorNumber);
+        if (traceWriter != null) {
+            traceWriter.recordDestination(stepsMade, cartId, floorNumber);
+        }
+    }
 
+    /**
+     * Boards passenger into cart standing on his floor, if cart isn't full, and makes request for his
+     * destination floor. Passenger is counted in cart's load until cart stops on destination floor.
+     *
+     * @param cartId           id of cart.
+     * @param destinationFloor number of passenger's destination floor.
+     * @return false if cart is full and passenger couldn't board.
+     * @throws IllegalArgumentException if destination floor is outside building.
+     */
+    public boolean boardPassenger(int cartId, int destinationFloor) {
+        checkFloor(destinationFloor);
+        ElevatorCart cart = cartsList.get(cartId);
+        if (cart.isFull()) {
+            return false;
+        }
+        cart.board(destinationFloor);
+        addDestinationRequest(cart, destinationFloor);
+        if (traceWriter != null) {
+            traceWriter.recordBoarding(stepsMade, cartId, destinationFloor);
+        }
+        return true;
+    }
+
+    private void addDestinationRequest(ElevatorCart cart, int floorNumber) {
+        if (metrics != null) {
+            metrics.onDestinationRequest(stepsMade, cart.getId(), floorNumber);
+        }
+        cart.addCarStop(floorNumber);
+        addRequest(cart, floorNumber);
+    }
+
+
+    /**
+     * Responsible for simulating one step for each cart.
+     * Each cart with open doors stays on its floor, other carts move up/down as given by {@link MotionModel}
+     * (by default zero or one floors) and change direction if they have to.
+     * When parallel stepping is enabled carts are split between worker threads, with same result
+     * as stepping them sequentially.
+     */
+    public void makeStep() {
+        markMovingCarts();
+        if (parkingPolicy != null) {
+            moveParkingCarts(stepsMade + 1);
+        }
+        if (stepPool != null && cartsAmount >= sequentialStepThreshold) {
+            cartIndex.setTracking(false);
+            try {
+                requestsAmount -= stepPool.invoke(new StepTask(this, 0, cartsAmount, stepsMade + 1));
+            } finally {
+                cartIndex.setTracking(true);
+                cartIndex.updateAll(cartsList);
             }
         } else {
+            requestsAmount -= makeStep(0, cartsAmount, stepsMade + 1);
+        }
+        stepsMade(1);
+    }
 
-            return getAwayFromRequestFitness();
+    /**
+     * Gives same result as calling {@link #makeStep()} given amount of times, but moves carts
+     * between requested floors at once instead of floor by floor.
+     * With other than default {@link MotionModel} or with parking steps are still made one by one.
+     *
+     * @param steps amount of steps to make.
+     */
+    public void makeSteps(int steps) {
+        markMovingCarts();
+        if (!motionModel.isDefault() || parkingPolicy != null) {
+            for (int i = 1; i <= steps; i++) {
+                if (parkingPolicy != null) {
+                    moveParkingCarts(stepsMade + i);
+                }
+                requestsAmount -= makeStep(0, cartsAmount, stepsMade + i);
+            }
+        } else {
+            for (int i = 0; i < cartsAmount; i++) {
+                if (!cartStore.isResting(i)) {
+                    requestsAmount -= makeSteps(cartsList.get(i), steps);
+                }
+            }
+        }
+        stepsMade(steps);
+    }
 
+    private void stepsMade(int steps) {
+        if (traceWriter != null) {
+            traceWriter.recordSteps(stepsMade, steps);
         }
+        stepsMade += steps;
+        cartStore.setStepsMade(stepsMade);
     }
 
-    //Returns true if cart has more than 0 requests and its requests amount is higher than average
-    // amount of requests in elevator.
-    private boolean isCartRelativelyBusy(ElevatorCart cart) {
-        return cart.getRequestsAmount() > 0 && cart.getRequestsAmount() > sumRequestsAmount() / cartsAmount;
+    /**
+     * @return amount of steps made since system was created.
+     */
+    public int getStepsMade() {
+        return stepsMade;
     }
 
-    // Returns true if cart is heading toward the requested floor (or if it is on the same floor).
-    private boolean isCartTowardsCall(int cartFloor, CartDirection cartDirection,
-                                      int requestFloor) {
+    /**
+     * Adds listener notified about stops, direction changes and idle carts in following steps.
+     *
+     * @param listener listener to add.
+     */
+    public void addListener(ElevatorListener listener) {
+        ElevatorListener[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+        newListeners[listeners.length] = listener;
+        listeners = newListeners;
+    }
 
-        return cartFloor >= requestFloor && cartDirection == CartDirection.DOWNWARDS ||
-                cartFloor <= requestFloor && cartDirection == CartDirection.UPWARDS;
+    /**
+     * Removes listener added with {@link #addListener(ElevatorListener)}.
+     *
+     * @param listener listener to remove.
+     */
+    public void removeListener(ElevatorListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                ElevatorListener[] newListeners = new ElevatorListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, newListeners, 0, i);
+                System.arraycopy(listeners, i + 1, newListeners, i, listeners.length - i - 1);
+                listeners = newListeners;
+                return;
+            }
+        }
     }
 
-    //Returns true if cart's direction is same as request's direction.
-    private boolean areCartAndRequestDirectionsEqual(CartDirection cartDirection, RequestDirection requestDirection) {
-        return cartDirection == CartDirection.UPWARDS && requestDirection == RequestDirection.UPWARDS ||
-                cartDirection == CartDirection.DOWNWARDS && requestDirection == RequestDirection.DOWNWARDS;
+    /**
+     * Starts recording metrics of calls, rides and carts, does nothing if metrics are already enabled.
+     *
+     * @return metrics of this elevator system.
+     */
+    public ElevatorMetrics enableMetrics() {
+        if (metrics == null) {
+            metrics = new ElevatorMetrics(this);
+            addListener(metrics);
+        }
+        return metrics;
     }
 
-    // Metric method
-    private int getIdleOrSameDirectionFitness(int cartFloorNumber, int requestFloorNumber) {
-        return floorsAmount + 1 - Math.abs(cartFloorNumber - requestFloorNumber);
+    /**
+     * @return metrics of this elevator system, null if they are not enabled.
+     */
+    public ElevatorMetrics getMetrics() {
+        return metrics;
     }
 
-    //Metric method
-    private int getOppositeDirectionFitness(int cartFloorNumber, int requestFloorNumber) {
-        return floorsAmount - Math.abs(cartFloorNumber - requestFloorNumber);
+    /**
+     * Starts parking idle carts on floors with most calls in recent steps, does nothing if parking
+     * is already enabled. Parking carts speed up and slow down as given by {@link MotionModel} (by default
+     * one floor per step) and stop without opening doors, so with parking {@link #makeSteps(int)} makes steps
+     * one by one. Parking moves aren't recorded in trace and state of parking isn't kept in snapshots,
+     * so system with parking can't be traced or snapshotted.
+     *
+     * @param windowSteps  amount of steps after which weight of call drops e times.
+     * @param planInterval amount of steps between choosing parking floors.
+     * @return parking policy of this elevator system.
+     * @throws IllegalStateException when system is traced or snapshotted.
+     */
+    public ParkingPolicy enableParking(int windowSteps, int planInterval) {
+        if (traceWriter != null || changedCarts != null) {
+            throw new IllegalStateException("Parking can't be enabled in traced or snapshotted system");
+        }
+        if (parkingPolicy == null) {
+            parkingPolicy = new ParkingPolicy(cartsAmount, floorsAmount, windowSteps, planInterval);
+        }
+        return parkingPolicy;
     }
 
-    //Metric method
-    private int getAwayFromRequestFitness() {
-        return 1;
+    /**
+     * @return parking policy of this elevator system, null if parking is not enabled.
+     */
+    public ParkingPolicy getParkingPolicy() {
+        return parkingPolicy;
     }
 
-    //Metric method
-    private int getBusyFitness() {
-        return 0;
+    //Moves each parking cart towards its parking floor in step with given number, cart which got request
+    //or reached its parking floor stops parking, taking direction to request starts it from a stop.
+    //Carts are parked before they make their step, so cart which stopped in previous step
+    //stays on floor until its passengers board.
+    private void moveParkingCarts(int step) {
+        if (parkingPolicy.isPlanStep(step)) {
+            parkingPolicy.plan(cartStore);
+        }
+        for (int i = 0; i < cartsAmount; i++) {
+            int parkingFloor = parkingPolicy.getParkingFloor(i);
+            if (parkingFloor == ParkingPolicy.NO_FLOOR) {
+                continue;
+            }
+            int currentFloor = cartStore.getCurrentFloor(i);
+            if (!cartStore.isResting(i) || parkingFloor == currentFloor) {
+                parkingPolicy.cancel(i);
+                continue;
+            }
+            markChanged(i);
+            int floorsToPark = Math.abs(parkingFloor - currentFloor);
+            int floors = motionModel.getNextSpeed(cartStore.getSpeed(i), floorsToPark);
+            if (parkingFloor > currentFloor) {
+                cartsList.get(i).moveUp(floors);
+            } else {
+                cartsList.get(i).moveDown(floors);
+            }
+            cartStore.setSpeed(i, floors == floorsToPark ? 0 : floors);
+        }
     }
 
-    //Sum currently active requests in every cart.
-    private int sumRequestsAmount() {
-        return cartsList.stream().mapToInt(ElevatorCart::getRequestsAmount).sum();
+    /**
+     * Sets writer which records every following hall call, destination request and step.
+     *
+     * @param traceWriter writer of trace file or null to stop recording.
+     * @throws IllegalStateException when system parks carts, as parking moves can't be replayed from trace.
+     */
+    public void setTraceWriter(TraceWriter traceWriter) {
+        if (traceWriter != null && parkingPolicy != null) {
+            throw new IllegalStateException("Trace can't record system parking carts");
+        }
+        this.traceWriter = traceWriter;
     }
 
+    //Makes given amount of steps for one cart, returns amount of served requests.
+    private int makeSteps(ElevatorCart cart, int steps) {
+        int servedRequests = 0;
+        //Number of step made when steps left drop to 0
+        int lastStep = stepsMade + steps;
+        while (steps > 0) {
+            int floorsToSkip = 0;
+            switch (cart.getDirection()) {
+                case UPWARDS:
+                    if (cart.hasMoreUpRequests()) {
+                        floorsToSkip = Math.min(steps, Math.min(cart.getNextUpRequest(), floorsAmount)
+                                - cart.getCurrentFloor()) - 1;
+                    }
+                    if (floorsToSkip > 0) {
+                        cart.moveUp(floorsToSkip);
+                        steps -= floorsToSkip;
+                    }
+                    servedRequests += makeStepUpDirection(cart, lastStep - steps + 1);
+                    break;
+
+                case DOWNWARDS:
+                    if (cart.hasMoreDownRequests()) {
+                        floorsToSkip = Math.min(steps, cart.getCurrentFloor()
+                                - Math.max(cart.getNextDownRequest(), 0)) - 1;
+                    }
+                    if (floorsToSkip > 0) {
+                        cart.moveDown(floorsToSkip);
+                        steps -= floorsToSkip;
+                    }
+                    servedRequests += makeStepDownDirection(cart, lastStep - steps + 1);
+                    break;
+
+                case NONE:
+                    makeStepNoneDirection(cart, lastStep - steps + 1);
+                    if (cart.isIdle()) {
+                        //Idle cart stays idle until new request is made
+                        return servedRequests;
+                    }
+                    break;
 
-    //Returns best fitted cart for given direction and floor number.
-    private ElevatorCart findMostSuitableCart(int floorNumber, RequestDirection requestDirection) {
-        int bestCartFitness = 0;
-        ElevatorCart outp = null;
-        for (ElevatorCart cart : cartsList) {
-            int cartFitness = getCartFitness(cart, floorNumber, requestDirection);
-            if (cartFitness > bestCartFitness) {
-                bestCartFitness = cartFitness;
-                outp = cart;
             }
+            steps--;
         }
-        if (outp == null) {
-            throw new RuntimeException(String.format("No suitable cart found to handle %s request from %d floor",
-                    requestDirection.toSring(), floorNumber));
+        return servedRequests;
+    }
+
+    /**
+     * Calculates after how many steps cart will be on given floor, assuming that no new requests are made.
+     * Cart is on the floor also when it passes the floor without stopping or stays idle on it.
+     * Result is exact only for default {@link MotionModel}.
+     *
+     * @param cartId      id of cart.
+     * @param floorNumber number of floor.
+     * @return amount of steps (at least 1) after which cart will be on given floor or -1 if it won't get there.
+     */
+    public int getStepsUntilCartAtFloor(int cartId, int floorNumber) {
+        ElevatorCart cart = cartsList.get(cartId);
+        CartDirection direction = getDirectionAfterIdleStep(cart);
+        int steps = cart.isIdle() ? 1 : 0;
+        int cartFloor = cart.getCurrentFloor();
+
+        //Idle cart doesn't move in its first step
+        if (cart.isIdle() && floorNumber == cartFloor) {
+            return 1;
         }
-        return outp;
+        if (direction == CartDirection.UPWARDS) {
+            int highestFloor = Math.min(cart.getLastUpRequest(), floorsAmount);
+            if (floorNumber > cartFloor && floorNumber <= highestFloor) {
+                return steps + floorNumber - cartFloor;
+            }
+            if (cart.hasMoreDownRequests() && floorNumber < highestFloor
+                    && floorNumber >= Math.max(cart.getLastDownRequest(), 0)) {
+                return steps + highestFloor - cartFloor + highestFloor - floorNumber;
+            }
+        } else if (direction == CartDirection.DOWNWARDS) {
+            int lowestFloor = Math.max(cart.getLastDownRequest(), 0);
+            if (floorNumber < cartFloor && floorNumber >= lowestFloor) {
+                return steps + cartFloor - floorNumber;
+            }
+            if (cart.hasMoreUpRequests() && floorNumber > lowestFloor
+                    && floorNumber <= Math.min(cart.getLastUpRequest(), floorsAmount)) {
+                return steps + cartFloor - lowestFloor + floorNumber - lowestFloor;
+            }
+        }
+        return -1;
     }
 
     /**
-     * Responsible for choosing floor when passenger is inside cart.
+     * Calculates after how many steps cart will be idle, assuming that no new requests are made.
+     * Result is exact only for default {@link MotionModel}.
      *
-     * @param cartId      id of cart whose requests list is being changed
-     * @param floorNumber number of passenger's destination floor.
+     * @param cartId id of cart.
+     * @return amount of steps after which cart will be idle, 0 if it is idle and will stay idle.
      */
-    public void makeDestinationRequest(int cartId, int floorNumber) {
-        this.cartsList.get(cartId).addRequest(floorNumber);
+    public int getStepsUntilCartIdle(int cartId) {
+        ElevatorCart cart = cartsList.get(cartId);
+        CartDirection direction = getDirectionAfterIdleStep(cart);
+        int steps = cart.isIdle() ? 1 : 0;
+        int cartFloor = cart.getCurrentFloor();
+
+        if (direction == CartDirection.UPWARDS) {
+            int highestFloor = Math.min(cart.getLastUpRequest(), floorsAmount);
+            steps += highestFloor - cartFloor;
+            if (cart.hasMoreDownRequests()) {
+                steps += highestFloor - Math.max(cart.getLastDownRequest(), 0);
+            }
+            return steps;
+        } else if (direction == CartDirection.DOWNWARDS) {
+            int lowestFloor = Math.max(cart.getLastDownRequest(), 0);
+            steps += cartFloor - lowestFloor;
+            if (cart.hasMoreUpRequests()) {
+                steps += Math.min(cart.getLastUpRequest(), floorsAmount) - lowestFloor;
+            }
+            return steps;
+        }
+        return 0;
+    }
+
+    //Returns cart's direction, for idle cart it is direction which cart will choose in next step.
+    private CartDirection getDirectionAfterIdleStep(ElevatorCart cart) {
+        if (!cart.isIdle()) {
+            return cart.getDirection();
+        }
+        if (cart.hasMoreUpRequests() && cart.getCurrentFloor() < floorsAmount) {
+            return CartDirection.UPWARDS;
+        } else if (cart.hasMoreDownRequests() && cart.getCurrentFloor() > 0) {
+            return CartDirection.DOWNWARDS;
+        }
+        return CartDirection.NONE;
     }
 
+    /**
+     * Enables making steps of carts in parallel.
+     *
+     * @param parallelism             amount of worker threads.
+     * @param sequentialStepThreshold amount of carts below which steps are still made sequentially,
+     *                                it is also the smallest amount of carts stepped by one task.
+     */
+    public void enableParallelStepping(int parallelism, int sequentialStepThreshold) {
+        if (parallelism < 1 || sequentialStepThreshold < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Parallelism (%d) and sequential step threshold (%d) have to be positive",
+                    parallelism, sequentialStepThreshold));
+        }
+        disableParallelStepping();
+        this.stepPool = new ForkJoinPool(parallelism);
+        this.sequentialStepThreshold = sequentialStepThreshold;
+    }
 
     /**
-     * Responsible for simulating one step for each cart.
-     * Each cart is moving zero or one floors up/down and changes direction if has to.
+     * Disables parallel stepping and stops its worker threads.
      */
-    public void makeStep() {
-        for (ElevatorCart cart : cartsList) {
+    public void disableParallelStepping() {
+        if (stepPool != null) {
+            stepPool.shutdown();
+            stepPool = null;
+        }
+    }
+
+    //Makes step with given number for carts with ids from given range, returns amount of served requests.
+    //Carts standing without requests are skipped after checking only store's arrays.
+    private int makeStep(int fromCartId, int toCartId, int step) {
+        int servedRequests = 0;
+        for (int i = fromCartId; i < toCartId; i++) {
+            if (cartStore.isResting(i)) {
+                continue;
+            }
+            ElevatorCart cart = cartsList.get(i);
+            if (cart.dwell()) {
+                continue;
+            }
             switch (cart.getDirection()) {
                 case UPWARDS:
-                    makeStepUpDirection(cart);
+                    servedRequests += makeStepUpDirection(cart, step);
                     break;
 
                 case DOWNWARDS:
-                    makeStepDownDirection(cart);
+                    servedRequests += makeStepDownDirection(cart, step);
                     break;
 
                 case NONE:
-                    makeStepNoneDirection(cart);
+                    makeStepNoneDirection(cart, step);
                     break;
 
             }
         }
+        return servedRequests;
+    }
+
+    //Task making steps for range of carts, split in halves until range is below sequential threshold.
+    private static class StepTask extends RecursiveTask<Integer> {
+
+        private static final long serialVersionUID = 1L;
+
+        //Tasks are never serialized, system isn't serializable.
+        private final transient ElevatorSystem elevatorSystem;
+        private final int fromCartId;
+        private final int toCartId;
+        private final int step;
+
+        StepTask(ElevatorSystem elevatorSystem, int fromCartId, int toCartId, int step) {
+            this.elevatorSystem = elevatorSystem;
+            this.fromCartId = fromCartId;
+            this.toCartId = toCartId;
+            this.step = step;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (toCartId - fromCartId <= elevatorSystem.sequentialStepThreshold) {
+                return elevatorSystem.makeStep(fromCartId, toCartId, step);
+            }
+            int middle = (fromCartId + toCartId) >>> 1;
+            StepTask lowerHalf = new StepTask(elevatorSystem, fromCartId, middle, step);
+            lowerHalf.fork();
+            int servedRequests = new StepTask(elevatorSystem, middle, toCartId, step).compute();
+            return servedRequests + lowerHalf.join();
+        }
     }
 
-    //Method that simulates one step downwards for one cart.
-    private void makeStepDownDirection(ElevatorCart cart) {
+    //Method that simulates one step downwards for one cart, returns amount of served requests.
+    private int makeStepDownDirection(ElevatorCart cart, int step) {
+
+        int servedRequests = 0;
 
         if (cart.getCurrentFloor() > 0) {
-            cart.moveDown();
+            if (motionModel.isDefault() || !cart.hasMoreDownRequests()) {
+                cart.moveDown();
+            } else {
+                cart.move(motionModel.getNextSpeed(cart.getSpeed(),
+                        cart.getCurrentFloor() - Math.max(cart.getNextDownRequest(), 0)));
+            }
         }
         if (cart.hasMoreDownRequests()) {
             int nextRequestFloor = cart.getNextDownRequest();
             if (nextRequestFloor == cart.getCurrentFloor()) {
-                cart.removeNearestRequest();
+                if (serveStop(cart, step)) {
+                    servedRequests++;
+                }
             }
         }
 
@@ -193,24 +828,34 @@ public class ElevatorSystem {
         if (!cart.hasMoreDownRequests()) {
             //If possible start riding up
             if (cart.hasMoreUpRequests()) {
-                cart.setDirection(CartDirection.UPWARDS);
+                setDirection(cart, CartDirection.UPWARDS, step);
             } else {
-                cart.setDirection(CartDirection.NONE);
+                setDirection(cart, CartDirection.NONE, step);
             }
         }
+        return servedRequests;
     }
 
-    //Method that simulates one step upwards for one cart.
-    private void makeStepUpDirection(ElevatorCart cart) {
+    //Method that simulates one step upwards for one cart, returns amount of served requests.
+    private int makeStepUpDirection(ElevatorCart cart, int step) {
+
+        int servedRequests = 0;
 
         if (cart.getCurrentFloor() < floorsAmount) {
-            cart.moveUp();
+            if (motionModel.isDefault() || !cart.hasMoreUpRequests()) {
+                cart.moveUp();
+            } else {
+                cart.move(motionModel.getNextSpeed(cart.getSpeed(),
+                        Math.min(cart.getNextUpRequest(), floorsAmount) - cart.getCurrentFloor()));
+            }
         }
 
         if (cart.hasMoreUpRequests()) {
             int nextRequestFloor = cart.getNextUpRequest();
             if (nextRequestFloor == cart.getCurrentFloor()) {
-                cart.removeNearestRequest();
+                if (serveStop(cart, step)) {
+                    servedRequests++;
+                }
             }
         }
 
@@ -218,27 +863,72 @@ public class ElevatorSystem {
         if (!cart.hasMoreUpRequests()) {
             //If possible start riding down
             if (cart.hasMoreDownRequests()) {
-                cart.setDirection(CartDirection.DOWNWARDS);
+                setDirection(cart, CartDirection.DOWNWARDS, step);
             } else {
-                cart.setDirection(CartDirection.NONE);
+                setDirection(cart, CartDirection.NONE, step);
             }
         }
-
+        return servedRequests;
     }
 
     //Method that simulates one step for idle cart.
-    private void makeStepNoneDirection(ElevatorCart cart) {
+    private void makeStepNoneDirection(ElevatorCart cart, int step) {
 
         if (cart.hasMoreUpRequests() && cart.getCurrentFloor() < floorsAmount) {
 
-            cart.setDirection(CartDirection.UPWARDS);
+            setDirection(cart, CartDirection.UPWARDS, step);
 
         } else if (cart.hasMoreDownRequests() && cart.getCurrentFloor() > 0) {
-            cart.setDirection(CartDirection.DOWNWARDS);
+            setDirection(cart, CartDirection.DOWNWARDS, step);
         }
 
     }
 
+    //Removes request of floor on which cart stopped and notifies listeners, returns true if request was removed.
+    //Full cart doesn't stop for hall calls, they are removed as well and listeners are notified about bypass.
+    private boolean serveStop(ElevatorCart cart, int step) {
+        if (cart.isFull() && !cart.isCarStop(cart.getCurrentFloor())) {
+            return bypassStop(cart, step);
+        }
+        if (!cart.removeNearestRequest()) {
+            return false;
+        }
+        cart.alight();
+        cart.stop(motionModel.getDoorDwellSteps());
+        cart.clearAnnouncedDestination(cart.getCurrentFloor());
+        for (ElevatorListener listener : listeners) {
+            listener.onStopServed(step, cart.getId(), cart.getCurrentFloor());
+        }
+        return true;
+    }
+
+    private boolean bypassStop(ElevatorCart cart, int step) {
+        if (!cart.removeNearestRequest()) {
+            return false;
+        }
+        for (ElevatorListener listener : listeners) {
+            listener.onCallBypassed(step, cart.getId(), cart.getCurrentFloor());
+        }
+        return true;
+    }
+
+    //Changes cart's direction and notifies listeners if it is different than current one.
+    private void setDirection(ElevatorCart cart, CartDirection direction, int step) {
+        CartDirection previousDirection = cart.getDirection();
+        if (previousDirection == direction) {
+            return;
+        }
+        cart.setDirection(direction);
+        for (ElevatorListener listener : listeners) {
+            listener.onDirectionChanged(step, cart.getId(), previousDirection, direction);
+        }
+        if (direction == CartDirection.NONE) {
+            for (ElevatorListener listener : listeners) {
+                listener.onIdle(step, cart.getId(), cart.getCurrentFloor());
+            }
+        }
+    }
+
     /**
      * @return list of elevator's carts - {@link ElevatorCart}.
      */
@@ -246,6 +936,35 @@ public class ElevatorSystem {
         return this.cartsList;
     }
 
+    /**
+     * @return speed, acceleration and door dwell of carts.
+     */
+    public MotionModel getMotionModel() {
+        return motionModel;
+    }
+
+    //Returns steps of ride between stops given amount of floors apart.
+    int getTravelSteps(int floors) {
+        return floors < travelSteps.length ? travelSteps[floors] : motionModel.getTravelSteps(floors);
+    }
+
+    /**
+     * @return strategy choosing carts for hall calls.
+     */
+    public DispatchStrategy getDispatchStrategy() {
+        return dispatchStrategy;
+    }
+
+    //State of every cart, indexed by cart's id.
+    CartStore getCartStore() {
+        return cartStore;
+    }
+
+    //Index of carts by floor and direction, kept up to date with every move of carts.
+    CartIndex getCartIndex() {
+        return cartIndex;
+    }
+
     /**
      * @return amount of carts in elevator.
      */
@@ -260,6 +979,13 @@ public class ElevatorSystem {
         return this.floorsAmount;
     }
 
+    /**
+     * @return amount of currently active requests in every cart.
+     */
+    public int getRequestsAmount() {
+        return this.requestsAmount;
+    }
+
     /**
      * @return human-readable data about elevator's carts and floors amount.
      */
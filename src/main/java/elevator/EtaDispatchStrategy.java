@@ -0,0 +1,120 @@
+package elevator;
+
+import utils.CartDirection;
+import utils.RequestDirection;
+
+/**
+ * Strategy choosing cart which will stop on call's floor after the fewest steps,
+ * estimated from cart's requests above and below it, as carts serve them in LOOK order.
+ * Among carts with equal estimate the one with fewer requests is chosen, then the one with lowest id.
+ * Full carts are chosen only when every cart is full.
+ */
+public class EtaDispatchStrategy implements DispatchStrategy {
+
+    @Override
+    public int chooseCart(ElevatorSystem elevatorSystem, int floorNumber, RequestDirection requestDirection) {
+        int bestCartId = -1;
+        int bestSteps = Integer.MAX_VALUE;
+        int bestRequestsAmount = Integer.MAX_VALUE;
+        boolean bestFull = true;
+        for (ElevatorCart cart : elevatorSystem.getCartsList()) {
+            int steps = getStepsUntilStop(elevatorSystem, cart, floorNumber);
+            if (bestFull && !cart.isFull() || cart.isFull() == bestFull && (steps < bestSteps
+                    || steps == bestSteps && cart.getRequestsAmount() < bestRequestsAmount)) {
+                bestCartId = cart.getId();
+                bestFull = cart.isFull();
+                bestSteps = steps;
+                bestRequestsAmount = cart.getRequestsAmount();
+            }
+        }
+        if (bestCartId < 0) {
+            throw new RuntimeException(String.format("No suitable cart found to handle %s request from %d floor",
+                    requestDirection.toSring(), floorNumber));
+        }
+        return bestCartId;
+    }
+
+    /**
+     * Estimates after how many steps cart would stop on floor if it was added to cart's requests.
+     * Ride between cart's stops and door dwell on them take steps given by {@link MotionModel}.
+     *
+     * @param elevatorSystem elevator system of cart.
+     * @param cart           cart to check.
+     * @param floorNumber    number of requested floor.
+     * @return amount of steps, 0 if cart is already on floor.
+     */
+    static int getStepsUntilStop(ElevatorSystem elevatorSystem, ElevatorCart cart, int floorNumber) {
+        int floorsAmount = elevatorSystem.getFloorsAmount();
+        int cartFloor = cart.getCurrentFloor();
+        if (cartFloor == floorNumber) {
+            return 0;
+        }
+        CartDirection direction = cart.getDirection();
+        //Cart with open doors waits first, idle cart only chooses direction in its first step
+        int steps = cart.getDwellStepsLeft();
+        if (direction == CartDirection.NONE) {
+            steps++;
+            if (cart.hasMoreUpRequests() && cartFloor < floorsAmount) {
+                direction = CartDirection.UPWARDS;
+            } else if (cart.hasMoreDownRequests() && cartFloor > 0) {
+                direction = CartDirection.DOWNWARDS;
+            } else {
+                return steps + elevatorSystem.getTravelSteps(Math.abs(floorNumber - cartFloor));
+            }
+        }
+        if (direction == CartDirection.UPWARDS) {
+            if (floorNumber > cartFloor) {
+                return steps + getTravelSteps(elevatorSystem, cart, cartFloor, floorNumber);
+            }
+            int highestFloor = cart.hasMoreUpRequests() ? Math.min(cart.getLastUpRequest(), floorsAmount) : cartFloor;
+            return steps + getTravelSteps(elevatorSystem, cart, cartFloor, highestFloor)
+                    + getTurnSteps(elevatorSystem, cartFloor, highestFloor)
+                    + getTravelSteps(elevatorSystem, cart, highestFloor, floorNumber);
+        } else {
+            if (floorNumber < cartFloor) {
+                return steps + getTravelSteps(elevatorSystem, cart, cartFloor, floorNumber);
+            }
+            int lowestFloor = cart.hasMoreDownRequests() ? Math.max(cart.getLastDownRequest(), 0) : cartFloor;
+            return steps + getTravelSteps(elevatorSystem, cart, cartFloor, lowestFloor)
+                    + getTurnSteps(elevatorSystem, cartFloor, lowestFloor)
+                    + getTravelSteps(elevatorSystem, cart, lowestFloor, floorNumber);
+        }
+    }
+
+    //Cart turning back on its last request stays there with open doors.
+    private static int getTurnSteps(ElevatorSystem elevatorSystem, int cartFloor, int turnFloor) {
+        return turnFloor != cartFloor ? elevatorSystem.getMotionModel().getDoorDwellSteps() : 0;
+    }
+
+    /**
+     * Estimates steps of ride in one direction, in which cart stops on its requests between given floors.
+     * Cart is assumed to start from a stop and door dwell is counted only on floors between.
+     *
+     * @param elevatorSystem elevator system of cart.
+     * @param cart           cart to check.
+     * @param fromFloor      floor where ride starts.
+     * @param toFloor        floor where ride ends.
+     * @return amount of steps, equal to distance with default motion model.
+     */
+    static int getTravelSteps(ElevatorSystem elevatorSystem, ElevatorCart cart, int fromFloor, int toFloor) {
+        MotionModel motionModel = elevatorSystem.getMotionModel();
+        if (motionModel.isDefault() || fromFloor == toFloor) {
+            return Math.abs(toFloor - fromFloor);
+        }
+        int steps = 0;
+        int floor = fromFloor;
+        if (toFloor > fromFloor) {
+            for (int stop = cart.getNextUpRequest(floor); stop >= 0 && stop < toFloor;
+                 stop = cart.getNextUpRequest(stop)) {
+                steps += elevatorSystem.getTravelSteps(stop - floor) + motionModel.getDoorDwellSteps();
+                floor = stop;
+            }
+        } else {
+            for (int stop = cart.getNextDownRequest(floor); stop > toFloor; stop = cart.getNextDownRequest(stop)) {
+                steps += elevatorSystem.getTravelSteps(floor - stop) + motionModel.getDoorDwellSteps();
+                floor = stop;
+            }
+        }
+        return steps + elevatorSystem.getTravelSteps(Math.abs(toFloor - floor));
+    }
+}
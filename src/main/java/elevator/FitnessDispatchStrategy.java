@@ -0,0 +1,289 @@
+package elevator;
+
+import utils.CartDirection;
+import utils.RequestDirection;
+
+/**
+ * Default strategy, choosing cart with greatest fitness metric:
+ * - 0 for full cart or cart which has more requests than average,
+ * - 1 for cart heading away from call,
+ * - floorsAmount - distance for cart heading towards call in opposite direction,
+ * - floorsAmount + 1 - distance for idle cart or cart heading towards call in same direction,
+ *   plus 1 for idle cart which {@link ParkingPolicy} is taking to call's floor.
+ * Distances are measured in steps of ride given by {@link MotionModel}, which by default are floors.
+ * Among carts with equal fitness the one with lowest id is chosen.
+ */
+public class FitnessDispatchStrategy implements DispatchStrategy {
+
+    //Dispatch candidate used before any cart is checked, every cart is better than it.
+    private static final long NO_CANDIDATE = getCandidate(-1, CartIndex.NO_CART);
+
+    //Carts are checked floor by floor, starting from requested floor and moving away from it. Cart at distance d
+    //has fitness at most floorsAmount + 1 - d (in steps of ride) plus parking bonus, so search stops when better cart
+    //is already found.
+    //Carts heading away from the request are skipped, if no cart better than them is found every cart is checked.
+    //Every cart is checked as well when there are fewer carts than floors to search, as it is faster then.
+    @Override
+    public int chooseCart(ElevatorSystem elevatorSystem, int floorNumber, RequestDirection requestDirection) {
+        return chooseCart(elevatorSystem, floorNumber, requestDirection, null);
+    }
+
+    //Searches index as above, cartsState is state of carts read for batch of calls or null for single call.
+    //Checking state read for batch is cheaper than searching index, so call of batch checks every cart once
+    //its search has covered half of floors. When earlier call of batch had to check every cart, so does this one
+    //right away: carts don't move between calls of batch and only get busier, so search would likely end the same.
+    private int chooseCart(ElevatorSystem elevatorSystem, int floorNumber, RequestDirection requestDirection,
+                           CartsState cartsState) {
+        if (cartsState != null && cartsState.isRead()) {
+            return chooseCartFromAll(elevatorSystem, floorNumber, requestDirection, cartsState);
+        }
+        int floorsAmount = elevatorSystem.getFloorsAmount();
+        long bestCandidate = NO_CANDIDATE;
+        for (int distance = 0; floorNumber - distance >= 0 || floorNumber + distance <= floorsAmount; distance++) {
+            if (getCandidateFitness(bestCandidate) > elevatorSystem.getTravelSteps(floorsAmount) + 1
+                    + getMaxParkingBonus(elevatorSystem) - elevatorSystem.getTravelSteps(distance)) {
+                break;
+            }
+            if (distance > elevatorSystem.getCartsAmount()
+                    || cartsState != null && distance * 4 > floorsAmount) {
+                return chooseCartFromAll(elevatorSystem, floorNumber, requestDirection, cartsState);
+            }
+            int lowerFloor = floorNumber - distance;
+            if (lowerFloor >= 0 && lowerFloor <= floorsAmount) {
+                bestCandidate = findBestCandidate(elevatorSystem, lowerFloor, CartDirection.NONE,
+                        floorNumber, requestDirection, bestCandidate);
+                bestCandidate = findBestCandidate(elevatorSystem, lowerFloor, CartDirection.UPWARDS,
+                        floorNumber, requestDirection, bestCandidate);
+                if (distance == 0) {
+                    bestCandidate = findBestCandidate(elevatorSystem, lowerFloor, CartDirection.DOWNWARDS,
+                            floorNumber, requestDirection, bestCandidate);
+                }
+            }
+            int upperFloor = floorNumber + distance;
+            if (distance > 0 && upperFloor >= 0 && upperFloor <= floorsAmount) {
+                bestCandidate = findBestCandidate(elevatorSystem, upperFloor, CartDirection.NONE,
+                        floorNumber, requestDirection, bestCandidate);
+                bestCandidate = findBestCandidate(elevatorSystem, upperFloor, CartDirection.DOWNWARDS,
+                        floorNumber, requestDirection, bestCandidate);
+            }
+        }
+        if (getCandidateFitness(bestCandidate) > getAwayFromRequestFitness()) {
+            return getCandidateCartId(bestCandidate);
+        }
+        return chooseCartFromAll(elevatorSystem, floorNumber, requestDirection, cartsState);
+    }
+
+    //Calls are searched in index like single call, as carts don't move between calls of batch. When some call
+    //has to check every cart, state of carts is read from store once for the rest of batch and then only
+    //assigned cart's load is updated between calls. Every way gives the cart which single call would get.
+    @Override
+    public int[] requestCarts(ElevatorSystem elevatorSystem, int[] floorNumbers,
+                              RequestDirection[] requestDirections) {
+        boolean timed = elevatorSystem.getMetrics() != null;
+        CartsState cartsState = new CartsState();
+        int[] assignedCartIds = new int[floorNumbers.length];
+        for (int call = 0; call < floorNumbers.length; call++) {
+            long dispatchStart = timed ? System.nanoTime() : 0;
+            int cartId = chooseCart(elevatorSystem, floorNumbers[call], requestDirections[call], cartsState);
+            elevatorSystem.assignCall(cartId, floorNumbers[call], requestDirections[call],
+                    timed ? System.nanoTime() - dispatchStart : 0);
+            cartsState.updateRequestsAmount(elevatorSystem.getCartStore(), cartId);
+            assignedCartIds[call] = cartId;
+        }
+        return assignedCartIds;
+    }
+
+    //Returns better of given candidate and carts from index's group with given floor and direction.
+    private long findBestCandidate(ElevatorSystem elevatorSystem, int cartFloor, CartDirection cartDirection,
+                                   int requestFloorNumber, RequestDirection requestDirection, long bestCandidate) {
+        CartIndex cartIndex = elevatorSystem.getCartIndex();
+        for (int cartId = cartIndex.getFirstCartId(cartFloor, cartDirection); cartId != CartIndex.NO_CART;
+             cartId = cartIndex.getNextCartId(cartId)) {
+            int cartFitness = getCartFitness(elevatorSystem, elevatorSystem.getCartsList().get(cartId),
+                    requestFloorNumber, requestDirection);
+            bestCandidate = Math.max(bestCandidate, getCandidate(cartFitness, cartId));
+        }
+        return bestCandidate;
+    }
+
+    //Candidate is cart's fitness in upper bits and negated cart's id in lower bits, so greater candidate
+    //has greater fitness or same fitness and lower id.
+    private static long getCandidate(int cartFitness, int cartId) {
+        return (long) cartFitness << 32 | (~cartId & 0xFFFFFFFFL);
+    }
+
+    private static int getCandidateFitness(long candidate) {
+        return (int) (candidate >> 32);
+    }
+
+    private static int getCandidateCartId(long candidate) {
+        return ~(int) candidate;
+    }
+
+    //Returns best fitted cart checking every cart in order, without index. Used by tests as reference for search.
+    int chooseCartFromAll(ElevatorSystem elevatorSystem, int floorNumber, RequestDirection requestDirection) {
+        return chooseCartFromAll(elevatorSystem, floorNumber, requestDirection, null);
+    }
+
+    //Returns best fitted cart checking every cart in order, reading their state from batch's state of carts
+    //or, for single call, straight from store.
+    private int chooseCartFromAll(ElevatorSystem elevatorSystem, int floorNumber, RequestDirection requestDirection,
+                                  CartsState cartsState) {
+        CartStore cartStore = elevatorSystem.getCartStore();
+        if (cartsState != null) {
+            cartsState.read(cartStore);
+        }
+        int bestCartFitness = -1;
+        int bestCartId = -1;
+        for (int i = 0; i < cartStore.getCartsAmount(); i++) {
+            int cartFitness = cartsState == null
+                    ? getCartFitness(elevatorSystem, i, cartStore.getCurrentFloor(i), cartStore.getDirection(i),
+                    cartStore.getRequestsAmount(i), cartStore.isFull(i), floorNumber, requestDirection)
+                    : getCartFitness(elevatorSystem, i, cartsState.floors[i], cartsState.directions[i],
+                    cartsState.requestsAmounts[i], cartsState.full[i], floorNumber, requestDirection);
+            if (cartFitness > bestCartFitness) {
+                bestCartFitness = cartFitness;
+                bestCartId = i;
+            }
+        }
+        if (bestCartId < 0) {
+            throw new RuntimeException(String.format("No suitable cart found to handle %s request from %d floor",
+                    requestDirection.toSring(), floorNumber));
+        }
+        return bestCartId;
+    }
+
+    //Calculates metric for chosen cart, based on floor and direction where call was made.
+    private int getCartFitness(ElevatorSystem elevatorSystem, ElevatorCart elevatorCart, int requestFloorNumber,
+                               RequestDirection requestDirection) {
+        return getCartFitness(elevatorSystem, elevatorCart.getId(), elevatorCart.getCurrentFloor(),
+                elevatorCart.getDirection(),
+                elevatorCart.getRequestsAmount(), elevatorCart.isFull(), requestFloorNumber, requestDirection);
+    }
+
+    //Calculates metric for cart with given id, floor, direction, requests amount and load.
+    private int getCartFitness(ElevatorSystem elevatorSystem, int cartId, int cartFloor, CartDirection cartDirection,
+                               int cartRequestsAmount, boolean cartFull, int requestFloorNumber,
+                               RequestDirection requestDirection) {
+
+        if (cartFull || isCartRelativelyBusy(elevatorSystem, cartRequestsAmount)) {
+            return getBusyFitness();
+        }
+
+        if (cartDirection == CartDirection.NONE) {
+
+            return getIdleOrSameDirectionFitness(elevatorSystem, cartFloor, requestFloorNumber)
+                    + getParkingBonus(elevatorSystem, cartId, requestFloorNumber);
+
+        } else if (isCartTowardsCall(cartFloor, cartDirection, requestFloorNumber)) {
+
+            if (areCartAndRequestDirectionsEqual(cartDirection, requestDirection)) {
+
+                return getIdleOrSameDirectionFitness(elevatorSystem, cartFloor, requestFloorNumber);
+
+            } else {
+
+                return getOppositeDirectionFitness(elevatorSystem, cartFloor, requestFloorNumber);
+
+            }
+        } else {
+
+            return getAwayFromRequestFitness();
+
+        }
+    }
+
+    //Returns true if cart has more than 0 requests and its requests amount is higher than average
+    // amount of requests in elevator.
+    private boolean isCartRelativelyBusy(ElevatorSystem elevatorSystem, int cartRequestsAmount) {
+        return cartRequestsAmount > 0
+                && cartRequestsAmount > elevatorSystem.getRequestsAmount() / elevatorSystem.getCartsAmount();
+    }
+
+    // Returns true if cart is heading toward the requested floor (or if it is on the same floor).
+    private boolean isCartTowardsCall(int cartFloor, CartDirection cartDirection,
+                                      int requestFloor) {
+
+        return cartFloor >= requestFloor && cartDirection == CartDirection.DOWNWARDS ||
+                cartFloor <= requestFloor && cartDirection == CartDirection.UPWARDS;
+    }
+
+    //Returns true if cart's direction is same as request's direction.
+    private boolean areCartAndRequestDirectionsEqual(CartDirection cartDirection, RequestDirection requestDirection) {
+        return cartDirection == CartDirection.UPWARDS && requestDirection == RequestDirection.UPWARDS ||
+                cartDirection == CartDirection.DOWNWARDS && requestDirection == RequestDirection.DOWNWARDS;
+    }
+
+    // Metric method
+    private int getIdleOrSameDirectionFitness(ElevatorSystem elevatorSystem, int cartFloorNumber,
+                                              int requestFloorNumber) {
+        return elevatorSystem.getTravelSteps(elevatorSystem.getFloorsAmount()) + 1
+                - elevatorSystem.getTravelSteps(Math.abs(cartFloorNumber - requestFloorNumber));
+    }
+
+    //Metric method
+    private int getOppositeDirectionFitness(ElevatorSystem elevatorSystem, int cartFloorNumber,
+                                            int requestFloorNumber) {
+        return elevatorSystem.getTravelSteps(elevatorSystem.getFloorsAmount())
+                - elevatorSystem.getTravelSteps(Math.abs(cartFloorNumber - requestFloorNumber));
+    }
+
+    //Idle cart already taken to call's floor by parking policy is preferred over other idle carts as far from it,
+    //which stay on floors where policy spread them.
+    private int getParkingBonus(ElevatorSystem elevatorSystem, int cartId, int requestFloorNumber) {
+        ParkingPolicy parkingPolicy = elevatorSystem.getParkingPolicy();
+        return parkingPolicy != null && parkingPolicy.getParkingFloor(cartId) == requestFloorNumber
+                && elevatorSystem.getCartStore().isResting(cartId) ? 1 : 0;
+    }
+
+    private int getMaxParkingBonus(ElevatorSystem elevatorSystem) {
+        return elevatorSystem.getParkingPolicy() != null ? 1 : 0;
+    }
+
+    //Metric method
+    private int getAwayFromRequestFitness() {
+        return 1;
+    }
+
+    //Metric method
+    private int getBusyFitness() {
+        return 0;
+    }
+
+    //State of carts read from store once for batch of calls, when first call of batch checks every cart.
+    private static class CartsState {
+
+        private int[] floors;
+        private CartDirection[] directions;
+        private int[] requestsAmounts;
+        private boolean[] full;
+
+        boolean isRead() {
+            return floors != null;
+        }
+
+        void read(CartStore cartStore) {
+            if (floors != null) {
+                return;
+            }
+            int cartsAmount = cartStore.getCartsAmount();
+            floors = new int[cartsAmount];
+            directions = new CartDirection[cartsAmount];
+            requestsAmounts = new int[cartsAmount];
+            full = new boolean[cartsAmount];
+            for (int i = 0; i < cartsAmount; i++) {
+                floors[i] = cartStore.getCurrentFloor(i);
+                directions[i] = cartStore.getDirection(i);
+                requestsAmounts[i] = cartStore.getRequestsAmount(i);
+                full[i] = cartStore.isFull(i);
+            }
+        }
+
+        //Cart assigned to call gets request, other state doesn't change until next step.
+        void updateRequestsAmount(CartStore cartStore, int cartId) {
+            if (floors != null) {
+                requestsAmounts[cartId] = cartStore.getRequestsAmount(cartId);
+            }
+        }
+    }
+}
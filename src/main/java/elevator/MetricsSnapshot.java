@@ -0,0 +1,154 @@
+package elevator;
+
+import utils.Histogram;
+
+/**
+ * State of {@link ElevatorMetrics} at one moment, doesn't change afterwards.
+ */
+public class MetricsSnapshot {
+
+    private final int stepsMade;
+    private final Histogram waitSteps;
+    private final Histogram rideSteps;
+    private final Histogram dispatchNanos;
+    private final long[] busySteps;
+    private final long[] floorsTravelled;
+    private final long[] directionReversals;
+    private final long[] stops;
+
+    MetricsSnapshot(int stepsMade, Histogram waitSteps, Histogram rideSteps, Histogram dispatchNanos,
+                    long[] busySteps, long[] floorsTravelled, long[] directionReversals, long[] stops) {
+        this.stepsMade = stepsMade;
+        this.waitSteps = waitSteps;
+        this.rideSteps = rideSteps;
+        this.dispatchNanos = dispatchNanos;
+        this.busySteps = busySteps;
+        this.floorsTravelled = floorsTravelled;
+        this.directionReversals = directionReversals;
+        this.stops = stops;
+    }
+
+    /**
+     * @return amount of steps made by elevator system when snapshot was taken.
+     */
+    public int getStepsMade() {
+        return stepsMade;
+    }
+
+    /**
+     * @return steps from hall call until assigned cart stopped on call's floor, one value for each call.
+     */
+    public Histogram getWaitSteps() {
+        return waitSteps.copy();
+    }
+
+    /**
+     * @return steps from destination request until cart stopped on destination floor, one value for each request.
+     */
+    public Histogram getRideSteps() {
+        return rideSteps.copy();
+    }
+
+    /**
+     * @return nanoseconds spent on choosing cart, one value for each hall call.
+     */
+    public Histogram getDispatchNanos() {
+        return dispatchNanos.copy();
+    }
+
+    /**
+     * @return amount of carts.
+     */
+    public int getCartsAmount() {
+        return busySteps.length;
+    }
+
+    /**
+     * @param cartId id of cart.
+     * @return amount of steps in which cart wasn't idle.
+     */
+    public long getBusySteps(int cartId) {
+        return busySteps[cartId];
+    }
+
+    /**
+     * @param cartId id of cart.
+     * @return part of steps in which cart wasn't idle, from 0 to 1.
+     */
+    public double getUtilisation(int cartId) {
+        return stepsMade == 0 ? 0 : (double) busySteps[cartId] / stepsMade;
+    }
+
+    /**
+     * @return mean utilisation of carts.
+     */
+    public double getMeanUtilisation() {
+        if (stepsMade == 0 || busySteps.length == 0) {
+            return 0;
+        }
+        return (double) sum(busySteps) / busySteps.length / stepsMade;
+    }
+
+    /**
+     * @param cartId id of cart.
+     * @return amount of floors passed by cart until its last stop or direction change.
+     */
+    public long getFloorsTravelled(int cartId) {
+        return floorsTravelled[cartId];
+    }
+
+    /**
+     * @return amount of floors passed by every cart.
+     */
+    public long getFloorsTravelled() {
+        return sum(floorsTravelled);
+    }
+
+    /**
+     * @param cartId id of cart.
+     * @return how many times cart changed direction from upwards to downwards or back without being idle.
+     */
+    public long getDirectionReversals(int cartId) {
+        return directionReversals[cartId];
+    }
+
+    /**
+     * @return direction reversals of every cart.
+     */
+    public long getDirectionReversals() {
+        return sum(directionReversals);
+    }
+
+    /**
+     * @param cartId id of cart.
+     * @return how many times cart stopped to serve requests.
+     */
+    public long getStops(int cartId) {
+        return stops[cartId];
+    }
+
+    /**
+     * @return stops of every cart.
+     */
+    public long getStops() {
+        return sum(stops);
+    }
+
+    private static long sum(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * @return human-readable summary of metrics.
+     */
+    public String toString() {
+        return String.format("Steps made: %d%nWait steps: %s%nRide steps: %s%nDispatch nanoseconds: %s%n"
+                        + "Mean utilisation: %.2f, floors travelled: %d, direction reversals: %d, stops: %d",
+                stepsMade, waitSteps, rideSteps, dispatchNanos, getMeanUtilisation(), getFloorsTravelled(),
+                getDirectionReversals(), getStops());
+    }
+}
@@ -0,0 +1,108 @@
+package elevator;
+
+/**
+ * Describes how carts move, in floors and steps of simulation.
+ * Cart starting from a stop speeds up by acceleration floors per step each step until it reaches
+ * its maximum speed, and slows down in the same way so that it stops exactly on floor of its next request.
+ * After stopping, cart stays on floor with open doors for given amount of steps.
+ * Default model moves carts one floor per step without any dwell, as elevator system always did.
+ */
+public class MotionModel {
+
+    /**
+     * One floor per step from the first step of move, no door dwell.
+     */
+    public static final MotionModel DEFAULT = new MotionModel(1, 1, 0);
+
+    private final int maxFloorsPerStep;
+    private final int acceleration;
+    private final int doorDwellSteps;
+
+    /**
+     * @param maxFloorsPerStep maximum speed of cart, in floors per step.
+     * @param acceleration     change of speed in one step, in floors per step.
+     * @param doorDwellSteps   amount of steps in which cart stays on floor after it stopped there.
+     */
+    public MotionModel(int maxFloorsPerStep, int acceleration, int doorDwellSteps) {
+        if (maxFloorsPerStep < 1 || acceleration < 1 || doorDwellSteps < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Speed (%d) and acceleration (%d) have to be positive and door dwell (%d) can't be negative",
+                    maxFloorsPerStep, acceleration, doorDwellSteps));
+        }
+        this.maxFloorsPerStep = maxFloorsPerStep;
+        this.acceleration = acceleration;
+        this.doorDwellSteps = doorDwellSteps;
+    }
+
+    /**
+     * Calculates how many floors cart moves in next step. Cart speeds up if it still can stop on time,
+     * otherwise it slows down. If new request appeared too close to slow down, cart brakes at once.
+     *
+     * @param floorsPerStep floors moved in previous step, 0 for cart starting from a stop.
+     * @param floorsToStop  distance to floor where cart has to stop.
+     * @return amount of floors to move, at most floorsToStop.
+     */
+    public int getNextSpeed(int floorsPerStep, int floorsToStop) {
+        int speed = Math.min(floorsPerStep + acceleration, maxFloorsPerStep);
+        while (speed > 1 && speed + getBrakingFloors(speed) > floorsToStop) {
+            speed--;
+        }
+        return Math.min(speed, floorsToStop);
+    }
+
+    //Returns floors passed while slowing down from given speed to a stop.
+    private int getBrakingFloors(int speed) {
+        int floors = 0;
+        for (int nextSpeed = speed - acceleration; nextSpeed > 0; nextSpeed -= acceleration) {
+            floors += nextSpeed;
+        }
+        return floors;
+    }
+
+    /**
+     * Calculates steps of ride from one stop to another.
+     *
+     * @param floors distance between stops.
+     * @return amount of steps, without door dwell.
+     */
+    public int getTravelSteps(int floors) {
+        if (isDefault()) {
+            return floors;
+        }
+        int steps = 0;
+        int speed = 0;
+        while (floors > 0) {
+            speed = getNextSpeed(speed, floors);
+            floors -= speed;
+            steps++;
+        }
+        return steps;
+    }
+
+    /**
+     * @return true if carts move one floor per step without door dwell.
+     */
+    public boolean isDefault() {
+        return maxFloorsPerStep == 1 && doorDwellSteps == 0;
+    }
+
+    public int getMaxFloorsPerStep() {
+        return maxFloorsPerStep;
+    }
+
+    public int getAcceleration() {
+        return acceleration;
+    }
+
+    public int getDoorDwellSteps() {
+        return doorDwellSteps;
+    }
+
+    /**
+     * @return human-readable parameters of model.
+     */
+    public String toString() {
+        return String.format("%d floors per step, acceleration %d, door dwell %d steps", maxFloorsPerStep,
+                acceleration, doorDwellSteps);
+    }
+}
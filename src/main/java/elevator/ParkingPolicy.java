@@ -0,0 +1,202 @@
+package elevator;
+
+import utils.RequestDirection;
+
+import java.util.Arrays;
+
+/**
+ * Parks idle carts on floors where calls are expected, so next call waits for shorter ride of empty cart.
+ * Calls are counted per floor and direction with exponentially decaying counters, in which call made
+ * windowSteps steps ago weighs e times less than current one, so counters follow recent traffic
+ * (e.g. calls from lobby in morning peak) in fixed memory. Every planInterval steps carts standing without
+ * requests are spread over floors with highest demand, floor getting another cart counts with demand divided
+ * by amount of its carts, and nearest carts are sent to them. Parked cart stays idle for dispatch strategies
+ * and stops parking as soon as it gets request.
+ */
+public class ParkingPolicy {
+
+    /**
+     * Parking floor of cart which isn't parking.
+     */
+    public static final int NO_FLOOR = -1;
+
+    //Weight of newest call above which every counter is scaled down, so weights don't overflow.
+    private static final double MAX_WEIGHT = 1e100;
+
+    private final int floorsAmount;
+    private final int windowSteps;
+    private final int planInterval;
+    //Counters of calls, upward ones on even and downward ones on odd indexes, weighted from base step.
+    private final double[] calls;
+    private int baseStep;
+    private final int[] parkingFloors;
+    //Arrays reused by each planning: resting carts as floor and id, demand and carts of each floor,
+    //heap of floors by demand per cart and floors chosen for resting carts.
+    private final long[] restingCarts;
+    private final double[] demands;
+    private final int[] cartsOnFloors;
+    private final int[] floorsHeap;
+    private final int[] chosenFloors;
+
+    ParkingPolicy(int cartsAmount, int floorsAmount, int windowSteps, int planInterval) {
+        if (windowSteps < 1 || planInterval < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Parking window (%d) and plan interval (%d) have to be positive", windowSteps, planInterval));
+        }
+        this.floorsAmount = floorsAmount;
+        this.windowSteps = windowSteps;
+        this.planInterval = planInterval;
+        this.calls = new double[(floorsAmount + 1) * 2];
+        this.parkingFloors = new int[cartsAmount];
+        Arrays.fill(parkingFloors, NO_FLOOR);
+        this.restingCarts = new long[cartsAmount];
+        this.demands = new double[floorsAmount + 1];
+        this.cartsOnFloors = new int[floorsAmount + 1];
+        this.floorsHeap = new int[floorsAmount + 1];
+        this.chosenFloors = new int[cartsAmount];
+    }
+
+    private ParkingPolicy(ParkingPolicy parkingPolicy) {
+        this.floorsAmount = parkingPolicy.floorsAmount;
+        this.windowSteps = parkingPolicy.windowSteps;
+        this.planInterval = parkingPolicy.planInterval;
+        this.calls = parkingPolicy.calls.clone();
+        this.baseStep = parkingPolicy.baseStep;
+        this.parkingFloors = parkingPolicy.parkingFloors.clone();
+        this.restingCarts = new long[parkingFloors.length];
+        this.demands = new double[floorsAmount + 1];
+        this.cartsOnFloors = new int[floorsAmount + 1];
+        this.floorsHeap = new int[floorsAmount + 1];
+        this.chosenFloors = new int[parkingFloors.length];
+    }
+
+    //Returns independent copy of policy, with same counted calls and parking carts.
+    ParkingPolicy copy() {
+        return new ParkingPolicy(this);
+    }
+
+    //Counts call made in given step, calls from floors outside building are ignored.
+    void recordCall(int step, int floorNumber, RequestDirection direction) {
+        if (floorNumber < 0 || floorNumber > floorsAmount) {
+            return;
+        }
+        double weight = Math.exp((double) (step - baseStep) / windowSteps);
+        if (weight > MAX_WEIGHT) {
+            for (int i = 0; i < calls.length; i++) {
+                calls[i] /= weight;
+            }
+            baseStep = step;
+            weight = 1;
+        }
+        calls[floorNumber * 2 + (direction == RequestDirection.UPWARDS ? 0 : 1)] += weight;
+    }
+
+    /**
+     * @param step        step in which demand is checked, not earlier than last counted call.
+     * @param floorNumber number of floor.
+     * @param direction   direction of calls.
+     * @return calls made from floor in given direction, each weighted by e^(-age / windowSteps).
+     */
+    public double getDemand(int step, int floorNumber, RequestDirection direction) {
+        return calls[floorNumber * 2 + (direction == RequestDirection.UPWARDS ? 0 : 1)]
+                * Math.exp((double) (baseStep - step) / windowSteps);
+    }
+
+    /**
+     * @param cartId id of cart.
+     * @return floor to which idle cart is going to park, {@link #NO_FLOOR} if it isn't parking.
+     */
+    public int getParkingFloor(int cartId) {
+        return parkingFloors[cartId];
+    }
+
+    public int getWindowSteps() {
+        return windowSteps;
+    }
+
+    public int getPlanInterval() {
+        return planInterval;
+    }
+
+    boolean isPlanStep(int step) {
+        return step % planInterval == 0;
+    }
+
+    //Chooses parking floors of carts standing without requests, others stop parking.
+    //Chosen floors and carts are both sorted by floor and matched in order, which gives shortest total ride.
+    void plan(CartStore cartStore) {
+        int restingAmount = 0;
+        for (int slot = 0; slot < cartStore.getCartsAmount(); slot++) {
+            parkingFloors[slot] = NO_FLOOR;
+            if (cartStore.isResting(slot)) {
+                restingCarts[restingAmount++] = (long) cartStore.getCurrentFloor(slot) << 32 | slot;
+            }
+        }
+        if (!chooseFloors(restingAmount)) {
+            return;
+        }
+        Arrays.sort(restingCarts, 0, restingAmount);
+        for (int i = 0; i < restingAmount; i++) {
+            parkingFloors[(int) restingCarts[i]] = chosenFloors[i];
+        }
+    }
+
+    //Puts given amount of floors in ascending order at the beginning of chosen floors, returns false if no call
+    //was counted yet. Floors are kept in max-heap by demand per cart, each floor is taken from its top and sifted
+    //down with one more cart, so only as many floors as carts are selected.
+    private boolean chooseFloors(int amount) {
+        boolean anyDemand = false;
+        for (int floor = 0; floor <= floorsAmount; floor++) {
+            demands[floor] = calls[floor * 2] + calls[floor * 2 + 1];
+            anyDemand |= demands[floor] > 0;
+        }
+        if (amount == 0 || !anyDemand) {
+            return false;
+        }
+        Arrays.fill(cartsOnFloors, 0);
+        for (int floor = 0; floor <= floorsAmount; floor++) {
+            floorsHeap[floor] = floor;
+        }
+        for (int i = floorsAmount / 2; i >= 0; i--) {
+            siftDown(i);
+        }
+        for (int i = 0; i < amount; i++) {
+            int floor = floorsHeap[0];
+            chosenFloors[i] = floor;
+            cartsOnFloors[floor]++;
+            siftDown(0);
+        }
+        Arrays.sort(chosenFloors, 0, amount);
+        return true;
+    }
+
+    //Moves floor from given index of heap down until it has higher priority than its children.
+    private void siftDown(int index) {
+        int floor = floorsHeap[index];
+        int heapSize = floorsAmount + 1;
+        while (index * 2 + 1 < heapSize) {
+            int child = index * 2 + 1;
+            if (child + 1 < heapSize && isHigherPriority(floorsHeap[child + 1], floorsHeap[child])) {
+                child++;
+            }
+            if (!isHigherPriority(floorsHeap[child], floor)) {
+                break;
+            }
+            floorsHeap[index] = floorsHeap[child];
+            index = child;
+        }
+        floorsHeap[index] = floor;
+    }
+
+    //Floor with greater demand per cart going there has higher priority, lower floor wins a tie.
+    private boolean isHigherPriority(int floor, int otherFloor) {
+        double demand = demands[floor] / (cartsOnFloors[floor] + 1);
+        double otherDemand = demands[otherFloor] / (cartsOnFloors[otherFloor] + 1);
+        return demand > otherDemand || demand == otherDemand && floor < otherFloor;
+    }
+
+    //Stops parking of cart which got request.
+    void cancel(int cartId) {
+        parkingFloors[cartId] = NO_FLOOR;
+    }
+}
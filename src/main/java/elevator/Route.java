@@ -0,0 +1,59 @@
+package elevator;
+
+/**
+ * Route of passenger through building, as legs ridden with carts of different banks.
+ * Each next leg starts on floor where previous one ends (transfer floor, e.g. sky lobby).
+ */
+public class Route {
+
+    private final int[] bankIndexes;
+    private final int[] floors;
+
+    //Floors has one more element than bank indexes: origin followed by end of each leg.
+    Route(int[] bankIndexes, int[] floors) {
+        this.bankIndexes = bankIndexes;
+        this.floors = floors;
+    }
+
+    /**
+     * @return amount of legs, one more than amount of transfers.
+     */
+    public int getLegsAmount() {
+        return bankIndexes.length;
+    }
+
+    /**
+     * @param leg number of leg, from 0.
+     * @return index of bank in building which serves leg.
+     */
+    public int getBankIndex(int leg) {
+        return bankIndexes[leg];
+    }
+
+    /**
+     * @param leg number of leg, from 0.
+     * @return floor where leg starts.
+     */
+    public int getFromFloor(int leg) {
+        return floors[leg];
+    }
+
+    /**
+     * @param leg number of leg, from 0.
+     * @return floor where leg ends.
+     */
+    public int getToFloor(int leg) {
+        return floors[leg + 1];
+    }
+
+    /**
+     * @return human-readable legs of route.
+     */
+    public String toString() {
+        StringBuilder sb = new StringBuilder().append(floors[0]);
+        for (int leg = 0; leg < bankIndexes.length; leg++) {
+            sb.append(" =[").append(bankIndexes[leg]).append("]=> ").append(floors[leg + 1]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,150 @@
+package elevator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Restores {@link ElevatorSystem} from snapshot written by {@link SnapshotWriter}, applying every frame
+ * in order, so restored system has state from the last complete frame. Frame cut at the end of snapshot,
+ * e.g. by crash during writing, is skipped.
+ */
+public class SnapshotReader implements Closeable {
+
+    private final ReadableByteChannel channel;
+    private final int cartsAmount;
+    private final int floorsAmount;
+    private final MotionModel motionModel;
+    private ByteBuffer buffer;
+
+    private int framesAmount;
+    private ByteBuffer applicationData;
+
+    /**
+     * Opens snapshot file and reads its header.
+     *
+     * @param path path of snapshot file.
+     * @throws IOException when file can't be read or isn't snapshot of supported version.
+     */
+    public SnapshotReader(Path path) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    /**
+     * Reads header of snapshot from channel, which is closed with reader.
+     *
+     * @param channel channel from which snapshot is read.
+     * @throws IOException when channel can't be read or doesn't hold snapshot of supported version.
+     */
+    public SnapshotReader(ReadableByteChannel channel) throws IOException {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(4096);
+        buffer.flip();
+        if (!fill(SnapshotWriter.HEADER_SIZE) || buffer.getInt() != SnapshotWriter.MAGIC) {
+            channel.close();
+            throw new IOException("Channel doesn't hold elevator snapshot");
+        }
+        short version = buffer.getShort();
+        if (version != SnapshotWriter.VERSION) {
+            channel.close();
+            throw new IOException(String.format("Unsupported snapshot version %d", version));
+        }
+        this.cartsAmount = buffer.getInt();
+        this.floorsAmount = buffer.getInt();
+        this.motionModel = new MotionModel(buffer.getInt(), buffer.getInt(), buffer.getInt());
+    }
+
+    /**
+     * Reads every frame of snapshot.
+     *
+     * @param dispatchStrategy strategy choosing carts for hall calls in restored system.
+     * @return system in state of the last complete frame, with carts' state kept on heap.
+     * @throws IOException when channel can't be read, frame is malformed or snapshot has no complete frame.
+     */
+    public ElevatorSystem read(DispatchStrategy dispatchStrategy) throws IOException {
+        CartStore cartStore = new ArrayCartStore(cartsAmount, floorsAmount);
+        ElevatorSystem elevatorSystem = new ElevatorSystem(cartStore, floorsAmount, dispatchStrategy, motionModel);
+        int stepsMade = 0;
+        while (fill(Integer.BYTES)) {
+            int frameSize = buffer.getInt();
+            if (frameSize < SnapshotWriter.FRAME_FIXED_SIZE || !fill(frameSize)) {
+                break;
+            }
+            int frameEnd = buffer.position() + frameSize;
+            stepsMade = buffer.getInt();
+            int wordsPerCart = buffer.getInt();
+            int frameCartsAmount = buffer.getInt();
+            cartStore.ensureFloor(wordsPerCart * Long.SIZE - 1);
+            try {
+                for (int i = 0; i < frameCartsAmount; i++) {
+                    elevatorSystem.getCartsList().get(buffer.getInt()).readSnapshot(buffer, wordsPerCart);
+                }
+                byte[] data = new byte[buffer.getInt()];
+                buffer.get(data);
+                applicationData = ByteBuffer.wrap(data).asReadOnlyBuffer();
+            } catch (RuntimeException ex) {
+                throw new IOException(String.format("Malformed frame %d of snapshot", framesAmount), ex);
+            }
+            if (buffer.position() != frameEnd) {
+                throw new IOException(String.format("Frame %d of snapshot has wrong size", framesAmount));
+            }
+            framesAmount++;
+        }
+        if (framesAmount == 0) {
+            throw new IOException("Snapshot has no complete frame");
+        }
+        elevatorSystem.restored(stepsMade);
+        return elevatorSystem;
+    }
+
+    //Makes sure that buffer has given amount of bytes, returns false at the end of channel.
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        if (buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocate(Math.max(bytes, buffer.capacity() * 2)).put(buffer);
+        } else {
+            buffer.compact();
+        }
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    /**
+     * @return amount of frames applied by {@link #read(DispatchStrategy)}.
+     */
+    public int getFramesAmount() {
+        return framesAmount;
+    }
+
+    /**
+     * @return read-only application data of the last applied frame, null before snapshot is read.
+     */
+    public ByteBuffer getApplicationData() {
+        return applicationData;
+    }
+
+    public int getCartsAmount() {
+        return cartsAmount;
+    }
+
+    public int getFloorsAmount() {
+        return floorsAmount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,214 @@
+package elevator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes snapshots of {@link ElevatorSystem} state, from which {@link SnapshotReader} restores system.
+ * Snapshot starts with header (magic number, format version, carts and floors amounts and motion model)
+ * followed by frames, each written by one call of {@link #write(ByteBuffer)}. First frame holds state of
+ * every cart, following ones only of carts changed since previous frame, so frequent snapshots of large system
+ * with few moving carts stay small. Frame starts with its size, steps made, words of carts' bitmaps and amount
+ * of carts, then records of carts and application data, e.g. passengers waiting for carts.
+ * Frame is written at once, so snapshot cut by crash in the middle of frame is restored from previous frames.
+ * Snapshot file is compacted every few frames: header and frame with every cart are written to new file, which
+ * then atomically replaces snapshot file, so file doesn't grow without limit and reader applies only frames
+ * written since last compaction. Snapshot written to channel isn't compacted and grows with every frame.
+ * System is tracked from creation of writer until it is closed, only one writer can track system at once.
+ */
+public class SnapshotWriter implements Closeable {
+
+    static final int MAGIC = 0x454C5653;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 26;
+    //Steps made, words per cart, carts amount and application data size.
+    static final int FRAME_FIXED_SIZE = 4 * Integer.BYTES;
+
+    /**
+     * Default amount of frames after which snapshot file is compacted.
+     */
+    public static final int DEFAULT_COMPACTION_INTERVAL = 100;
+
+    private WritableByteChannel channel;
+    private final ElevatorSystem elevatorSystem;
+    //Path of snapshot file and frames between its compactions, null and 0 for snapshot written to channel.
+    private final Path path;
+    private final int compactionInterval;
+    private final byte[] header;
+    private ByteBuffer buffer;
+    private boolean fullFrameWritten;
+    private int framesSinceCompaction;
+
+    /**
+     * Creates snapshot file compacted every {@link #DEFAULT_COMPACTION_INTERVAL} frames, existing file
+     * is overwritten.
+     *
+     * @param path           path of snapshot file.
+     * @param elevatorSystem system whose state is written.
+     * @throws IOException when file can't be created.
+     * @throws IllegalStateException when system parks carts, as state of parking isn't kept in snapshots.
+     */
+    public SnapshotWriter(Path path, ElevatorSystem elevatorSystem) throws IOException {
+        this(path, elevatorSystem, DEFAULT_COMPACTION_INTERVAL);
+    }
+
+    /**
+     * Creates snapshot file, existing file is overwritten.
+     *
+     * @param path               path of snapshot file.
+     * @param elevatorSystem     system whose state is written.
+     * @param compactionInterval amount of frames after which file is replaced by file with single frame
+     *                           holding every cart.
+     * @throws IOException when file can't be created.
+     * @throws IllegalStateException when system parks carts, as state of parking isn't kept in snapshots.
+     */
+    public SnapshotWriter(Path path, ElevatorSystem elevatorSystem, int compactionInterval) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING), elevatorSystem, path, compactionInterval);
+    }
+
+    /**
+     * Writes header of snapshot to channel, which is closed with writer.
+     *
+     * @param channel        channel to which snapshot is written.
+     * @param elevatorSystem system whose state is written.
+     * @throws IOException when header can't be written.
+     * @throws IllegalStateException when system parks carts, as state of parking isn't kept in snapshots.
+     */
+    public SnapshotWriter(WritableByteChannel channel, ElevatorSystem elevatorSystem) throws IOException {
+        this(channel, elevatorSystem, null, 0);
+    }
+
+    private SnapshotWriter(WritableByteChannel channel, ElevatorSystem elevatorSystem, Path path,
+                           int compactionInterval) throws IOException {
+        if (elevatorSystem.getParkingPolicy() != null) {
+            channel.close();
+            throw new IllegalStateException("Snapshot can't keep state of system parking carts");
+        }
+        if (path != null && compactionInterval < 1) {
+            channel.close();
+            throw new IllegalArgumentException(String.format("Compaction interval has to be positive, got %d",
+                    compactionInterval));
+        }
+        this.channel = channel;
+        this.elevatorSystem = elevatorSystem;
+        this.path = path;
+        this.compactionInterval = compactionInterval;
+        this.buffer = ByteBuffer.allocate(4096);
+        MotionModel motionModel = elevatorSystem.getMotionModel();
+        this.header = new byte[HEADER_SIZE];
+        ByteBuffer.wrap(header).putInt(MAGIC).putShort(VERSION).putInt(elevatorSystem.getCartsAmount())
+                .putInt(elevatorSystem.getFloorsAmount()).putInt(motionModel.getMaxFloorsPerStep())
+                .putInt(motionModel.getAcceleration()).putInt(motionModel.getDoorDwellSteps());
+        writeFully(channel, ByteBuffer.wrap(header));
+        elevatorSystem.trackChanges(true);
+    }
+
+    /**
+     * Writes frame without application data.
+     *
+     * @return amount of carts written in frame.
+     * @throws IOException when frame can't be written.
+     */
+    public int write() throws IOException {
+        return write(null);
+    }
+
+    /**
+     * Writes frame with state of every cart if it is the first frame or snapshot file is compacted,
+     * otherwise with state of carts changed since previous frame. System must be between steps.
+     *
+     * @param applicationData bytes from position to limit are written with frame and returned by reader,
+     *                        null for no data.
+     * @return amount of carts written in frame.
+     * @throws IOException when frame can't be written.
+     */
+    public int write(ByteBuffer applicationData) throws IOException {
+        List<ElevatorCart> carts = elevatorSystem.getCartsList();
+        long[] changedCarts = elevatorSystem.takeChangedCarts();
+        boolean compacting = path != null && framesSinceCompaction >= compactionInterval;
+        boolean fullFrame = !fullFrameWritten || compacting;
+        int applicationDataSize = applicationData == null ? 0 : applicationData.remaining();
+
+        int frameSize = FRAME_FIXED_SIZE + applicationDataSize;
+        int cartsAmount = 0;
+        for (int cartId = 0; cartId < carts.size(); cartId++) {
+            if (fullFrame || (changedCarts[cartId >> 6] & 1L << cartId) != 0) {
+                frameSize += carts.get(cartId).getSnapshotSize();
+                cartsAmount++;
+            }
+        }
+        if (buffer.capacity() < Integer.BYTES + frameSize) {
+            buffer = ByteBuffer.allocate(Math.max(Integer.BYTES + frameSize, buffer.capacity() * 2));
+        }
+        buffer.putInt(frameSize).putInt(elevatorSystem.getStepsMade())
+                .putInt(elevatorSystem.getCartStore().getWordsPerCart()).putInt(cartsAmount);
+        for (int cartId = 0; cartId < carts.size(); cartId++) {
+            if (fullFrame || (changedCarts[cartId >> 6] & 1L << cartId) != 0) {
+                carts.get(cartId).writeSnapshot(buffer);
+            }
+        }
+        buffer.putInt(applicationDataSize);
+        if (applicationData != null) {
+            buffer.put(applicationData.duplicate());
+        }
+        if (compacting) {
+            compact();
+        } else {
+            writeBuffer(channel);
+            framesSinceCompaction++;
+        }
+        fullFrameWritten = true;
+        return cartsAmount;
+    }
+
+    //Writes header and full frame from buffer to new file, which replaces snapshot file. Crash before
+    //the move leaves old snapshot file complete, its channel is closed first so file can be replaced.
+    private void compact() throws IOException {
+        Path compactedPath = path.resolveSibling(path.getFileName() + ".compacted");
+        try (FileChannel compactedChannel = FileChannel.open(compactedPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(compactedChannel, ByteBuffer.wrap(header));
+            writeBuffer(compactedChannel);
+            compactedChannel.force(false);
+        }
+        channel.close();
+        try {
+            Files.move(compactedPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(compactedPath, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        framesSinceCompaction = 1;
+    }
+
+    private void writeBuffer(WritableByteChannel target) throws IOException {
+        buffer.flip();
+        writeFully(target, buffer);
+        buffer.clear();
+    }
+
+    private static void writeFully(WritableByteChannel target, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            target.write(bytes);
+        }
+    }
+
+    /**
+     * Stops tracking changes of system and closes channel.
+     */
+    @Override
+    public void close() throws IOException {
+        elevatorSystem.trackChanges(false);
+        channel.close();
+    }
+}
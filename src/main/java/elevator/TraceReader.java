@@ -0,0 +1,176 @@
+package elevator;
+
+import utils.RequestDirection;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads trace file written by {@link TraceWriter} record by record, also in first version of format.
+ * Fields of current record are available through getters after {@link #next()} returns true,
+ * so reading doesn't create object for each record.
+ */
+public class TraceReader implements Closeable {
+
+    private static final int BUFFER_SIZE = TraceWriter.RECORD_SIZE * 4096;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int cartsAmount;
+    private final int floorsAmount;
+    private final int recordSize;
+
+    private int step;
+    private byte type;
+    private byte direction;
+    private int cartId;
+    private int floorNumber;
+    private int destinationFloor;
+
+    /**
+     * Opens trace file and reads its header.
+     *
+     * @param path path of trace file.
+     * @throws IOException when file can't be read or isn't trace of supported version.
+     */
+    public TraceReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.flip();
+        if (!fill(TraceWriter.HEADER_SIZE) || buffer.getInt() != TraceWriter.MAGIC) {
+            channel.close();
+            throw new IOException(String.format("%s is not elevator trace", path));
+        }
+        short version = buffer.getShort();
+        if (version != TraceWriter.VERSION && version != 1) {
+            channel.close();
+            throw new IOException(String.format("Unsupported trace version %d in %s", version, path));
+        }
+        this.cartsAmount = buffer.getInt();
+        this.floorsAmount = buffer.getInt();
+        this.recordSize = version == 1 ? TraceWriter.VERSION_1_RECORD_SIZE : TraceWriter.RECORD_SIZE;
+    }
+
+    /**
+     * Reads next record.
+     *
+     * @return false if there are no more records.
+     * @throws IOException when file can't be read.
+     */
+    public boolean next() throws IOException {
+        if (!fill(recordSize)) {
+            return false;
+        }
+        step = buffer.getInt();
+        type = buffer.get();
+        direction = buffer.get();
+        buffer.getShort();
+        cartId = buffer.getInt();
+        floorNumber = buffer.getInt();
+        destinationFloor = recordSize == TraceWriter.RECORD_SIZE ? buffer.getInt() : TraceWriter.NO_FLOOR;
+        return true;
+    }
+
+    //Makes sure that buffer has given amount of bytes, returns false at the end of file.
+    private boolean fill(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    public int getCartsAmount() {
+        return cartsAmount;
+    }
+
+    public int getFloorsAmount() {
+        return floorsAmount;
+    }
+
+    /**
+     * @return number of step in which current record was made.
+     */
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * @return true if current record is hall call.
+     */
+    public boolean isCall() {
+        return type == TraceWriter.CALL;
+    }
+
+    /**
+     * @return true if current record is destination call, made with origin and destination floors.
+     */
+    public boolean isDestinationCall() {
+        return type == TraceWriter.DESTINATION_CALL;
+    }
+
+    /**
+     * @return true if current record is destination request.
+     */
+    public boolean isDestinationRequest() {
+        return type == TraceWriter.DESTINATION;
+    }
+
+    /**
+     * @return true if current record is passenger boarded into cart, with his destination floor.
+     */
+    public boolean isBoarding() {
+        return type == TraceWriter.BOARDING;
+    }
+
+    /**
+     * @return true if current record is made steps.
+     */
+    public boolean isSteps() {
+        return type == TraceWriter.STEP;
+    }
+
+    /**
+     * @return direction of hall call.
+     */
+    public RequestDirection getRequestDirection() {
+        return direction == TraceWriter.NO_DIRECTION ? null : RequestDirection.values()[direction];
+    }
+
+    /**
+     * @return destination floor of destination call, -1 for other records.
+     */
+    public int getDestinationFloor() {
+        return destinationFloor;
+    }
+
+    /**
+     * @return id of cart assigned to hall call or cart of destination request.
+     */
+    public int getCartId() {
+        return cartId;
+    }
+
+    /**
+     * @return requested floor, for steps record it is amount of made steps.
+     */
+    public int getFloorNumber() {
+        return floorNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
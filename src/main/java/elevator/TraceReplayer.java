@@ -0,0 +1,112 @@
+package elevator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Feeds calls and steps from trace file into new {@link ElevatorSystem} and compares carts assigned
+ * to hall calls with recorded ones, e.g. to check if changed dispatcher still makes same decisions.
+ */
+public class TraceReplayer {
+
+    private final Path path;
+    private final DispatchStrategy dispatchStrategy;
+    private final int cartCapacity;
+    private final MotionModel motionModel;
+    private ElevatorSystem elevatorSystem;
+    private long replayedCalls;
+    private long mismatchedCalls;
+    private int firstMismatchStep;
+
+    /**
+     * @param path path of trace file written by {@link TraceWriter}.
+     */
+    public TraceReplayer(Path path) {
+        this(path, new FitnessDispatchStrategy());
+    }
+
+    /**
+     * @param path             path of trace file written by {@link TraceWriter}.
+     * @param dispatchStrategy strategy used by replaying system, e.g. to compare it with strategy used in trace.
+     */
+    public TraceReplayer(Path path, DispatchStrategy dispatchStrategy) {
+        this(path, dispatchStrategy, ElevatorSystem.UNLIMITED_CAPACITY);
+    }
+
+    /**
+     * @param path             path of trace file written by {@link TraceWriter}.
+     * @param dispatchStrategy strategy used by replaying system, e.g. to compare it with strategy used in trace.
+     * @param cartCapacity     capacity of carts in traced system, which isn't kept in trace.
+     */
+    public TraceReplayer(Path path, DispatchStrategy dispatchStrategy, int cartCapacity) {
+        this(path, dispatchStrategy, cartCapacity, MotionModel.DEFAULT);
+    }
+
+    /**
+     * @param path             path of trace file written by {@link TraceWriter}.
+     * @param dispatchStrategy strategy used by replaying system, e.g. to compare it with strategy used in trace.
+     * @param cartCapacity     capacity of carts in traced system, which isn't kept in trace.
+     * @param motionModel      motion model of carts in traced system, which isn't kept in trace.
+     */
+    public TraceReplayer(Path path, DispatchStrategy dispatchStrategy, int cartCapacity, MotionModel motionModel) {
+        this.path = path;
+        this.motionModel = motionModel;
+        this.dispatchStrategy = dispatchStrategy;
+        this.cartCapacity = cartCapacity;
+        this.firstMismatchStep = -1;
+    }
+
+    /**
+     * Replays whole trace.
+     *
+     * @return elevator system in state after last record.
+     * @throws IOException when trace can't be read.
+     */
+    public ElevatorSystem replay() throws IOException {
+        try (TraceReader reader = new TraceReader(path)) {
+            elevatorSystem = new ElevatorSystem(reader.getCartsAmount(), reader.getFloorsAmount(), dispatchStrategy,
+                    cartCapacity, motionModel);
+            while (reader.next()) {
+                if (reader.isCall() || reader.isDestinationCall()) {
+                    int cartId = reader.isCall()
+                            ? elevatorSystem.requestCart(reader.getFloorNumber(), reader.getRequestDirection())
+                            : elevatorSystem.requestCart(reader.getFloorNumber(), reader.getDestinationFloor());
+                    replayedCalls++;
+                    if (cartId != reader.getCartId()) {
+                        if (mismatchedCalls++ == 0) {
+                            firstMismatchStep = reader.getStep();
+                        }
+                    }
+                } else if (reader.isDestinationRequest()) {
+                    elevatorSystem.makeDestinationRequest(reader.getCartId(), reader.getFloorNumber());
+                } else if (reader.isBoarding()) {
+                    elevatorSystem.boardPassenger(reader.getCartId(), reader.getFloorNumber());
+                } else if (reader.isSteps()) {
+                    elevatorSystem.makeSteps(reader.getFloorNumber());
+                }
+            }
+        }
+        return elevatorSystem;
+    }
+
+    /**
+     * @return amount of replayed hall calls.
+     */
+    public long getReplayedCalls() {
+        return replayedCalls;
+    }
+
+    /**
+     * @return amount of hall calls assigned to different cart than recorded one.
+     */
+    public long getMismatchedCalls() {
+        return mismatchedCalls;
+    }
+
+    /**
+     * @return step of first hall call assigned to different cart than recorded one, -1 if there was none.
+     */
+    public int getFirstMismatchStep() {
+        return firstMismatchStep;
+    }
+}
@@ -0,0 +1,108 @@
+package elevator;
+
+import utils.RequestDirection;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes calls and steps of {@link ElevatorSystem} to binary trace file.
+ * File starts with header (magic number, format version, carts and floors amounts) followed by
+ * fixed-width records: step number, record type (call, destination request, steps, destination call
+ * or boarding), request direction, cart id, floor number and destination floor of destination calls.
+ * Records are collected in direct buffer and written to file channel when buffer is full.
+ */
+public class TraceWriter implements Closeable {
+
+    static final int MAGIC = 0x454C5654;
+    static final short VERSION = 2;
+    static final int HEADER_SIZE = 14;
+    static final int RECORD_SIZE = 20;
+    //Records of first version had no destination floor.
+    static final int VERSION_1_RECORD_SIZE = 16;
+
+    static final byte CALL = 1;
+    static final byte DESTINATION = 2;
+    static final byte STEP = 3;
+    static final byte DESTINATION_CALL = 4;
+    static final byte BOARDING = 5;
+    static final byte NO_DIRECTION = -1;
+    static final int NO_FLOOR = -1;
+
+    private static final int BUFFER_SIZE = RECORD_SIZE * 4096;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+
+    /**
+     * Creates trace file, existing file is overwritten.
+     *
+     * @param path         path of trace file.
+     * @param cartsAmount  amount of carts in traced system.
+     * @param floorsAmount amount of floors in traced system.
+     * @throws IOException when file can't be created.
+     */
+    public TraceWriter(Path path, int cartsAmount, int floorsAmount) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        buffer.putInt(MAGIC).putShort(VERSION).putInt(cartsAmount).putInt(floorsAmount);
+    }
+
+    void recordCall(int step, int floorNumber, RequestDirection requestDirection, int cartId) {
+        record(step, CALL, (byte) requestDirection.ordinal(), cartId, floorNumber, NO_FLOOR);
+    }
+
+    void recordDestinationCall(int step, int floorNumber, int destinationFloor, int cartId) {
+        record(step, DESTINATION_CALL, NO_DIRECTION, cartId, floorNumber, destinationFloor);
+    }
+
+    void recordDestination(int step, int cartId, int floorNumber) {
+        record(step, DESTINATION, NO_DIRECTION, cartId, floorNumber, NO_FLOOR);
+    }
+
+    void recordBoarding(int step, int cartId, int floorNumber) {
+        record(step, BOARDING, NO_DIRECTION, cartId, floorNumber, NO_FLOOR);
+    }
+
+    //Steps record keeps amount of made steps in floor's field.
+    void recordSteps(int step, int steps) {
+        record(step, STEP, NO_DIRECTION, -1, steps, NO_FLOOR);
+    }
+
+    private void record(int step, byte type, byte direction, int cartId, int floorNumber, int destinationFloor) {
+        if (buffer.remaining() < RECORD_SIZE) {
+            writeBuffer();
+        }
+        buffer.putInt(step).put(type).put(direction).putShort((short) 0).putInt(cartId).putInt(floorNumber)
+                .putInt(destinationFloor);
+    }
+
+    private void writeBuffer() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Problem while writing trace", ex);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes buffered records and closes file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            writeBuffer();
+        } finally {
+            channel.close();
+        }
+    }
+}
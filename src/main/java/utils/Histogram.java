@@ -0,0 +1,136 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of non-negative values with fixed memory, whatever values are recorded.
+ * Values below 32 have own buckets, greater values share bucket with values which differ by less
+ * than 1/16 of them (each power of two range is split into 16 buckets).
+ * It isn't thread-safe.
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKETS_BITS = 4;
+    private static final int SUB_BUCKETS_AMOUNT = 1 << SUB_BUCKETS_BITS;
+    private static final int LINEAR_BUCKETS_AMOUNT = 2 * SUB_BUCKETS_AMOUNT;
+    private static final int BUCKETS_AMOUNT = (64 - SUB_BUCKETS_BITS) * SUB_BUCKETS_AMOUNT;
+
+    private final long[] counts;
+    private long totalCount;
+    private long sum;
+    private long max;
+
+    public Histogram() {
+        this.counts = new long[BUCKETS_AMOUNT];
+    }
+
+    private Histogram(Histogram histogram) {
+        this.counts = histogram.counts.clone();
+        this.totalCount = histogram.totalCount;
+        this.sum = histogram.sum;
+        this.max = histogram.max;
+    }
+
+    /**
+     * @param value value to record, negative values are recorded as 0.
+     */
+    public void record(long value) {
+        value = Math.max(value, 0);
+        counts[getBucket(value)]++;
+        totalCount++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Records every value recorded by other histogram.
+     *
+     * @param histogram histogram whose values are added, it doesn't change.
+     */
+    public void add(Histogram histogram) {
+        for (int bucket = 0; bucket < BUCKETS_AMOUNT; bucket++) {
+            counts[bucket] += histogram.counts[bucket];
+        }
+        totalCount += histogram.totalCount;
+        sum += histogram.sum;
+        max = Math.max(max, histogram.max);
+    }
+
+    /**
+     * @return amount of recorded values.
+     */
+    public long getCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return exact mean of recorded values, 0 if nothing was recorded.
+     */
+    public double getMean() {
+        return totalCount == 0 ? 0 : (double) sum / totalCount;
+    }
+
+    /**
+     * @return greatest recorded value, 0 if nothing was recorded.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @param percentile percentile from 0 to 100.
+     * @return greatest value which is in same bucket as value at given percentile, 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long countAtPercentile = Math.max((long) Math.ceil(percentile / 100 * totalCount), 1);
+        long count = 0;
+        for (int bucket = 0; bucket < BUCKETS_AMOUNT; bucket++) {
+            count += counts[bucket];
+            if (count >= countAtPercentile) {
+                return Math.min(getHighestValue(bucket), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return histogram with same values, which doesn't change when this one does.
+     */
+    public Histogram copy() {
+        return new Histogram(this);
+    }
+
+    /**
+     * Removes every recorded value.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count: %d, mean: %.2f, p50: %d, p90: %d, p99: %d, max: %d", totalCount, getMean(),
+                getValueAtPercentile(50), getValueAtPercentile(90), getValueAtPercentile(99), max);
+    }
+
+    //Bucket is value's highest bits: 16 buckets for each power of two, and linear buckets for small values.
+    private static int getBucket(long value) {
+        if (value < LINEAR_BUCKETS_AMOUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKETS_BITS;
+        return shift * SUB_BUCKETS_AMOUNT + (int) (value >>> shift);
+    }
+
+    private static long getHighestValue(int bucket) {
+        if (bucket < LINEAR_BUCKETS_AMOUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS_AMOUNT - 1;
+        long subBucket = bucket % SUB_BUCKETS_AMOUNT + SUB_BUCKETS_AMOUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,63 @@
+package app;
+
+import elevator.ElevatorCart;
+import elevator.ElevatorSystem;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AsyncOutputTest {
+
+    private static final int STEPS_AMOUNT = 20000;
+
+    @Test
+    public void stepsAreWrittenInOrder() {
+        ElevatorSystem elevatorSystem = new ElevatorSystem(4, 20);
+        List<Passenger> passengers = Collections.singletonList(new Passenger(3, 7, "P0"));
+        StringBuilder expected = new StringBuilder();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (AsyncOutput output = new AsyncOutput(stream)) {
+            for (int step = 0; step < STEPS_AMOUNT; step++) {
+                elevatorSystem.makeDestinationRequest(step % 4, step % 21);
+                elevatorSystem.makeStep();
+                List<ElevatorCart> carts = elevatorSystem.getCartsList();
+                output.printStep(step, carts, passengers);
+                SimulationOutput.appendStep(expected, step, carts, passengers);
+            }
+        }
+
+        assertEquals(expected.toString(), stream.toString());
+    }
+
+    @Test(timeout = 10000)
+    public void failedWritingIsThrownInsteadOfWaiting() {
+        ElevatorSystem elevatorSystem = new ElevatorSystem(4, 20);
+        AsyncOutput output = new AsyncOutput(new OutputStream() {
+            @Override
+            public void write(int b) {
+                throw new IllegalStateException("Stream is broken");
+            }
+        });
+        int step = 0;
+        try {
+            for (; step < STEPS_AMOUNT; step++) {
+                output.printStep(step, elevatorSystem.getCartsList(), Collections.<Passenger>emptyList());
+            }
+            fail("Every step was printed to broken stream");
+        } catch (IllegalStateException expected) {
+            assertEquals("Stream is broken", expected.getCause().getMessage());
+        }
+        assertTrue(step < STEPS_AMOUNT);
+
+        try {
+            output.close();
+            fail("Output was closed without failure");
+        } catch (IllegalStateException expected) {
+        }
+    }
+}
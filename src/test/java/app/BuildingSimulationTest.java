@@ -0,0 +1,65 @@
+package app;
+
+import elevator.Bank;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BuildingSimulationTest {
+
+    private static final long SEED = 19L;
+
+    @Test
+    public void everyPassengerGetsToDestination() {
+        SimulationConfig config = new SimulationConfig();
+        config.setFloorsAmount(60);
+        config.setPassengersAmount(300);
+        config.setPassengersFrequency(1);
+        config.setDispatchStrategy("eta");
+        config.setBanks("low/3/0-20;mid/3/0,20-40;shuttle/1/0,40;high/3/40-60");
+
+        BuildingSimulation simulation = new BuildingSimulation(config, new PassengerFactory(60, SEED),
+                new NoOutput());
+        int steps = simulation.run();
+
+        assertEquals(300, simulation.getTripSteps().getCount());
+        assertTrue(simulation.getTransfersAmount() > 0);
+        assertTrue(simulation.getTripSteps().getMax() <= steps);
+        int expectedTransfers = 0;
+        for (Passenger passenger : simulation.getPassengers()) {
+            expectedTransfers += simulation.getBuilding().route(passenger.getStartingFloor(),
+                    passenger.getDestinationFloor()).getLegsAmount() - 1;
+            assertTrue(passenger.getBoardingStep() >= 0);
+        }
+        assertEquals(expectedTransfers, simulation.getTransfersAmount());
+        for (Bank bank : simulation.getBuilding().getBanks()) {
+            assertEquals(0, bank.getElevatorSystem().getRequestsAmount());
+        }
+    }
+
+    @Test
+    public void passengersFromSourceAreNotKept() {
+        SimulationConfig config = new SimulationConfig();
+        config.setFloorsAmount(40);
+        config.setBanks("low/3/0-20;high/3/0,20-40");
+
+        BuildingSimulation simulation = new BuildingSimulation(config, new TrafficGenerator(40,
+                TrafficProfile.LUNCH, 0.5, 400, SEED), new NoOutput());
+        simulation.run();
+
+        assertEquals(400, simulation.getTripSteps().getCount());
+        assertTrue(simulation.getPassengers().isEmpty());
+        for (Bank bank : simulation.getBuilding().getBanks()) {
+            assertEquals(0, bank.getElevatorSystem().getRequestsAmount());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void everyFloorHasToBeServed() {
+        SimulationConfig config = new SimulationConfig();
+        config.setFloorsAmount(30);
+        config.setBanks("low/2/0-10;high/2/0,20-30");
+
+        new BuildingSimulation(config, new PassengerFactory(30, SEED), new NoOutput());
+    }
+}
@@ -0,0 +1,80 @@
+package app;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class ParameterSweepTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void sweepAggregatesEverySeedOfEveryCombination() {
+        Properties properties = new Properties();
+        properties.setProperty("passengersAmount", "100");
+        ParameterSweep sweep = new ParameterSweep(properties, new int[]{2, 8}, new int[]{20}, new int[]{1, 3},
+                new String[]{"fitness", "eta"}, 5, 17L);
+
+        List<ParameterSweep.Result> results = sweep.run(4);
+
+        assertEquals(8, results.size());
+        for (ParameterSweep.Result result : results) {
+            assertEquals(5, result.getRunsAmount());
+            assertEquals(500, result.getWaitSteps().getCount());
+            assertEquals(500, result.getRideSteps().getCount());
+        }
+        assertEquals(2, results.get(0).getCartsAmount());
+        assertEquals("eta", results.get(1).getDispatchStrategy());
+        assertEquals(3, results.get(2).getPassengersFrequency());
+        assertTrue(results.get(4).getWaitSteps().getMean() < results.get(0).getWaitSteps().getMean());
+    }
+
+    @Test
+    public void sweepResultsDoNotDependOnParallelism() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("passengersAmount", "200");
+        properties.setProperty("sweepCartsAmounts", "4, 6");
+        properties.setProperty("sweepFloorsAmounts", "30");
+        properties.setProperty("sweepDispatchStrategies", "fitness,eta,destination");
+        properties.setProperty("sweepSeeds", "4");
+
+        String csv = getCsv(ParameterSweep.fromProperties(properties).run(1));
+
+        assertEquals(csv, getCsv(ParameterSweep.fromProperties(properties).run(3)));
+        String[] lines = csv.split(System.lineSeparator());
+        assertEquals(7, lines.length);
+        assertTrue(lines[0].startsWith("cartsAmount,floorsAmount,passengersFrequency,dispatchStrategy,runs,calls,"));
+        assertTrue(lines[3].startsWith("4,30,2,destination,4,800,"));
+    }
+
+    @Test
+    public void sweepDoesNotWriteSnapshots() throws IOException {
+        File snapshotFile = new File(folder.getRoot(), "sweep.snapshot");
+        Properties properties = new Properties();
+        properties.setProperty("passengersAmount", "100");
+        properties.setProperty("snapshotFile", snapshotFile.getPath());
+        properties.setProperty("sweepCartsAmounts", "2,4");
+        properties.setProperty("sweepSeeds", "3");
+
+        String csv = getCsv(ParameterSweep.fromProperties(properties).run(2));
+
+        assertFalse(snapshotFile.exists());
+        properties.remove("snapshotFile");
+        assertEquals(getCsv(ParameterSweep.fromProperties(properties).run(2)), csv);
+    }
+
+    private String getCsv(List<ParameterSweep.Result> results) throws IOException {
+        StringWriter writer = new StringWriter();
+        ParameterSweep.writeCsv(results, writer);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,49 @@
+package app;
+
+import elevator.ElevatorCart;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SampledOutputTest {
+
+    @Test
+    public void everyNthStepIsPassed() {
+        RecordingOutput recordingOutput = new RecordingOutput();
+        try (SampledOutput output = new SampledOutput(recordingOutput, 3)) {
+            for (int step = 5; step < 15; step++) {
+                output.printStep(step, Collections.<ElevatorCart>emptyList(), Collections.<Passenger>emptyList());
+            }
+        }
+
+        assertEquals(Arrays.asList(5, 8, 11, 14), recordingOutput.steps);
+        assertTrue(recordingOutput.closed);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sampleRateHasToBePositive() {
+        new SampledOutput(new NoOutput(), 0);
+    }
+
+    private static class RecordingOutput implements SimulationOutput {
+
+        private final List<Integer> steps = new ArrayList<>();
+        private boolean closed;
+
+        @Override
+        public void printStep(int stepNumber, List<ElevatorCart> carts, Collection<Passenger> waitingPassengers) {
+            steps.add(stepNumber);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package app;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class SimulationHostTest {
+
+    @Test
+    public void hostRunsEveryCopyOfEveryBuilding() throws IOException {
+        Properties properties = createProperties();
+
+        List<SimulationHost.Result> results = SimulationHost.fromProperties(properties).run(1);
+
+        assertEquals(6, results.size());
+        assertEquals("north-0", results.get(0).getName());
+        assertEquals("south-2", results.get(5).getName());
+        for (SimulationHost.Result result : results) {
+            assertNull(result.getFailure());
+            assertEquals(100, result.getWaitSteps().getCount());
+            assertEquals(100, result.getRideSteps().getCount());
+        }
+        assertTrue(results.get(3).getWaitSteps().getMean() < results.get(0).getWaitSteps().getMean());
+
+        SimulationHost host = SimulationHost.fromProperties(properties);
+        String csv = getCsv(host.run(3));
+        assertEquals(getCsv(results), csv);
+        assertEquals(600, host.getWaitSteps().getCount());
+        assertEquals(600, host.getRideSteps().getCount());
+        assertTrue(csv.split(System.lineSeparator())[1].startsWith("north-0,2,30,fitness,0,"));
+    }
+
+    @Test
+    public void failingBuildingDoesNotStopOtherBuildings() {
+        Properties properties = createProperties();
+        properties.setProperty("north.dispatchStrategy", "unknown");
+
+        List<SimulationHost.Result> results = SimulationHost.fromProperties(properties).run(2);
+
+        assertEquals(3, SimulationHost.getFailuresAmount(results));
+        assertTrue(results.get(0).getFailure() instanceof IllegalArgumentException);
+        assertEquals(100, results.get(5).getWaitSteps().getCount());
+    }
+
+    @Test
+    public void virtualThreadsGiveSameResultsWhenAvailable() throws IOException {
+        Properties properties = createProperties();
+        if (!SimulationHost.isVirtualThreadsAvailable()) {
+            try {
+                SimulationHost.fromProperties(properties).runOnVirtualThreads();
+                fail("Virtual threads shouldn't be available");
+            } catch (UnsupportedOperationException ex) {
+                return;
+            }
+        }
+
+        assertEquals(getCsv(SimulationHost.fromProperties(properties).run(2)),
+                getCsv(SimulationHost.fromProperties(properties).runOnVirtualThreads()));
+    }
+
+    private Properties createProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("floorsAmount", "30");
+        properties.setProperty("passengersAmount", "100");
+        properties.setProperty("hostBuildings", "north, south");
+        properties.setProperty("hostCopies", "3");
+        properties.setProperty("north.cartsAmount", "2");
+        properties.setProperty("south.cartsAmount", "8");
+        return properties;
+    }
+
+    private String getCsv(List<SimulationHost.Result> results) throws IOException {
+        StringWriter writer = new StringWriter();
+        SimulationHost.writeCsv(results, writer);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,241 @@
+package app;
+
+import elevator.ElevatorCart;
+import elevator.MetricsSnapshot;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class SimulationTest {
+
+    private static final long SEED = 17L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void eventDrivenMatchesStepByStep() {
+        assertSameRuns(createConfig(16, 60, 200, 2));
+        assertSameRuns(createConfig(4, 100, 300, 1));
+        assertSameRuns(createConfig(32, 20, 100, 7));
+    }
+
+    @Test
+    public void eventDrivenMakesMinimumSteps() {
+        SimulationConfig config = createConfig(2, 10, 1, 1);
+        config.setMinStepsAmount(500);
+
+        assertSameRuns(config);
+    }
+
+    @Test
+    public void eventDrivenMatchesStepByStepWithDestinationDispatch() {
+        SimulationConfig config = createConfig(8, 40, 200, 1);
+        config.setDispatchMode("destination");
+        config.setDispatchStrategy("destination");
+
+        assertSameRuns(config);
+    }
+
+    @Test
+    public void passengersCallAgainWhenCartsAreFull() {
+        SimulationConfig config = createConfig(2, 20, 200, 1);
+        config.setCartCapacity(3);
+        config.setMetrics(true);
+        Simulation simulation = new Simulation(config, new PassengerFactory(config.getFloorsAmount(), SEED),
+                new NoOutput());
+        simulation.run();
+
+        for (Passenger passenger : simulation.getPassengers()) {
+            assertTrue(passenger.getBoardingStep() >= passenger.getCallStep());
+        }
+        for (ElevatorCart cart : simulation.getElevatorSystem().getCartsList()) {
+            assertEquals(0, cart.getLoad());
+        }
+        assertEquals(200, simulation.getElevatorSystem().getMetrics().getSnapshot().getRideSteps().getCount());
+    }
+
+    //Passengers call together on floor of only cart, which takes one of them and stays full on their floor
+    //while its door is open, so requests of others for that floor can't be added.
+    @Test(timeout = 10000)
+    public void passengersCallingFullCartOnTheirFloorBoardLater() {
+        SimulationConfig config = createConfig(1, 10, 3, 1);
+        config.setCartCapacity(1);
+        config.setDoorDwellSteps(2);
+        config.setMetrics(true);
+        PassengerFactory passengerFactory = new PassengerFactory(config.getFloorsAmount(), SEED);
+        Iterator<Passenger> passengers = Arrays.asList(passengerFactory.getPassenger(0, 5),
+                passengerFactory.getPassenger(0, 5), passengerFactory.getPassenger(0, 5)).iterator();
+        Simulation simulation = new Simulation(config, () -> passengers.hasNext() ? passengers.next() : null,
+                new NoOutput());
+        simulation.run();
+
+        assertEquals(3, simulation.getElevatorSystem().getMetrics().getSnapshot().getRideSteps().getCount());
+        assertEquals(0, simulation.getElevatorSystem().getCartsList().get(0).getLoad());
+    }
+
+    @Test
+    public void doorDwellLengthensAndSpeedShortensRides() {
+        SimulationConfig config = createConfig(4, 40, 300, 1);
+        config.setMetrics(true);
+        double rideSteps = getMeanRideSteps(config);
+
+        config.setEventDriven(true);
+        config.setDoorDwellSteps(2);
+        assertTrue(getMeanRideSteps(config) > rideSteps);
+        config.setDoorDwellSteps(0);
+        config.setCartSpeed(3);
+        assertTrue(getMeanRideSteps(config) < rideSteps);
+    }
+
+    @Test
+    public void parkedCartsShortenWaitsInUpPeak() {
+        SimulationConfig config = createConfig(8, 30, 1000, 1);
+        config.setMetrics(true);
+        double waitSteps = getMeanWaitSteps(config);
+
+        config.setParkingWindow(50);
+        assertTrue(getMeanWaitSteps(config) < waitSteps);
+    }
+
+    @Test
+    public void parkingSimulationWritesNeitherTraceNorSnapshots() {
+        SimulationConfig config = createConfig(4, 20, 50, 1);
+        config.setParkingWindow(50);
+        config.setTraceFile(folder.getRoot().toPath().resolve("parking.trace").toString());
+        assertRejected(config);
+        config.setTraceFile("");
+        config.setSnapshotFile(folder.getRoot().toPath().resolve("parking.snapshot").toString());
+        assertRejected(config);
+        assertEquals(0, folder.getRoot().list().length);
+    }
+
+    private void assertRejected(SimulationConfig config) {
+        try {
+            new Simulation(config, new PassengerFactory(config.getFloorsAmount(), SEED), new NoOutput()).run();
+            fail("Simulation parking carts was run with trace or snapshots");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    //Every generated passenger has to be carried, otherwise metrics count fewer rides.
+    private double getMeanWaitSteps(SimulationConfig config) {
+        Simulation simulation = new Simulation(config, new TrafficGenerator(config.getFloorsAmount(),
+                TrafficProfile.UP_PEAK, 0.2, config.getPassengersAmount(), SEED), new NoOutput());
+        simulation.run();
+        MetricsSnapshot metrics = simulation.getElevatorSystem().getMetrics().getSnapshot();
+        assertEquals(config.getPassengersAmount(), metrics.getRideSteps().getCount());
+        return metrics.getWaitSteps().getMean();
+    }
+
+    private double getMeanRideSteps(SimulationConfig config) {
+        Simulation simulation = new Simulation(config, new PassengerFactory(config.getFloorsAmount(), SEED),
+                new NoOutput());
+        simulation.run();
+        for (Passenger passenger : simulation.getPassengers()) {
+            assertTrue(passenger.getBoardingStep() >= passenger.getCallStep());
+        }
+        return simulation.getElevatorSystem().getMetrics().getSnapshot().getRideSteps().getMean();
+    }
+
+    @Test
+    public void resumedSimulationMatchesUninterruptedOne() throws IOException {
+        assertSameResumedRun(createConfig(16, 60, 400, 1));
+        SimulationConfig config = createConfig(2, 20, 200, 1);
+        config.setCartCapacity(3);
+        assertSameResumedRun(config);
+        config = createConfig(8, 40, 200, 1);
+        config.setDispatchMode("destination");
+        config.setDispatchStrategy("destination");
+        assertSameResumedRun(config);
+    }
+
+    //Simulation leaves its last snapshot in file, resumed simulation has to end in same step with same carts.
+    private void assertSameResumedRun(SimulationConfig config) throws IOException {
+        config.setSnapshotFile(folder.newFile().getPath());
+        config.setSnapshotInterval(37);
+        config.setSnapshotCompactionInterval(3);
+        Simulation simulation = new Simulation(config, new PassengerFactory(config.getFloorsAmount(), SEED),
+                new NoOutput());
+        int steps = simulation.run();
+
+        Simulation resumedSimulation = Simulation.resume(config, new PassengerFactory(config.getFloorsAmount(), SEED)
+                .getPassengerSource(config.getPassengersAmount(), config.getPassengersFrequency()), new NoOutput());
+        assertEquals(steps - steps % 37, resumedSimulation.getElevatorSystem().getStepsMade());
+        assertEquals(steps, resumedSimulation.run());
+        assertEquals(simulation.getElevatorSystem().toString(), resumedSimulation.getElevatorSystem().toString());
+    }
+
+    @Test
+    public void resumedSimulationGetsPassengersFromConfigSeed() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("cartsAmount", "8");
+        properties.setProperty("floorsAmount", "30");
+        properties.setProperty("passengersAmount", "300");
+        properties.setProperty("trafficProfile", "LUNCH");
+        properties.setProperty("seed", "23");
+        properties.setProperty("snapshotFile", folder.newFile().getPath());
+        properties.setProperty("snapshotInterval", "29");
+        SimulationConfig config = SimulationConfig.fromProperties(properties);
+        assertEquals(23, config.getSeed());
+        Simulation simulation = Simulation.withSeed(config, config.getSeed(), new NoOutput());
+        int steps = simulation.run();
+
+        Simulation resumedSimulation = Simulation.resume(config,
+                Simulation.createPassengerSource(config, config.getSeed()), new NoOutput());
+        assertEquals(steps, resumedSimulation.run());
+        assertEquals(simulation.getElevatorSystem().toString(), resumedSimulation.getElevatorSystem().toString());
+    }
+
+    @Test
+    public void appendStepMatchesPrintingCollections() {
+        Simulation simulation = new Simulation(createConfig(3, 10, 5, 1), new PassengerFactory(10, SEED),
+                new NoOutput());
+        simulation.run();
+        List<Passenger> passengers = simulation.getPassengers();
+        String lineSeparator = System.lineSeparator();
+
+        assertEquals("Step 7:" + lineSeparator + simulation.getElevatorSystem().getCartsList() + lineSeparator
+                        + passengers + lineSeparator,
+                SimulationOutput.appendStep(new StringBuilder(), 7, simulation.getElevatorSystem().getCartsList(),
+                        passengers).toString());
+    }
+
+    private void assertSameRuns(SimulationConfig config) {
+        Simulation stepByStep = new Simulation(config, new PassengerFactory(config.getFloorsAmount(), SEED),
+                new NoOutput());
+        int steps = stepByStep.run();
+
+        config.setEventDriven(true);
+        Simulation eventDriven = new Simulation(config, new PassengerFactory(config.getFloorsAmount(), SEED),
+                new NoOutput());
+        assertEquals(steps, eventDriven.run());
+        config.setEventDriven(false);
+
+        List<Passenger> expectedPassengers = stepByStep.getPassengers();
+        List<Passenger> passengers = eventDriven.getPassengers();
+        for (int i = 0; i < expectedPassengers.size(); i++) {
+            assertEquals(expectedPassengers.get(i).getAssignedCartId(), passengers.get(i).getAssignedCartId());
+            assertEquals(expectedPassengers.get(i).getCallStep(), passengers.get(i).getCallStep());
+            assertEquals(expectedPassengers.get(i).getBoardingStep(), passengers.get(i).getBoardingStep());
+        }
+    }
+
+    private SimulationConfig createConfig(int cartsAmount, int floorsAmount, int passengersAmount,
+                                          int passengersFrequency) {
+        SimulationConfig config = new SimulationConfig();
+        config.setCartsAmount(cartsAmount);
+        config.setFloorsAmount(floorsAmount);
+        config.setPassengersAmount(passengersAmount);
+        config.setPassengersFrequency(passengersFrequency);
+        return config;
+    }
+}
@@ -0,0 +1,89 @@
+package app;
+
+import elevator.MetricsSnapshot;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TrafficGeneratorTest {
+
+    private static final long SEED = 17L;
+
+    @Test
+    public void sameSeedGivesSamePassengers() {
+        List<Passenger> passengers = generate(new TrafficGenerator(30, TrafficProfile.LUNCH, 0.5, 500, SEED));
+        List<Passenger> samePassengers = generate(new TrafficGenerator(30, TrafficProfile.LUNCH, 0.5, 500, SEED));
+
+        assertEquals(500, passengers.size());
+        for (int i = 0; i < passengers.size(); i++) {
+            assertEquals(passengers.get(i).toString(), samePassengers.get(i).toString());
+            assertEquals(passengers.get(i).getCallStep(), samePassengers.get(i).getCallStep());
+        }
+    }
+
+    @Test
+    public void passengersArriveInOrderWithMeanRate() {
+        List<Passenger> passengers = generate(new TrafficGenerator(30, TrafficProfile.INTER_FLOOR, 2, 20000, SEED));
+
+        for (int i = 1; i < passengers.size(); i++) {
+            assertTrue(passengers.get(i).getCallStep() >= passengers.get(i - 1).getCallStep());
+        }
+        double rate = passengers.size() / (double) (passengers.get(passengers.size() - 1).getCallStep() + 1);
+        assertEquals(2, rate, 0.05);
+    }
+
+    @Test
+    public void profilesChooseTripsThroughLobby() {
+        for (TrafficProfile profile : TrafficProfile.values()) {
+            int fromLobby = 0;
+            int toLobby = 0;
+            List<Passenger> passengers = generate(new TrafficGenerator(20, profile, 1, 10000, SEED));
+            for (Passenger passenger : passengers) {
+                assertNotEquals(passenger.getStartingFloor(), passenger.getDestinationFloor());
+                assertTrue(passenger.getStartingFloor() >= 0 && passenger.getStartingFloor() <= 20);
+                assertTrue(passenger.getDestinationFloor() >= 0 && passenger.getDestinationFloor() <= 20);
+                if (passenger.getStartingFloor() == 0) {
+                    fromLobby++;
+                } else if (passenger.getDestinationFloor() == 0) {
+                    toLobby++;
+                }
+            }
+            assertEquals(profile.getIncomingPart(), fromLobby / (double) passengers.size(), 0.02);
+            assertEquals(profile.getOutgoingPart(), toLobby / (double) passengers.size(), 0.02);
+        }
+    }
+
+    @Test
+    public void simulationTakesPassengersFromGenerator() {
+        SimulationConfig config = new SimulationConfig();
+        config.setCartsAmount(8);
+        config.setFloorsAmount(30);
+        config.setMetrics(true);
+        Simulation stepByStep = new Simulation(config,
+                new TrafficGenerator(30, TrafficProfile.UP_PEAK, 0.5, 1000, SEED), new NoOutput());
+        int steps = stepByStep.run();
+
+        config.setEventDriven(true);
+        Simulation eventDriven = new Simulation(config,
+                new TrafficGenerator(30, TrafficProfile.UP_PEAK, 0.5, 1000, SEED), new NoOutput());
+        assertEquals(steps, eventDriven.run());
+
+        MetricsSnapshot expected = stepByStep.getElevatorSystem().getMetrics().getSnapshot();
+        MetricsSnapshot snapshot = eventDriven.getElevatorSystem().getMetrics().getSnapshot();
+        assertEquals(1000, snapshot.getRideSteps().getCount());
+        assertEquals(expected.getWaitSteps().getMean(), snapshot.getWaitSteps().getMean(), 0);
+        assertEquals(expected.getRideSteps().getMean(), snapshot.getRideSteps().getMean(), 0);
+        assertTrue(eventDriven.getPassengers().isEmpty());
+    }
+
+    private List<Passenger> generate(PassengerSource source) {
+        List<Passenger> passengers = new ArrayList<>();
+        for (Passenger passenger = source.next(); passenger != null; passenger = source.next()) {
+            passengers.add(passenger);
+        }
+        return passengers;
+    }
+}
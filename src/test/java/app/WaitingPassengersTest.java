@@ -0,0 +1,46 @@
+package app;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class WaitingPassengersTest {
+
+    @Test
+    public void removeBoardingTakesOnlyPassengersOfCartOnFloor() {
+        WaitingPassengers waitingPassengers = new WaitingPassengers(2, 10);
+        Passenger first = createPassenger(3, 7, "first", 0);
+        Passenger otherCart = createPassenger(3, 1, "otherCart", 1);
+        Passenger otherFloor = createPassenger(4, 9, "otherFloor", 0);
+        Passenger second = createPassenger(3, 0, "second", 0);
+        waitingPassengers.addAll(Arrays.asList(first, otherCart, otherFloor, second));
+
+        assertEquals(Arrays.asList(first, second), waitingPassengers.removeBoarding(0, 3));
+        assertTrue(waitingPassengers.removeBoarding(0, 3).isEmpty());
+        assertEquals(1, waitingPassengers.getWaitingAmount(0));
+        assertEquals(1, waitingPassengers.getWaitingAmount(1));
+        assertEquals(Arrays.asList(otherCart, otherFloor), new ArrayList<>(waitingPassengers));
+    }
+
+    @Test
+    public void emptyAfterEveryPassengerBoarded() {
+        WaitingPassengers waitingPassengers = new WaitingPassengers(1, 5);
+        waitingPassengers.add(createPassenger(5, 0, "passenger", 0));
+
+        List<Passenger> boarding = waitingPassengers.removeBoarding(0, 5);
+
+        assertEquals(1, boarding.size());
+        assertTrue(waitingPassengers.isEmpty());
+        assertEquals(0, waitingPassengers.getWaitingAmount(0));
+    }
+
+    private Passenger createPassenger(int startingFloor, int destinationFloor, String name, int cartId) {
+        Passenger passenger = new Passenger(startingFloor, destinationFloor, name);
+        passenger.setAssignedCartId(cartId);
+        return passenger;
+    }
+}
@@ -0,0 +1,62 @@
+package elevator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static elevator.SystemRuns.*;
+import static org.junit.Assert.*;
+
+public class BufferCartStoreTest {
+
+    private static final int CARTS_AMOUNT = 12;
+    private static final int FLOORS_AMOUNT = 150;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void offHeapSystemMatchesHeapSystem() {
+        assertSameRuns(new ElevatorSystem(CARTS_AMOUNT, FLOORS_AMOUNT),
+                ElevatorSystem.offHeap(CARTS_AMOUNT, FLOORS_AMOUNT, new FitnessDispatchStrategy()), 3000, 7);
+        assertSameRuns(new ElevatorSystem(CARTS_AMOUNT, FLOORS_AMOUNT, new EtaDispatchStrategy()),
+                ElevatorSystem.offHeap(CARTS_AMOUNT, FLOORS_AMOUNT, new EtaDispatchStrategy()), 3000, 11);
+    }
+
+    @Test
+    public void mappedSystemIsResumedFromFile() throws IOException {
+        Path file = folder.newFile("carts.store").toPath();
+        ElevatorSystem elevatorSystem = new ElevatorSystem(CARTS_AMOUNT, FLOORS_AMOUNT);
+        ElevatorSystem mappedSystem = ElevatorSystem.mapped(file, CARTS_AMOUNT, FLOORS_AMOUNT,
+                new FitnessDispatchStrategy());
+        //Announced destinations and passengers on board aren't kept in file, so they have to be gone before resume.
+        assertSameRuns(elevatorSystem, mappedSystem, 1000, 13, false);
+        while (elevatorSystem.getRequestsAmount() > 0) {
+            elevatorSystem.makeStep();
+            mappedSystem.makeStep();
+        }
+
+        ElevatorSystem resumedSystem = ElevatorSystem.resume(file, new FitnessDispatchStrategy());
+        assertEquals(elevatorSystem.getStepsMade(), resumedSystem.getStepsMade());
+        assertEquals(elevatorSystem.getRequestsAmount(), resumedSystem.getRequestsAmount());
+        assertEquals(elevatorSystem.toString(), resumedSystem.toString());
+        assertSameRuns(elevatorSystem, resumedSystem, 1000, 17);
+    }
+
+    @Test(expected = IOException.class)
+    public void otherFileCantBeResumed() throws IOException {
+        Path file = folder.newFile("other.store").toPath();
+        Files.write(file, new byte[64]);
+
+        ElevatorSystem.resume(file, new FitnessDispatchStrategy());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void floorsAboveStoreCantBeRequested() {
+        ElevatorSystem.offHeap(2, 10, new FitnessDispatchStrategy()).makeDestinationRequest(0, 200);
+    }
+}
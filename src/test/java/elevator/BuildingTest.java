@@ -0,0 +1,71 @@
+package elevator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static org.junit.Assert.*;
+
+public class BuildingTest {
+
+    private Building building;
+
+    //Low and mid banks serve lobby, high bank is reached through shuttle to sky lobby on floor 60.
+    @Before
+    public void setUp() {
+        building = new Building(90, Arrays.asList(
+                createBank("low", 0, 0, 1, 30),
+                createBank("mid", 0, 0, 30, 60),
+                createBank("shuttle", 0, 0, 60, 60),
+                createBank("high", 60, 60, 61, 90)));
+    }
+
+    @Test
+    public void routeWithOneBankChoosesSmallestRange() {
+        Route route = building.route(0, 30);
+
+        assertEquals(1, route.getLegsAmount());
+        assertEquals(0, route.getBankIndex(0));
+        assertEquals(0, route.getFromFloor(0));
+        assertEquals(30, route.getToFloor(0));
+    }
+
+    @Test
+    public void routeTransfersTwiceToGetToHighBank() {
+        Route route = building.route(10, 75);
+
+        assertEquals(3, route.getLegsAmount());
+        assertEquals("10 =[0]=> 30 =[1]=> 60 =[3]=> 75", route.toString());
+        assertEquals("0 =[1]=> 60 =[3]=> 75", building.route(0, 75).toString());
+    }
+
+    @Test
+    public void routeTransfersOnFloorClosestToDestination() {
+        Route route = building.route(10, 45);
+
+        assertEquals("10 =[0]=> 30 =[1]=> 45", route.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bankRejectsCallFromNotServedFloor() {
+        building.getBanks().get(3).requestCart(10, 70);
+    }
+
+    @Test
+    public void cartsStartOnLowestServedFloor() {
+        Bank high = building.getBanks().get(3);
+
+        assertEquals(60, high.getElevatorSystem().getCartsList().get(0).getCurrentFloor());
+        assertEquals(0, high.requestCart(60, 80));
+        assertArrayEquals(new int[]{1, 2, 3}, building.getBankIndexes(60));
+    }
+
+    private static Bank createBank(String name, int firstFloor, int lastFloor, int fromFloor, int toFloor) {
+        BitSet servedFloors = new BitSet();
+        servedFloors.set(firstFloor, lastFloor + 1);
+        servedFloors.set(fromFloor, toFloor + 1);
+        return new Bank(name, 2, servedFloors, new EtaDispatchStrategy());
+    }
+}
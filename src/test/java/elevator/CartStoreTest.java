@@ -0,0 +1,68 @@
+package elevator;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CartStoreTest {
+
+    @Test
+    public void bitmapsOfCartsDoNotOverlap() {
+        assertBitmapsDoNotOverlap(new ArrayCartStore(3, 100));
+        assertBitmapsDoNotOverlap(BufferCartStore.allocateDirect(3, 100));
+    }
+
+    private void assertBitmapsDoNotOverlap(CartStore store) {
+        assertTrue(store.set(CartStore.UPWARD_REQUESTS, 1, 0));
+        assertTrue(store.set(CartStore.UPWARD_REQUESTS, 1, 63));
+        assertTrue(store.set(CartStore.UPWARD_REQUESTS, 1, 64));
+        assertFalse(store.set(CartStore.UPWARD_REQUESTS, 1, 64));
+
+        assertTrue(store.isEmpty(CartStore.UPWARD_REQUESTS, 0));
+        assertTrue(store.isEmpty(CartStore.UPWARD_REQUESTS, 2));
+        assertTrue(store.isEmpty(CartStore.DOWNWARD_REQUESTS, 1));
+        assertEquals(0, store.nextSetFloor(CartStore.UPWARD_REQUESTS, 1, 0));
+        assertEquals(63, store.nextSetFloor(CartStore.UPWARD_REQUESTS, 1, 1));
+        assertEquals(64, store.nextSetFloor(CartStore.UPWARD_REQUESTS, 1, 64));
+        assertEquals(-1, store.nextSetFloor(CartStore.UPWARD_REQUESTS, 1, 65));
+        assertEquals(63, store.previousSetFloor(CartStore.UPWARD_REQUESTS, 1, 63));
+        assertEquals(0, store.previousSetFloor(CartStore.UPWARD_REQUESTS, 1, 62));
+        assertEquals(64, store.lastSetFloor(CartStore.UPWARD_REQUESTS, 1));
+
+        store.clear(CartStore.UPWARD_REQUESTS, 1, 0);
+        assertEquals(-1, store.previousSetFloor(CartStore.UPWARD_REQUESTS, 1, 62));
+    }
+
+    @Test
+    public void bitmapsGrowWithRequestedFloors() {
+        CartStore store = new ArrayCartStore(2, 10);
+        store.set(CartStore.DOWNWARD_REQUESTS, 0, 5);
+        store.set(CartStore.DOWNWARD_REQUESTS, 1, 7);
+        assertEquals(63, store.getHighestFloor());
+
+        store.ensureFloor(200);
+        assertEquals(255, store.getHighestFloor());
+        assertTrue(store.set(CartStore.DOWNWARD_REQUESTS, 1, 200));
+        assertEquals(5, store.lastSetFloor(CartStore.DOWNWARD_REQUESTS, 0));
+        assertEquals(7, store.previousSetFloor(CartStore.DOWNWARD_REQUESTS, 1, 199));
+        assertEquals(200, store.lastSetFloor(CartStore.DOWNWARD_REQUESTS, 1));
+        assertFalse(store.get(CartStore.DOWNWARD_REQUESTS, 0, 1000));
+    }
+
+    @Test
+    public void cartsViewTheirSlotsOfStore() {
+        ElevatorSystem elevatorSystem = new ElevatorSystem(4, 100);
+        elevatorSystem.makeDestinationRequest(2, 90);
+        elevatorSystem.makeSteps(5);
+
+        CartStore store = elevatorSystem.getCartStore();
+        assertEquals(4, store.getCurrentFloor(2));
+        assertEquals(4, elevatorSystem.getCartsList().get(2).getCurrentFloor());
+        assertEquals(1, store.getRequestsAmount(2));
+        assertTrue(store.get(CartStore.UPWARD_REQUESTS, 2, 90));
+        for (int slot : new int[]{0, 1, 3}) {
+            assertTrue(store.isResting(slot));
+            assertEquals(0, store.getCurrentFloor(slot));
+        }
+    }
+}
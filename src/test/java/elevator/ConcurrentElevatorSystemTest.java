@@ -0,0 +1,84 @@
+package elevator;
+
+import org.junit.Test;
+import utils.RequestDirection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentElevatorSystemTest {
+
+    private static final int CARTS_AMOUNT = 4;
+    private static final int FLOORS_AMOUNT = 20;
+    private static final int PRODUCERS_AMOUNT = 4;
+    private static final int CALLS_PER_PRODUCER = 1000;
+
+    @Test
+    public void callIsHandledAtNextStep() {
+        ConcurrentElevatorSystem concurrentSystem = new ConcurrentElevatorSystem(CARTS_AMOUNT, FLOORS_AMOUNT);
+        CompletableFuture<Integer> cartId = concurrentSystem.requestCart(5, RequestDirection.UPWARDS);
+
+        assertFalse(cartId.isDone());
+        concurrentSystem.makeStep();
+        assertTrue(cartId.isDone());
+        assertEquals(1, concurrentSystem.getElevatorSystem().getRequestsAmount());
+    }
+
+    @Test
+    public void destinationOutsideBuildingIsRejectedWhenQueued() {
+        ConcurrentElevatorSystem concurrentSystem = new ConcurrentElevatorSystem(CARTS_AMOUNT, FLOORS_AMOUNT);
+        concurrentSystem.makeDestinationRequest(0, 7);
+        try {
+            concurrentSystem.makeDestinationRequest(1, FLOORS_AMOUNT + 1);
+            fail("Destination above building was queued");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            concurrentSystem.makeDestinationRequest(1, -1);
+            fail("Destination below building was queued");
+        } catch (IllegalArgumentException expected) {
+        }
+        CompletableFuture<Integer> cartId = concurrentSystem.requestCart(5, RequestDirection.UPWARDS);
+
+        concurrentSystem.makeStep();
+        assertTrue(cartId.isDone());
+        assertEquals(2, concurrentSystem.getElevatorSystem().getRequestsAmount());
+        assertEquals(1, concurrentSystem.getElevatorSystem().getStepsMade());
+        assertEquals(0, concurrentSystem.getSkippedRequests());
+    }
+
+    @Test
+    public void callsFromManyThreads() throws Exception {
+        ConcurrentElevatorSystem concurrentSystem = new ConcurrentElevatorSystem(CARTS_AMOUNT, FLOORS_AMOUNT);
+        CountDownLatch producersDone = new CountDownLatch(PRODUCERS_AMOUNT);
+        List<CompletableFuture<Integer>> cartIds = new ArrayList<>();
+
+        for (int p = 0; p < PRODUCERS_AMOUNT; p++) {
+            int producer = p;
+            new Thread(() -> {
+                for (int i = 0; i < CALLS_PER_PRODUCER; i++) {
+                    int floor = (producer + i) % FLOORS_AMOUNT + 1;
+                    synchronized (cartIds) {
+                        cartIds.add(concurrentSystem.requestCart(floor, RequestDirection.DOWNWARDS));
+                    }
+                    concurrentSystem.makeDestinationRequest(i % CARTS_AMOUNT, 0);
+                }
+                producersDone.countDown();
+            }).start();
+        }
+        while (producersDone.getCount() > 0) {
+            concurrentSystem.makeStep();
+        }
+        concurrentSystem.makeStep();
+
+        assertEquals(PRODUCERS_AMOUNT * CALLS_PER_PRODUCER, cartIds.size());
+        for (CompletableFuture<Integer> cartId : cartIds) {
+            assertTrue(cartId.isDone());
+            assertTrue(cartId.get() >= 0 && cartId.get() < CARTS_AMOUNT);
+        }
+    }
+}
@@ -5,6 +5,8 @@ import org.junit.Before;
 import org.junit.Test;
 import utils.CartDirection;
 
+import java.util.NoSuchElementException;
+
 import static org.junit.Assert.*;
 
 public class ElevatorCartTest {
@@ -82,6 +84,24 @@ public class ElevatorCartTest {
     }
 
 
+    @Test
+    public void multipleRemoveDownRequest() {
+        cart.setDirection(CartDirection.DOWNWARDS);
+        cart.addRequest(4);
+        assertEquals(4, cart.getNextDownRequest());
+        cart.removeNearestRequest();
+        cart.removeNearestRequest();
+        assertEquals(2, cart.getNextDownRequest());
+        cart.removeNearestRequest();
+        assertFalse(cart.hasMoreDownRequests());
+        assertEquals(3, cart.getRequestsAmount());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void getNextRequestWhenEmpty() {
+        new ElevatorCart(1).getNextUpRequest();
+    }
+
     @Test
     public void toString1() {
         cart.setDirection(CartDirection.DOWNWARDS);
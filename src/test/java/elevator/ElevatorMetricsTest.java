@@ -0,0 +1,141 @@
+package elevator;
+
+import org.junit.Before;
+import org.junit.Test;
+import utils.RequestDirection;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ElevatorMetricsTest {
+
+    private ElevatorSystem elevatorSystem;
+    private ElevatorMetrics metrics;
+
+    @Before
+    public void setUp() {
+        elevatorSystem = new ElevatorSystem(1, 10);
+        metrics = elevatorSystem.enableMetrics();
+    }
+
+    @Test
+    public void recordsWaitAndRideSteps() {
+        elevatorSystem.requestCart(3, RequestDirection.UPWARDS);
+        makeSteps(4);
+        elevatorSystem.makeDestinationRequest(0, 7);
+        makeSteps(6);
+
+        MetricsSnapshot snapshot = metrics.getSnapshot();
+        assertEquals(10, snapshot.getStepsMade());
+        assertEquals(1, snapshot.getWaitSteps().getCount());
+        assertEquals(4, snapshot.getWaitSteps().getMax());
+        assertEquals(1, snapshot.getRideSteps().getCount());
+        assertEquals(5, snapshot.getRideSteps().getMax());
+        assertEquals(1, snapshot.getDispatchNanos().getCount());
+        assertEquals(7, snapshot.getBusySteps(0));
+        assertEquals(0.7, snapshot.getUtilisation(0), 1e-9);
+        assertEquals(7, snapshot.getFloorsTravelled(0));
+        assertEquals(0, snapshot.getDirectionReversals(0));
+    }
+
+    @Test
+    public void countsDirectionReversals() {
+        elevatorSystem.makeDestinationRequest(0, 5);
+        elevatorSystem.makeDestinationRequest(0, 9);
+        makeSteps(6);
+        elevatorSystem.makeDestinationRequest(0, 2);
+        makeSteps(20);
+
+        MetricsSnapshot snapshot = metrics.getSnapshot();
+        assertEquals(3, snapshot.getRideSteps().getCount());
+        assertEquals(1, snapshot.getDirectionReversals());
+        assertEquals(16, snapshot.getFloorsTravelled());
+        assertEquals(0, metrics.getSnapshot().getWaitSteps().getCount());
+    }
+
+    @Test
+    public void callOnCartFloorIsServedAtOnce() {
+        elevatorSystem.requestCart(0, RequestDirection.UPWARDS);
+        elevatorSystem.makeDestinationRequest(0, 0);
+
+        assertEquals(1, metrics.getServedCallsAmount());
+        assertEquals(1, metrics.getFinishedRidesAmount());
+        assertEquals(0, metrics.getMaxWaitSteps());
+    }
+
+    @Test
+    public void resetRemovesRecordedValues() {
+        elevatorSystem.requestCart(3, RequestDirection.UPWARDS);
+        makeSteps(4);
+        metrics.reset();
+        makeSteps(2);
+
+        MetricsSnapshot snapshot = metrics.getSnapshot();
+        assertEquals(0, snapshot.getWaitSteps().getCount());
+        assertEquals(0, snapshot.getBusySteps(0));
+        assertEquals(0, snapshot.getFloorsTravelled());
+    }
+
+    @Test
+    public void metricsAreAvailableThroughJmx() throws Exception {
+        elevatorSystem.requestCart(2, RequestDirection.DOWNWARDS);
+        makeSteps(3);
+        ObjectName name = metrics.registerMBean("metricsTest");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertEquals(1L, server.getAttribute(name, "ServedCallsAmount"));
+            assertEquals(3L, server.getAttribute(name, "MaxWaitSteps"));
+        } finally {
+            metrics.unregisterMBean();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void parallelSteppingRecordsSameMetrics() {
+        ElevatorSystem sequentialSystem = new ElevatorSystem(64, 60);
+        ElevatorSystem parallelSystem = new ElevatorSystem(64, 60);
+        parallelSystem.enableParallelStepping(4, 8);
+        ElevatorMetrics sequentialMetrics = sequentialSystem.enableMetrics();
+        ElevatorMetrics parallelMetrics = parallelSystem.enableMetrics();
+        Random random = new Random(3);
+        try {
+            for (int call = 0; call < 2000; call++) {
+                int floor = random.nextInt(61);
+                RequestDirection direction = random.nextBoolean() ? RequestDirection.UPWARDS
+                        : RequestDirection.DOWNWARDS;
+                int cartId = sequentialSystem.requestCart(floor, direction);
+                assertEquals(cartId, parallelSystem.requestCart(floor, direction));
+                int destinationFloor = random.nextInt(61);
+                sequentialSystem.makeDestinationRequest(cartId, destinationFloor);
+                parallelSystem.makeDestinationRequest(cartId, destinationFloor);
+                int steps = random.nextInt(3);
+                sequentialSystem.makeSteps(steps);
+                parallelSystem.makeSteps(steps);
+            }
+        } finally {
+            parallelSystem.disableParallelStepping();
+        }
+
+        MetricsSnapshot expected = sequentialMetrics.getSnapshot();
+        MetricsSnapshot snapshot = parallelMetrics.getSnapshot();
+        assertEquals(expected.getWaitSteps().toString(), snapshot.getWaitSteps().toString());
+        assertEquals(expected.getRideSteps().toString(), snapshot.getRideSteps().toString());
+        for (int cartId = 0; cartId < 64; cartId++) {
+            assertEquals(expected.getBusySteps(cartId), snapshot.getBusySteps(cartId));
+            assertEquals(expected.getFloorsTravelled(cartId), snapshot.getFloorsTravelled(cartId));
+            assertEquals(expected.getDirectionReversals(cartId), snapshot.getDirectionReversals(cartId));
+            assertEquals(expected.getStops(cartId), snapshot.getStops(cartId));
+        }
+    }
+
+    private void makeSteps(int steps) {
+        for (int i = 0; i < steps; i++) {
+            elevatorSystem.makeStep();
+        }
+    }
+}
@@ -0,0 +1,451 @@
+package elevator;
+
+import org.junit.Before;
+import org.junit.Test;
+import utils.CartDirection;
+import utils.RequestDirection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ElevatorSystemTest {
+
+    private static final int CARTS_AMOUNT = 8;
+    private static final int FLOORS_AMOUNT = 30;
+
+    private ElevatorSystem elevatorSystem;
+
+    @Before
+    public void setUp() {
+        elevatorSystem = new ElevatorSystem(CARTS_AMOUNT, FLOORS_AMOUNT);
+    }
+
+    @Test
+    public void requestsAmountFollowsCarts() {
+        Random random = new Random(7);
+        for (int step = 0; step < 500; step++) {
+            int floor = random.nextInt(FLOORS_AMOUNT) + 1;
+            RequestDirection direction = random.nextBoolean() ? RequestDirection.UPWARDS : RequestDirection.DOWNWARDS;
+            int cartId = elevatorSystem.requestCart(floor, direction);
+            elevatorSystem.makeDestinationRequest(cartId, random.nextInt(FLOORS_AMOUNT) + 1);
+            elevatorSystem.makeStep();
+
+            assertEquals(sumCartsRequests(), elevatorSystem.getRequestsAmount());
+        }
+    }
+
+    @Test
+    public void requestsAmountIgnoresDuplicates() {
+        elevatorSystem.makeDestinationRequest(0, 5);
+        elevatorSystem.makeDestinationRequest(0, 5);
+        elevatorSystem.makeDestinationRequest(0, 0);
+
+        assertEquals(1, elevatorSystem.getRequestsAmount());
+    }
+
+    @Test
+    public void requestCartWhenNoCartHasPositiveFitness() {
+        ElevatorSystem singleCartSystem = new ElevatorSystem(1, 10);
+        singleCartSystem.makeDestinationRequest(0, 5);
+        singleCartSystem.makeStep();
+
+        assertEquals(0, singleCartSystem.requestCart(10, RequestDirection.DOWNWARDS));
+    }
+
+    @Test
+    public void parallelStepMatchesSequentialStep() {
+        ElevatorSystem parallelSystem = new ElevatorSystem(CARTS_AMOUNT, FLOORS_AMOUNT);
+        parallelSystem.enableParallelStepping(4, 2);
+        Random random = new Random(11);
+        try {
+            for (int step = 0; step < 300; step++) {
+                int floor = random.nextInt(FLOORS_AMOUNT) + 1;
+                RequestDirection direction = random.nextBoolean() ? RequestDirection.UPWARDS : RequestDirection.DOWNWARDS;
+                assertEquals(elevatorSystem.requestCart(floor, direction), parallelSystem.requestCart(floor, direction));
+                elevatorSystem.makeStep();
+                parallelSystem.makeStep();
+
+                assertEquals(elevatorSystem.getRequestsAmount(), parallelSystem.getRequestsAmount());
+                assertEquals(elevatorSystem.getCartsList().toString(), parallelSystem.getCartsList().toString());
+            }
+        } finally {
+            parallelSystem.disableParallelStepping();
+        }
+    }
+
+    @Test
+    public void requestCartsMatchesSingleRequests() {
+        ElevatorSystem batchSystem = new ElevatorSystem(CARTS_AMOUNT, FLOORS_AMOUNT);
+        Random random = new Random(3);
+        for (int step = 0; step < 50; step++) {
+            int[] floors = new int[random.nextInt(20)];
+            RequestDirection[] directions = new RequestDirection[floors.length];
+            int[] expectedCartIds = new int[floors.length];
+            for (int i = 0; i < floors.length; i++) {
+                floors[i] = random.nextInt(FLOORS_AMOUNT) + 1;
+                directions[i] = random.nextBoolean() ? RequestDirection.UPWARDS : RequestDirection.DOWNWARDS;
+                expectedCartIds[i] = elevatorSystem.requestCart(floors[i], directions[i]);
+            }
+
+            assertArrayEquals(expectedCartIds, batchSystem.requestCarts(floors, directions));
+            assertEquals(elevatorSystem.getRequestsAmount(), batchSystem.getRequestsAmount());
+            elevatorSystem.makeStep();
+            batchSystem.makeStep();
+        }
+    }
+
+    @Test
+    public void indexedDispatchMatchesCheckingEveryCart() {
+        int cartsAmount = 64;
+        int floorsAmount = 200;
+        FitnessDispatchStrategy dispatchStrategy = new FitnessDispatchStrategy();
+        ElevatorSystem indexedSystem = new ElevatorSystem(cartsAmount, floorsAmount, dispatchStrategy);
+        Random random = new Random(5);
+        for (int step = 0; step < 2000; step++) {
+            int floor = random.nextInt(floorsAmount + 1);
+            RequestDirection direction = random.nextBoolean() ? RequestDirection.UPWARDS : RequestDirection.DOWNWARDS;
+            int expectedCartId = dispatchStrategy.chooseCartFromAll(indexedSystem, floor, direction);
+            int cartId = indexedSystem.requestCart(floor, direction);
+            assertEquals(expectedCartId, cartId);
+
+            indexedSystem.makeDestinationRequest(cartId, random.nextInt(floorsAmount + 1));
+            indexedSystem.makeSteps(random.nextInt(8));
+        }
+    }
+
+    @Test
+    public void makeStepsMatchesMakingStepsOneByOne() {
+        ElevatorSystem jumpingSystem = new ElevatorSystem(CARTS_AMOUNT, FLOORS_AMOUNT);
+        Random random = new Random(13);
+        for (int round = 0; round < 200; round++) {
+            int floor = random.nextInt(FLOORS_AMOUNT) + 1;
+            RequestDirection direction = random.nextBoolean() ? RequestDirection.UPWARDS : RequestDirection.DOWNWARDS;
+            int cartId = elevatorSystem.requestCart(floor, direction);
+            assertEquals(cartId, jumpingSystem.requestCart(floor, direction));
+            elevatorSystem.makeDestinationRequest(cartId, floor / 2);
+            jumpingSystem.makeDestinationRequest(cartId, floor / 2);
+
+            int steps = random.nextInt(30) + 1;
+            int[] stepsUntilAtFloor = new int[CARTS_AMOUNT];
+            int[] stepsUntilIdle = new int[CARTS_AMOUNT];
+            for (int i = 0; i < CARTS_AMOUNT; i++) {
+                stepsUntilAtFloor[i] = elevatorSystem.getStepsUntilCartAtFloor(i, floor);
+                stepsUntilIdle[i] = elevatorSystem.getStepsUntilCartIdle(i);
+            }
+            for (int step = 1; step <= steps; step++) {
+                elevatorSystem.makeStep();
+                for (int i = 0; i < CARTS_AMOUNT; i++) {
+                    ElevatorCart cart = elevatorSystem.getCartsList().get(i);
+                    if (stepsUntilAtFloor[i] == step) {
+                        assertEquals(floor, cart.getCurrentFloor());
+                    } else if (stepsUntilAtFloor[i] < 0 || stepsUntilAtFloor[i] > step) {
+                        assertNotEquals(floor, cart.getCurrentFloor());
+                    }
+                    assertEquals(step >= stepsUntilIdle[i], cart.isIdle());
+                }
+            }
+            jumpingSystem.makeSteps(steps);
+
+            assertEquals(elevatorSystem.getCartsList().toString(), jumpingSystem.getCartsList().toString());
+            assertEquals(elevatorSystem.getRequestsAmount(), jumpingSystem.getRequestsAmount());
+        }
+    }
+
+    @Test
+    public void listenersAreNotifiedAboutStopsAndDirections() {
+        RecordingListener listener = new RecordingListener();
+        elevatorSystem.addListener(listener);
+        elevatorSystem.requestCart(3, RequestDirection.UPWARDS);
+        for (int i = 0; i < 5; i++) {
+            elevatorSystem.makeStep();
+        }
+
+        assertEquals(Arrays.asList("1 direction 0 none upwards", "4 stop 0 3",
+                "4 direction 0 upwards none", "4 idle 0 3"), listener.events);
+
+        elevatorSystem.removeListener(listener);
+        elevatorSystem.requestCart(1, RequestDirection.DOWNWARDS);
+        elevatorSystem.makeSteps(5);
+        assertEquals(4, listener.events.size());
+    }
+
+    @Test
+    public void makeStepsNotifiesListenersAsMakingStepsOneByOne() {
+        ElevatorSystem jumpingSystem = new ElevatorSystem(CARTS_AMOUNT, FLOORS_AMOUNT);
+        RecordingListener listener = new RecordingListener();
+        RecordingListener jumpingListener = new RecordingListener();
+        elevatorSystem.addListener(listener);
+        jumpingSystem.addListener(jumpingListener);
+        Random random = new Random(29);
+        for (int round = 0; round < 200; round++) {
+            int floor = random.nextInt(FLOORS_AMOUNT) + 1;
+            RequestDirection direction = random.nextBoolean() ? RequestDirection.UPWARDS : RequestDirection.DOWNWARDS;
+            int cartId = elevatorSystem.requestCart(floor, direction);
+            jumpingSystem.requestCart(floor, direction);
+            int destinationFloor = random.nextInt(FLOORS_AMOUNT) + 1;
+            elevatorSystem.makeDestinationRequest(cartId, destinationFloor);
+            jumpingSystem.makeDestinationRequest(cartId, destinationFloor);
+
+            int steps = random.nextInt(30) + 1;
+            for (int step = 0; step < steps; step++) {
+                elevatorSystem.makeStep();
+            }
+            jumpingSystem.makeSteps(steps);
+        }
+
+        Collections.sort(listener.events);
+        Collections.sort(jumpingListener.events);
+        assertFalse(listener.events.isEmpty());
+        assertEquals(listener.events, jumpingListener.events);
+    }
+
+    @Test
+    public void etaStrategyChoosesCartArrivingFirst() {
+        ElevatorSystem fitnessSystem = new ElevatorSystem(2, 20);
+        ElevatorSystem etaSystem = new ElevatorSystem(2, 20, new EtaDispatchStrategy());
+        for (ElevatorSystem system : Arrays.asList(fitnessSystem, etaSystem)) {
+            system.makeDestinationRequest(0, 5);
+            system.makeStep();
+            system.makeStep();
+        }
+
+        assertEquals(1, fitnessSystem.requestCart(3, RequestDirection.DOWNWARDS));
+        assertEquals(0, etaSystem.requestCart(3, RequestDirection.DOWNWARDS));
+    }
+
+    @Test
+    public void etaStrategyEstimatesStepsUntilCartAtFloor() {
+        ElevatorSystem etaSystem = new ElevatorSystem(CARTS_AMOUNT, FLOORS_AMOUNT, new EtaDispatchStrategy());
+        Random random = new Random(31);
+        for (int round = 0; round < 1000; round++) {
+            int floor = random.nextInt(FLOORS_AMOUNT + 1);
+            RequestDirection direction = random.nextBoolean() ? RequestDirection.UPWARDS : RequestDirection.DOWNWARDS;
+            int cartId = etaSystem.getDispatchStrategy().chooseCart(etaSystem, floor, direction);
+            int estimatedSteps = EtaDispatchStrategy.getStepsUntilStop(etaSystem, etaSystem.getCartsList().get(cartId),
+                    floor);
+
+            assertEquals(cartId, etaSystem.requestCart(floor, direction));
+            if (estimatedSteps > 0) {
+                assertEquals(estimatedSteps, etaSystem.getStepsUntilCartAtFloor(cartId, floor));
+            }
+            etaSystem.makeDestinationRequest(cartId, random.nextInt(FLOORS_AMOUNT + 1));
+            etaSystem.makeSteps(random.nextInt(4));
+        }
+    }
+
+    @Test
+    public void destinationDispatchGroupsPassengersWithSameDestination() {
+        ElevatorSystem destinationSystem = new ElevatorSystem(2, 20, new DestinationDispatchStrategy());
+        destinationSystem.makeDestinationRequest(1, 2);
+        destinationSystem.makeStep();
+
+        int cartId = destinationSystem.requestCart(3, 15);
+        assertEquals(cartId, destinationSystem.requestCart(4, 15));
+        assertNotEquals(cartId, destinationSystem.requestCart(4, 1));
+    }
+
+    @Test
+    public void destinationCallWithoutDestinationStrategyUsesDirection() {
+        ElevatorSystem destinationSystem = new ElevatorSystem(CARTS_AMOUNT, FLOORS_AMOUNT);
+        Random random = new Random(37);
+        for (int round = 0; round < 300; round++) {
+            int floor = random.nextInt(FLOORS_AMOUNT + 1);
+            int destinationFloor = SystemRuns.getOtherFloor(random, FLOORS_AMOUNT, floor);
+            RequestDirection direction = destinationFloor > floor ? RequestDirection.UPWARDS
+                    : RequestDirection.DOWNWARDS;
+            int cartId = elevatorSystem.requestCart(floor, direction);
+
+            assertEquals(cartId, destinationSystem.requestCart(floor, destinationFloor));
+            elevatorSystem.makeStep();
+            destinationSystem.makeStep();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void destinationCallFromOutsideBuilding() {
+        elevatorSystem.requestCart(-1, 3);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void destinationCallToOutsideBuilding() {
+        elevatorSystem.requestCart(3, FLOORS_AMOUNT + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void hallCallFromOutsideBuilding() {
+        elevatorSystem.requestCart(FLOORS_AMOUNT + 1, RequestDirection.UPWARDS);
+    }
+
+    @Test
+    public void batchWithFloorOutsideBuildingAssignsNoCall() {
+        try {
+            elevatorSystem.requestCarts(new int[]{3, -1}, new RequestDirection[]{RequestDirection.UPWARDS,
+                    RequestDirection.DOWNWARDS});
+            fail("Batch with call from outside building was dispatched");
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(0, elevatorSystem.getRequestsAmount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void destinationRequestOutsideBuilding() {
+        elevatorSystem.makeDestinationRequest(0, -1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void boardingPassengerRidingOutsideBuilding() {
+        elevatorSystem.boardPassenger(0, FLOORS_AMOUNT + 40);
+    }
+
+    @Test
+    public void destinationCallToSameFloorIsNotDispatched() {
+        try {
+            elevatorSystem.requestCart(3, 3);
+            fail("Call to floor where passenger already is was dispatched");
+        } catch (IllegalArgumentException expected) {
+        }
+        assertEquals(0, elevatorSystem.getRequestsAmount());
+    }
+
+    @Test
+    public void fullCartPassesHallCallsAndStopsForPassengersInside() {
+        ElevatorSystem limitedSystem = new ElevatorSystem(1, 10, new EtaDispatchStrategy(), 1);
+        RecordingListener listener = new RecordingListener();
+        limitedSystem.addListener(listener);
+        ElevatorCart cart = limitedSystem.getCartsList().get(0);
+
+        assertTrue(limitedSystem.boardPassenger(0, 6));
+        assertFalse(limitedSystem.boardPassenger(0, 4));
+        assertTrue(cart.isFull());
+        limitedSystem.requestCart(3, RequestDirection.UPWARDS);
+        for (int step = 0; step < 7; step++) {
+            limitedSystem.makeStep();
+        }
+
+        assertTrue(listener.events.contains("4 bypass 0 3"));
+        assertFalse(listener.events.contains("4 stop 0 3"));
+        assertTrue(listener.events.contains("7 stop 0 6"));
+        assertEquals(0, cart.getLoad());
+        assertEquals(0, limitedSystem.getRequestsAmount());
+        assertTrue(cart.isIdle());
+    }
+
+    @Test
+    public void cartsAccelerateAndWaitWithOpenDoors() {
+        ElevatorSystem movingSystem = new ElevatorSystem(1, FLOORS_AMOUNT, new EtaDispatchStrategy(),
+                ElevatorSystem.UNLIMITED_CAPACITY, new MotionModel(3, 1, 2));
+        RecordingListener listener = new RecordingListener();
+        movingSystem.addListener(listener);
+        ElevatorCart cart = movingSystem.getCartsList().get(0);
+
+        movingSystem.makeDestinationRequest(0, 10);
+        assertEquals(7, EtaDispatchStrategy.getStepsUntilStop(movingSystem, cart, 10));
+        List<Integer> floors = new ArrayList<>();
+        for (int step = 0; step < 7; step++) {
+            movingSystem.makeStep();
+            floors.add(cart.getCurrentFloor());
+        }
+        assertEquals(Arrays.asList(0, 1, 3, 6, 8, 9, 10), floors);
+        assertTrue(listener.events.contains("7 stop 0 10"));
+
+        movingSystem.makeDestinationRequest(0, 5);
+        assertEquals(7, EtaDispatchStrategy.getStepsUntilStop(movingSystem, cart, 5));
+        movingSystem.makeSteps(7);
+        assertTrue(listener.events.contains("14 stop 0 5"));
+        assertEquals(4, movingSystem.getMotionModel().getTravelSteps(5));
+    }
+
+    @Test
+    public void makeStepsWithMotionModelMatchesMakingStepsOneByOne() {
+        MotionModel motionModel = new MotionModel(4, 2, 3);
+        ElevatorSystem jumpingSystem = new ElevatorSystem(CARTS_AMOUNT, FLOORS_AMOUNT, new EtaDispatchStrategy(),
+                ElevatorSystem.UNLIMITED_CAPACITY, motionModel);
+        ElevatorSystem steppingSystem = new ElevatorSystem(CARTS_AMOUNT, FLOORS_AMOUNT, new EtaDispatchStrategy(),
+                ElevatorSystem.UNLIMITED_CAPACITY, motionModel);
+        Random random = new Random(41);
+        for (int round = 0; round < 300; round++) {
+            int floor = random.nextInt(FLOORS_AMOUNT + 1);
+            RequestDirection direction = random.nextBoolean() ? RequestDirection.UPWARDS : RequestDirection.DOWNWARDS;
+            int cartId = jumpingSystem.requestCart(floor, direction);
+            assertEquals(cartId, steppingSystem.requestCart(floor, direction));
+            int destinationFloor = random.nextInt(FLOORS_AMOUNT + 1);
+            jumpingSystem.makeDestinationRequest(cartId, destinationFloor);
+            steppingSystem.makeDestinationRequest(cartId, destinationFloor);
+
+            int steps = random.nextInt(5);
+            jumpingSystem.makeSteps(steps);
+            for (int step = 0; step < steps; step++) {
+                steppingSystem.makeStep();
+            }
+            assertEquals(steppingSystem.toString(), jumpingSystem.toString());
+        }
+    }
+
+    @Test
+    public void dispatchSkipsFullCarts() {
+        for (DispatchStrategy strategy : Arrays.asList(new FitnessDispatchStrategy(), new EtaDispatchStrategy(),
+                new DestinationDispatchStrategy())) {
+            ElevatorSystem limitedSystem = new ElevatorSystem(2, 10, strategy, 1);
+            limitedSystem.getCartsList().get(1).setCurrentFloor(10);
+            limitedSystem.boardPassenger(0, 9);
+
+            assertEquals(1, limitedSystem.requestCart(0, RequestDirection.UPWARDS));
+            assertEquals(1, limitedSystem.requestCart(0, 5));
+            limitedSystem.boardPassenger(1, 2);
+            assertTrue(limitedSystem.requestCart(4, RequestDirection.DOWNWARDS) >= 0);
+        }
+    }
+
+    @Test
+    public void dispatchStrategyForName() {
+        assertTrue(DispatchStrategy.forName("fitness") instanceof FitnessDispatchStrategy);
+        assertTrue(DispatchStrategy.forName("eta") instanceof EtaDispatchStrategy);
+        assertTrue(DispatchStrategy.forName("destination") instanceof DestinationDispatchStrategy);
+        assertTrue(DispatchStrategy.forName(EtaDispatchStrategy.class.getName()) instanceof EtaDispatchStrategy);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void dispatchStrategyForUnknownName() {
+        DispatchStrategy.forName("java.lang.String");
+    }
+
+    private static class RecordingListener implements ElevatorListener {
+
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onStopServed(int step, int cartId, int floorNumber) {
+            events.add(String.format("%d stop %d %d", step, cartId, floorNumber));
+        }
+
+        @Override
+        public void onDirectionChanged(int step, int cartId, CartDirection previousDirection,
+                                       CartDirection direction) {
+            events.add(String.format("%d direction %d %s %s", step, cartId, previousDirection.toSring(),
+                    direction.toSring()));
+        }
+
+        @Override
+        public void onIdle(int step, int cartId, int floorNumber) {
+            events.add(String.format("%d idle %d %d", step, cartId, floorNumber));
+        }
+
+        @Override
+        public void onCallBypassed(int step, int cartId, int floorNumber) {
+            events.add(String.format("%d bypass %d %d", step, cartId, floorNumber));
+        }
+    }
+
+    private int sumCartsRequests() {
+        int sum = 0;
+        for (ElevatorCart cart : elevatorSystem.getCartsList()) {
+            sum += cart.getRequestsAmount();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,220 @@
+package elevator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import utils.RequestDirection;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import static org.junit.Assert.*;
+
+public class ParkingPolicyTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void demandDecaysWithAge() {
+        ParkingPolicy parkingPolicy = new ParkingPolicy(2, 10, 100, 10);
+        parkingPolicy.recordCall(0, 3, RequestDirection.UPWARDS);
+        parkingPolicy.recordCall(100, 3, RequestDirection.UPWARDS);
+
+        assertEquals(1 + Math.exp(-1), parkingPolicy.getDemand(100, 3, RequestDirection.UPWARDS), 1e-9);
+        assertEquals(Math.exp(-1) + Math.exp(-2), parkingPolicy.getDemand(200, 3, RequestDirection.UPWARDS), 1e-9);
+        assertEquals(0, parkingPolicy.getDemand(100, 3, RequestDirection.DOWNWARDS), 0);
+        assertEquals(0, parkingPolicy.getDemand(100, 4, RequestDirection.UPWARDS), 0);
+    }
+
+    @Test
+    public void demandDoesNotOverflow() {
+        ParkingPolicy parkingPolicy = new ParkingPolicy(2, 10, 10, 10);
+        parkingPolicy.recordCall(0, 5, RequestDirection.DOWNWARDS);
+        for (int step = 1000; step <= 100_000; step += 1000) {
+            parkingPolicy.recordCall(step, 5, RequestDirection.DOWNWARDS);
+        }
+
+        assertEquals(1, parkingPolicy.getDemand(100_000, 5, RequestDirection.DOWNWARDS), 1e-9);
+    }
+
+    @Test
+    public void cartsAreSpreadByDemandPerCart() {
+        ParkingPolicy parkingPolicy = new ParkingPolicy(4, 10, 100, 10);
+        for (int i = 0; i < 3; i++) {
+            parkingPolicy.recordCall(0, 3, RequestDirection.UPWARDS);
+        }
+        parkingPolicy.recordCall(0, 7, RequestDirection.DOWNWARDS);
+
+        parkingPolicy.plan(new ArrayCartStore(4, 10));
+        assertEquals(3, parkingPolicy.getParkingFloor(0));
+        assertEquals(3, parkingPolicy.getParkingFloor(1));
+        assertEquals(3, parkingPolicy.getParkingFloor(2));
+        assertEquals(7, parkingPolicy.getParkingFloor(3));
+    }
+
+    @Test
+    public void idleCartsParkOnFloorWithCalls() {
+        ElevatorSystem elevatorSystem = new ElevatorSystem(2, 20);
+        ParkingPolicy parkingPolicy = elevatorSystem.enableParking(50, 5);
+        for (int i = 0; i < 3; i++) {
+            rideDown(elevatorSystem, 12);
+        }
+        while (elevatorSystem.getStepsMade() % 5 != 4) {
+            elevatorSystem.makeStep();
+        }
+        elevatorSystem.makeStep();
+        for (ElevatorCart cart : elevatorSystem.getCartsList()) {
+            assertTrue(cart.getCurrentFloor() == 12 || parkingPolicy.getParkingFloor(cart.getId()) == 12);
+        }
+
+        elevatorSystem.makeSteps(12);
+        for (ElevatorCart cart : elevatorSystem.getCartsList()) {
+            assertEquals(12, cart.getCurrentFloor());
+            assertEquals(0, cart.getRequestsAmount());
+            assertEquals(ParkingPolicy.NO_FLOOR, parkingPolicy.getParkingFloor(cart.getId()));
+        }
+    }
+
+    @Test
+    public void cartWithRequestStopsParking() {
+        ElevatorSystem elevatorSystem = new ElevatorSystem(1, 20);
+        ParkingPolicy parkingPolicy = elevatorSystem.enableParking(50, 5);
+        rideDown(elevatorSystem, 15);
+        while (parkingPolicy.getParkingFloor(0) == ParkingPolicy.NO_FLOOR) {
+            elevatorSystem.makeStep();
+        }
+        elevatorSystem.makeSteps(3);
+        assertEquals(4, elevatorSystem.getCartsList().get(0).getCurrentFloor());
+
+        elevatorSystem.requestCart(2, RequestDirection.UPWARDS);
+        elevatorSystem.makeStep();
+        assertEquals(ParkingPolicy.NO_FLOOR, parkingPolicy.getParkingFloor(0));
+        assertEquals(4, elevatorSystem.getCartsList().get(0).getCurrentFloor());
+        elevatorSystem.makeSteps(2);
+        assertEquals(2, elevatorSystem.getCartsList().get(0).getCurrentFloor());
+    }
+
+    @Test
+    public void parkingCartFollowsMotionModel() {
+        MotionModel motionModel = new MotionModel(3, 1, 2);
+        ElevatorSystem elevatorSystem = new ElevatorSystem(1, 40, new FitnessDispatchStrategy(),
+                ElevatorSystem.UNLIMITED_CAPACITY, motionModel);
+        ParkingPolicy parkingPolicy = elevatorSystem.enableParking(50, 5);
+        rideDown(elevatorSystem, 30);
+        while (elevatorSystem.getCartsList().get(0).getDwellStepsLeft() > 0) {
+            elevatorSystem.makeStep();
+        }
+        while (parkingPolicy.getParkingFloor(0) == ParkingPolicy.NO_FLOOR) {
+            elevatorSystem.makeStep();
+        }
+
+        ElevatorCart cart = elevatorSystem.getCartsList().get(0);
+        int parkingSteps = 1;
+        while (cart.getCurrentFloor() != 30) {
+            assertTrue(cart.getCurrentFloor() < 30);
+            elevatorSystem.makeStep();
+            parkingSteps++;
+        }
+        assertEquals(motionModel.getTravelSteps(30), parkingSteps);
+        assertEquals(0, cart.getSpeed());
+        assertEquals(0, cart.getDwellStepsLeft());
+
+        rideDown(elevatorSystem, 30);
+        while (parkingPolicy.getParkingFloor(0) == ParkingPolicy.NO_FLOOR) {
+            elevatorSystem.makeStep();
+        }
+        elevatorSystem.makeSteps(3);
+        assertTrue(cart.getSpeed() > 1);
+        elevatorSystem.requestCart(0, RequestDirection.UPWARDS);
+        elevatorSystem.makeStep();
+        assertEquals(ParkingPolicy.NO_FLOOR, parkingPolicy.getParkingFloor(0));
+        int floorNumber = cart.getCurrentFloor();
+        elevatorSystem.makeStep();
+        assertEquals(floorNumber - 1, cart.getCurrentFloor());
+    }
+
+    @Test
+    public void cartTakenToCallFloorIsPreferred() {
+        ElevatorSystem elevatorSystem = new ElevatorSystem(2, 20);
+        ParkingPolicy parkingPolicy = elevatorSystem.enableParking(50, 40);
+        assertEquals(0, elevatorSystem.requestCart(10, RequestDirection.DOWNWARDS));
+        elevatorSystem.makeSteps(12);
+        assertEquals(0, elevatorSystem.requestCart(14, RequestDirection.DOWNWARDS));
+        elevatorSystem.makeSteps(40 - elevatorSystem.getStepsMade());
+        assertEquals(10, parkingPolicy.getParkingFloor(1));
+        elevatorSystem.makeSteps(5);
+
+        ElevatorCart cart = elevatorSystem.getCartsList().get(0);
+        ElevatorCart parkingCart = elevatorSystem.getCartsList().get(1);
+        assertEquals(14, cart.getCurrentFloor());
+        assertEquals(6, parkingCart.getCurrentFloor());
+        ElevatorSystem fork = elevatorSystem.fork(new FitnessDispatchStrategy());
+        assertEquals(1, elevatorSystem.requestCart(10, RequestDirection.UPWARDS));
+        assertEquals(1, fork.requestCarts(new int[]{10}, new RequestDirection[]{RequestDirection.DOWNWARDS})[0]);
+    }
+
+    @Test
+    public void forkCopiesParking() {
+        ElevatorSystem elevatorSystem = new ElevatorSystem(2, 20);
+        ParkingPolicy parkingPolicy = elevatorSystem.enableParking(50, 5);
+        rideDown(elevatorSystem, 15);
+        while (parkingPolicy.getParkingFloor(0) == ParkingPolicy.NO_FLOOR) {
+            elevatorSystem.makeStep();
+        }
+
+        ElevatorSystem fork = elevatorSystem.fork(new FitnessDispatchStrategy());
+        ParkingPolicy forkParkingPolicy = fork.getParkingPolicy();
+        assertNotSame(parkingPolicy, forkParkingPolicy);
+        assertEquals(parkingPolicy.getDemand(20, 15, RequestDirection.DOWNWARDS),
+                forkParkingPolicy.getDemand(20, 15, RequestDirection.DOWNWARDS), 0);
+        fork.requestCart(0, RequestDirection.UPWARDS);
+        for (int i = 0; i < 20; i++) {
+            elevatorSystem.makeStep();
+            fork.makeStep();
+        }
+        assertEquals(15, elevatorSystem.getCartsList().get(0).getCurrentFloor());
+        assertNotEquals(elevatorSystem.toString(), fork.toString());
+        assertEquals(0, parkingPolicy.getDemand(20, 0, RequestDirection.UPWARDS), 0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void parkingSystemIsNotTraced() throws IOException {
+        ElevatorSystem elevatorSystem = new ElevatorSystem(2, 20);
+        elevatorSystem.enableParking(50, 5);
+        elevatorSystem.setTraceWriter(new TraceWriter(folder.newFile().toPath(), 2, 20));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void parkingSystemIsNotSnapshotted() throws IOException {
+        ElevatorSystem elevatorSystem = new ElevatorSystem(2, 20);
+        elevatorSystem.enableParking(50, 5);
+        new SnapshotWriter(Channels.newChannel(new ByteArrayOutputStream()), elevatorSystem);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void snapshottedSystemDoesNotPark() throws IOException {
+        ElevatorSystem elevatorSystem = new ElevatorSystem(2, 20);
+        new SnapshotWriter(Channels.newChannel(new ByteArrayOutputStream()), elevatorSystem);
+        elevatorSystem.enableParking(50, 5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void windowHasToBePositive() {
+        new ElevatorSystem(1, 10).enableParking(0, 5);
+    }
+
+    //Calls cart from given floor, boards passenger when it gets there and rides him to the lobby.
+    private static void rideDown(ElevatorSystem elevatorSystem, int floorNumber) {
+        int cartId = elevatorSystem.requestCart(floorNumber, RequestDirection.DOWNWARDS);
+        ElevatorCart cart = elevatorSystem.getCartsList().get(cartId);
+        while (cart.getCurrentFloor() != floorNumber) {
+            elevatorSystem.makeStep();
+        }
+        elevatorSystem.makeDestinationRequest(cartId, 0);
+        while (cart.getRequestsAmount() > 0) {
+            elevatorSystem.makeStep();
+        }
+    }
+}
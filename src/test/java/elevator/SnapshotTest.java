@@ -0,0 +1,142 @@
+package elevator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static elevator.SystemRuns.*;
+import static org.junit.Assert.*;
+
+public class SnapshotTest {
+
+    private static final int CARTS_AMOUNT = 64;
+    private static final int FLOORS_AMOUNT = 150;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void snapshotRestoresSystem() throws IOException {
+        ElevatorSystem elevatorSystem = createSystem();
+        makeCalls(elevatorSystem, new Random(3), 500);
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        try (SnapshotWriter writer = new SnapshotWriter(Channels.newChannel(snapshot), elevatorSystem)) {
+            assertEquals(CARTS_AMOUNT, writer.write());
+        }
+
+        ElevatorSystem restoredSystem = read(snapshot.toByteArray(), 1);
+        assertEquals(elevatorSystem.getStepsMade(), restoredSystem.getStepsMade());
+        assertEquals(elevatorSystem.getRequestsAmount(), restoredSystem.getRequestsAmount());
+        assertSameCarts(elevatorSystem, restoredSystem);
+        assertSameRuns(elevatorSystem, restoredSystem, 500, 5);
+    }
+
+    @Test
+    public void incrementalSnapshotsWriteOnlyChangedCarts() throws IOException {
+        ElevatorSystem elevatorSystem = createSystem();
+        Random random = new Random(7);
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        int framesAmount = 0;
+        try (SnapshotWriter writer = new SnapshotWriter(Channels.newChannel(snapshot), elevatorSystem)) {
+            writer.write();
+            framesAmount++;
+            for (int frame = 0; frame < 20; frame++) {
+                makeCalls(elevatorSystem, random, 3);
+                assertTrue(writer.write(ByteBuffer.wrap(new byte[]{(byte) frame})) < CARTS_AMOUNT);
+                framesAmount++;
+            }
+        }
+
+        SnapshotReader reader = new SnapshotReader(Channels.newChannel(
+                new ByteArrayInputStream(snapshot.toByteArray())));
+        ElevatorSystem restoredSystem = reader.read(new FitnessDispatchStrategy());
+        assertEquals(framesAmount, reader.getFramesAmount());
+        assertEquals(19, reader.getApplicationData().get(0));
+        assertSameCarts(elevatorSystem, restoredSystem);
+        assertSameRuns(elevatorSystem, restoredSystem, 500, 11);
+    }
+
+    @Test
+    public void compactedFileHoldsFramesSinceCompaction() throws IOException {
+        ElevatorSystem elevatorSystem = createSystem();
+        Random random = new Random(29);
+        Path path = folder.getRoot().toPath().resolve("system.snapshot");
+        try (SnapshotWriter writer = new SnapshotWriter(path, elevatorSystem, 5)) {
+            for (int frame = 0; frame < 12; frame++) {
+                makeCalls(elevatorSystem, random, 3);
+                int cartsAmount = writer.write(ByteBuffer.wrap(new byte[]{(byte) frame}));
+                assertEquals(frame % 5 == 0, cartsAmount == CARTS_AMOUNT);
+            }
+        }
+
+        try (SnapshotReader reader = new SnapshotReader(path)) {
+            ElevatorSystem restoredSystem = reader.read(new FitnessDispatchStrategy());
+            assertEquals(2, reader.getFramesAmount());
+            assertEquals(11, reader.getApplicationData().get(0));
+            assertSameCarts(elevatorSystem, restoredSystem);
+        }
+        assertEquals(1, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void cutFrameIsSkipped() throws IOException {
+        ElevatorSystem elevatorSystem = createSystem();
+        Random random = new Random(13);
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        ElevatorSystem fork;
+        try (SnapshotWriter writer = new SnapshotWriter(Channels.newChannel(snapshot), elevatorSystem)) {
+            makeCalls(elevatorSystem, random, 100);
+            writer.write();
+            fork = elevatorSystem.fork(new FitnessDispatchStrategy());
+            makeCalls(elevatorSystem, random, 100);
+            writer.write();
+        }
+        byte[] bytes = snapshot.toByteArray();
+
+        ElevatorSystem restoredSystem = read(Arrays.copyOf(bytes, bytes.length - 10), 1);
+        assertEquals(fork.getStepsMade(), restoredSystem.getStepsMade());
+        assertSameCarts(fork, restoredSystem);
+    }
+
+    @Test
+    public void forkIsIndependentOfSystem() {
+        ElevatorSystem elevatorSystem = ElevatorSystem.offHeap(CARTS_AMOUNT, FLOORS_AMOUNT,
+                new FitnessDispatchStrategy());
+        makeCalls(elevatorSystem, new Random(17), 300);
+        String state = elevatorSystem.toString();
+
+        ElevatorSystem fork = elevatorSystem.fork(new FitnessDispatchStrategy());
+        assertSameCarts(elevatorSystem, fork);
+        makeCalls(fork, new Random(19), 300);
+        assertEquals(state, elevatorSystem.toString());
+
+        ElevatorSystem otherFork = elevatorSystem.fork(new FitnessDispatchStrategy());
+        assertSameRuns(elevatorSystem, otherFork, 300, 23);
+    }
+
+    @Test(expected = IOException.class)
+    public void otherDataIsNotRead() throws IOException {
+        new SnapshotReader(Channels.newChannel(new ByteArrayInputStream(new byte[64])));
+    }
+
+    private static ElevatorSystem createSystem() {
+        return new ElevatorSystem(CARTS_AMOUNT, FLOORS_AMOUNT, new FitnessDispatchStrategy(), 8);
+    }
+
+    private static ElevatorSystem read(byte[] snapshot, int framesAmount) throws IOException {
+        try (SnapshotReader reader = new SnapshotReader(Channels.newChannel(new ByteArrayInputStream(snapshot)))) {
+            ElevatorSystem elevatorSystem = reader.read(new FitnessDispatchStrategy());
+            assertEquals(framesAmount, reader.getFramesAmount());
+            return elevatorSystem;
+        }
+    }
+}
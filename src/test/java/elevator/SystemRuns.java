@@ -0,0 +1,68 @@
+package elevator;
+
+import utils.RequestDirection;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+//Seeded calls and checks shared by tests in which two systems have to behave in same way.
+final class SystemRuns {
+
+    private SystemRuns() {
+    }
+
+    static void makeCalls(ElevatorSystem elevatorSystem, Random random, int calls) {
+        makeCalls(elevatorSystem, random, calls, true);
+    }
+
+    //Makes random calls and steps, passenger boards when assigned cart is already on his floor.
+    //Every fourth call gives destination, unless only hall calls are made.
+    static void makeCalls(ElevatorSystem elevatorSystem, Random random, int calls, boolean destinationCalls) {
+        int floorsAmount = elevatorSystem.getFloorsAmount();
+        for (int call = 0; call < calls; call++) {
+            int floor = random.nextInt(floorsAmount + 1);
+            int cartId = destinationCalls && random.nextInt(4) == 0
+                    ? elevatorSystem.requestCart(floor, getOtherFloor(random, floorsAmount, floor))
+                    : elevatorSystem.requestCart(floor, random.nextBoolean() ? RequestDirection.UPWARDS
+                    : RequestDirection.DOWNWARDS);
+            elevatorSystem.makeSteps(random.nextInt(3) + 1);
+            if (elevatorSystem.getCartsList().get(cartId).getCurrentFloor() == floor) {
+                elevatorSystem.boardPassenger(cartId, random.nextInt(floorsAmount + 1));
+            }
+        }
+    }
+
+    //Destination is drawn from other floors, so it never equals starting floor.
+    static int getOtherFloor(Random random, int floorsAmount, int floorNumber) {
+        int otherFloor = random.nextInt(floorsAmount);
+        return otherFloor >= floorNumber ? otherFloor + 1 : otherFloor;
+    }
+
+    static void assertSameCarts(ElevatorSystem expectedSystem, ElevatorSystem elevatorSystem) {
+        assertEquals(expectedSystem.toString(), elevatorSystem.toString());
+        for (int cartId = 0; cartId < expectedSystem.getCartsAmount(); cartId++) {
+            ElevatorCart expectedCart = expectedSystem.getCartsList().get(cartId);
+            ElevatorCart cart = elevatorSystem.getCartsList().get(cartId);
+            assertEquals(expectedCart.getLoad(), cart.getLoad());
+            assertEquals(expectedCart.getRequestsAmount(), cart.getRequestsAmount());
+            assertEquals(expectedCart.getHighestPlannedStop(), cart.getHighestPlannedStop());
+            assertEquals(expectedCart.getLowestPlannedStop(), cart.getLowestPlannedStop());
+        }
+    }
+
+    static void assertSameRuns(ElevatorSystem expectedSystem, ElevatorSystem elevatorSystem, int calls, long seed) {
+        assertSameRuns(expectedSystem, elevatorSystem, calls, seed, true);
+    }
+
+    //Makes same random calls in both systems and checks that they assign same carts and move carts in same way.
+    static void assertSameRuns(ElevatorSystem expectedSystem, ElevatorSystem elevatorSystem, int calls, long seed,
+                               boolean destinationCalls) {
+        for (int call = 0; call < calls; call++) {
+            long callSeed = seed * calls + call;
+            makeCalls(expectedSystem, new Random(callSeed), 1, destinationCalls);
+            makeCalls(elevatorSystem, new Random(callSeed), 1, destinationCalls);
+            assertSameCarts(expectedSystem, elevatorSystem);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package elevator;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import utils.RequestDirection;
+
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TraceTest {
+
+    private static final int CARTS_AMOUNT = 6;
+    private static final int FLOORS_AMOUNT = 40;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void replayReproducesRecordedRun() throws Exception {
+        Path trace = folder.newFile("run.trace").toPath();
+        ElevatorSystem elevatorSystem = new ElevatorSystem(CARTS_AMOUNT, FLOORS_AMOUNT);
+        Random random = new Random(23);
+        try (TraceWriter traceWriter = new TraceWriter(trace, CARTS_AMOUNT, FLOORS_AMOUNT)) {
+            elevatorSystem.setTraceWriter(traceWriter);
+            for (int step = 0; step < 5000; step++) {
+                int floor = random.nextInt(FLOORS_AMOUNT) + 1;
+                RequestDirection direction = random.nextBoolean() ? RequestDirection.UPWARDS : RequestDirection.DOWNWARDS;
+                int cartId = elevatorSystem.requestCart(floor, direction);
+                elevatorSystem.makeDestinationRequest(cartId, random.nextInt(FLOORS_AMOUNT) + 1);
+                if (random.nextBoolean()) {
+                    elevatorSystem.makeStep();
+                } else {
+                    elevatorSystem.makeSteps(random.nextInt(5) + 1);
+                }
+            }
+        }
+
+        TraceReplayer replayer = new TraceReplayer(trace);
+        ElevatorSystem replayedSystem = replayer.replay();
+
+        assertEquals(5000, replayer.getReplayedCalls());
+        assertEquals(0, replayer.getMismatchedCalls());
+        assertEquals(-1, replayer.getFirstMismatchStep());
+        assertEquals(elevatorSystem.getStepsMade(), replayedSystem.getStepsMade());
+        assertEquals(elevatorSystem.toString(), replayedSystem.toString());
+    }
+
+    @Test
+    public void replayReproducesDestinationCalls() throws Exception {
+        Path trace = folder.newFile("destination.trace").toPath();
+        ElevatorSystem elevatorSystem = new ElevatorSystem(CARTS_AMOUNT, FLOORS_AMOUNT,
+                new DestinationDispatchStrategy());
+        Random random = new Random(41);
+        try (TraceWriter traceWriter = new TraceWriter(trace, CARTS_AMOUNT, FLOORS_AMOUNT)) {
+            elevatorSystem.setTraceWriter(traceWriter);
+            for (int step = 0; step < 2000; step++) {
+                int floor = random.nextInt(FLOORS_AMOUNT + 1);
+                int cartId = elevatorSystem.requestCart(floor, SystemRuns.getOtherFloor(random, FLOORS_AMOUNT, floor));
+                elevatorSystem.makeDestinationRequest(cartId, random.nextInt(FLOORS_AMOUNT + 1));
+                elevatorSystem.makeSteps(random.nextInt(3) + 1);
+            }
+        }
+
+        TraceReplayer replayer = new TraceReplayer(trace, new DestinationDispatchStrategy());
+        ElevatorSystem replayedSystem = replayer.replay();
+
+        assertEquals(2000, replayer.getReplayedCalls());
+        assertEquals(0, replayer.getMismatchedCalls());
+        assertEquals(elevatorSystem.toString(), replayedSystem.toString());
+    }
+
+    @Test
+    public void readerReadsRecordsInOrder() throws Exception {
+        Path trace = folder.newFile("records.trace").toPath();
+        try (TraceWriter traceWriter = new TraceWriter(trace, CARTS_AMOUNT, FLOORS_AMOUNT)) {
+            traceWriter.recordCall(0, 7, RequestDirection.DOWNWARDS, 3);
+            traceWriter.recordSteps(0, 2);
+            traceWriter.recordDestination(2, 3, 1);
+        }
+
+        try (TraceReader reader = new TraceReader(trace)) {
+            assertEquals(CARTS_AMOUNT, reader.getCartsAmount());
+            assertEquals(FLOORS_AMOUNT, reader.getFloorsAmount());
+
+            assertTrue(reader.next());
+            assertTrue(reader.isCall());
+            assertEquals(RequestDirection.DOWNWARDS, reader.getRequestDirection());
+            assertEquals(3, reader.getCartId());
+            assertEquals(7, reader.getFloorNumber());
+
+            assertTrue(reader.next());
+            assertTrue(reader.isSteps());
+            assertEquals(2, reader.getFloorNumber());
+
+            assertTrue(reader.next());
+            assertTrue(reader.isDestinationRequest());
+            assertEquals(2, reader.getStep());
+
+            assertFalse(reader.next());
+        }
+    }
+}
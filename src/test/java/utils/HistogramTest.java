@@ -0,0 +1,70 @@
+package utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HistogramTest {
+
+    @Test
+    public void smallValuesAreExact() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 20; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(20, histogram.getCount());
+        assertEquals(10.5, histogram.getMean(), 1e-9);
+        assertEquals(10, histogram.getValueAtPercentile(50));
+        assertEquals(19, histogram.getValueAtPercentile(95));
+        assertEquals(20, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void largeValuesHaveBoundedError() {
+        Histogram histogram = new Histogram();
+        long[] values = {100, 1_000, 123_456, 10_000_000_000L, Long.MAX_VALUE};
+        for (long value : values) {
+            Histogram single = new Histogram();
+            single.record(value);
+            single.record(0);
+            long recorded = single.getValueAtPercentile(100);
+            assertEquals(value, recorded);
+            histogram.record(value);
+        }
+        for (int i = 0; i < values.length - 1; i++) {
+            long recorded = histogram.getValueAtPercentile(100.0 * (i + 1) / values.length);
+            assertTrue(recorded >= values[i]);
+            assertTrue(recorded - values[i] <= values[i] / 16);
+        }
+        assertEquals(Long.MAX_VALUE, histogram.getMax());
+    }
+
+    @Test
+    public void copyDoesNotChange() {
+        Histogram histogram = new Histogram();
+        histogram.record(5);
+        Histogram copy = histogram.copy();
+        histogram.record(7);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(1, copy.getCount());
+        assertEquals(5, copy.getMax());
+    }
+
+    @Test
+    public void addedHistogramMatchesRecordingAllValues() {
+        Histogram histogram = new Histogram();
+        Histogram other = new Histogram();
+        Histogram all = new Histogram();
+        for (int value = 0; value < 1000; value += 7) {
+            (value % 2 == 0 ? histogram : other).record(value);
+            all.record(value);
+        }
+        histogram.add(other);
+
+        assertEquals(all.toString(), histogram.toString());
+        assertEquals(all.getValueAtPercentile(75), histogram.getValueAtPercentile(75));
+    }
+}